@@ -0,0 +1,118 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import com.okta.developer.blog.domain.Post;
+import io.r2dbc.spi.ConnectionFactories;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Measures the creation of the select statements of the posts joined with their blog by the {@link EntityManager}, rendered for
+ * every call or through its template cache, unpaged or with a sorted page, and {@link EntityManager#camelCaseToSnakeCase}.
+ * <p>
+ * No statement is executed: the database of the {@link R2dbcEntityTemplate} is never connected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityManagerBenchmark {
+
+    private static final Table entityTable = Table.aliased("post", EntityManager.ENTITY_ALIAS);
+    private static final Table blogTable = Table.aliased("blog", "blog");
+
+    private EntityManager entityManager;
+
+    @State(Scope.Benchmark)
+    public static class Paging {
+
+        @Param({ "unpaged", "sortedPage" })
+        private String paging;
+
+        private Pageable pageable;
+
+        @Setup
+        public void setUp() {
+            pageable = switch (paging) {
+                case "unpaged" -> null;
+                case "sortedPage" -> PageRequest.of(3, 20, Sort.by("date").descending().and(Sort.by("id")));
+                default -> throw new IllegalArgumentException("Unknown paging: " + paging);
+            };
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(mappingContext, conversions);
+        DatabaseClient db = DatabaseClient.builder()
+            .connectionFactory(ConnectionFactories.get("r2dbc:postgresql://benchmark@localhost:5432/benchmark"))
+            .bindMarkers(PostgresDialect.INSTANCE.getBindMarkersFactory())
+            .build();
+        entityManager = new EntityManager(
+            SqlRenderer.create(new RenderContextFactory(PostgresDialect.INSTANCE).createRenderContext()),
+            new UpdateMapper(PostgresDialect.INSTANCE, converter),
+            new R2dbcEntityTemplate(db, PostgresDialect.INSTANCE, converter),
+            new ApplicationProperties()
+        );
+    }
+
+    private static SelectFromAndJoinCondition createSelectFrom() {
+        List<Expression> columns = PostSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        columns.addAll(BlogSqlHelper.getColumns(blogTable, "blog"));
+        return Select.builder()
+            .select(columns)
+            .from(entityTable)
+            .leftOuterJoin(blogTable)
+            .on(Column.create("blog_id", entityTable))
+            .equals(Column.create("id", blogTable));
+    }
+
+    @Benchmark
+    public String createSelectRendered(Paging paging) {
+        return entityManager.createSelect(createSelectFrom(), Post.class, paging.pageable, null);
+    }
+
+    @Benchmark
+    public String createSelectCached(Paging paging) {
+        return entityManager.createSelect("all", EntityManagerBenchmark::createSelectFrom, Post.class, paging.pageable, null);
+    }
+
+    @Benchmark
+    public String camelCaseToSnakeCase() {
+        return EntityManager.camelCaseToSnakeCase("relPostTagLastModifiedDate");
+    }
+}
@@ -0,0 +1,71 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.domain.Post;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the latency of a page of hits of the {@link InMemoryPostSearchIndex}.
+ * <p>
+ * The posts are generated as {@link PostgresPostSearchBenchmark} generates them in the database: their words are drawn from
+ * {@code word0} to {@code word4999} with a skewed distribution, so {@code word1} is in most posts and {@code word4000} in a few.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryPostSearchBenchmark {
+
+    static final int VOCABULARY_SIZE = 5000;
+    static final int TITLE_WORDS = 4;
+    static final int CONTENT_WORDS = 50;
+
+    @Param({ "1000000" })
+    private int posts;
+
+    @Param({ "word1", "word4000", "word1 word2" })
+    private String query;
+
+    @Param({ "20" })
+    private int size;
+
+    private InMemoryPostSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new InMemoryPostSearchIndex(null);
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= posts; id++) {
+            index.index(new Post().id(id).title(words(random, TITLE_WORDS)).content(words(random, CONTENT_WORDS)).date(Instant.EPOCH));
+        }
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        index.search(query, null, size).subscribe(blackhole::consume);
+    }
+
+    static String words(SplittableRandom random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double r = random.nextDouble();
+            words.append(i == 0 ? "word" : " word").append((int) (VOCABULARY_SIZE * r * r * r));
+        }
+        return words.toString();
+    }
+}
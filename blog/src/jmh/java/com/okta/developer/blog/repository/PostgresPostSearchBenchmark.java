@@ -0,0 +1,112 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import com.okta.developer.blog.repository.rowmapper.BlogRowMapper;
+import com.okta.developer.blog.repository.rowmapper.ColumnConverter;
+import com.okta.developer.blog.repository.rowmapper.PostSummaryRowMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Measures the latency of a page of hits of the {@link DatabasePostSearchIndex}.
+ * <p>
+ * It needs a database migrated by the application, given as an R2DBC URL:
+ * {@code -Djmh.args="PostgresPostSearchBenchmark -jvmArgsAppend -Dbenchmark.r2dbc.url=r2dbc:postgresql://blog:@localhost:5432/blog"}.
+ * The missing posts are generated on the first run, with titles starting with {@code benchmark} and the words of
+ * {@link InMemoryPostSearchBenchmark}, so the measures of both indexes can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostgresPostSearchBenchmark {
+
+    private static final String URL_PROPERTY = "benchmark.r2dbc.url";
+
+    // the same distribution of words as InMemoryPostSearchBenchmark.words, the reference to i makes it random per row
+    private static final String WORDS =
+        "(SELECT string_agg('word' || floor(%d * power(random(), 3))::int, ' ') FROM generate_series(1, %d + i * 0))";
+
+    @Param({ "1000000" })
+    private int posts;
+
+    @Param({ "word1", "word4000", "word1 word2" })
+    private String query;
+
+    @Param({ "20" })
+    private int size;
+
+    private DatabasePostSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null) {
+            throw new IllegalStateException("The database must be given with -D" + URL_PROPERTY + "=r2dbc:postgresql://...");
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(url);
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions));
+        index = new DatabasePostSearchIndex(
+            new R2dbcEntityTemplate(connectionFactory),
+            new PostSummaryRowMapper(converter),
+            new BlogRowMapper(converter)
+        );
+        generatePosts(DatabaseClient.create(connectionFactory));
+    }
+
+    private void generatePosts(DatabaseClient db) {
+        long existing = db
+            .sql("SELECT count(*) AS existing FROM post WHERE title LIKE 'benchmark %'")
+            .map(row -> row.get("existing", Long.class))
+            .one()
+            .block();
+        if (existing >= posts) {
+            return;
+        }
+        String title = String.format(WORDS, InMemoryPostSearchBenchmark.VOCABULARY_SIZE, InMemoryPostSearchBenchmark.TITLE_WORDS);
+        String content = String.format(WORDS, InMemoryPostSearchBenchmark.VOCABULARY_SIZE, InMemoryPostSearchBenchmark.CONTENT_WORDS);
+        db
+            .sql(
+                "INSERT INTO post (title, content, excerpt, date) SELECT 'benchmark ' || " +
+                title +
+                ", c.content, left(c.content, 255), now() FROM generate_series(:from, :to) i, LATERAL (SELECT " +
+                content +
+                " AS content) c"
+            )
+            .bind("from", existing + 1)
+            .bind("to", (long) posts)
+            .fetch()
+            .rowsUpdated()
+            .then(db.sql("ANALYZE post").then())
+            .block();
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        index.search(query, null, size).doOnNext(blackhole::consume).blockLast();
+    }
+}
@@ -0,0 +1,89 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Measures {@link ColumnConverter#convert} through each converter registered by
+ * {@link DatabaseConfiguration#r2dbcCustomConversions}, and for a value which already has the target type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnConverterBenchmark {
+
+    @Param(
+        {
+            "InstantRead",
+            "InstantWrite",
+            "BitSetRead",
+            "ZonedDateTimeRead",
+            "ZonedDateTimeWrite",
+            "DurationRead",
+            "DurationWrite",
+            "Identity",
+        }
+    )
+    private String converter;
+
+    private ColumnConverter columnConverter;
+    private Object value;
+    private Class<?> target;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        columnConverter = new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions));
+
+        LocalDateTime localDateTime = LocalDateTime.of(2025, 2, 7, 22, 6, 48);
+        BitSet bitSet = new BitSet();
+        bitSet.set(0);
+        switch (converter) {
+            case "InstantRead" -> set(localDateTime, Instant.class);
+            case "InstantWrite" -> set(localDateTime.toInstant(ZoneOffset.UTC), LocalDateTime.class);
+            case "BitSetRead" -> set(bitSet, Boolean.class);
+            case "ZonedDateTimeRead" -> set(localDateTime, ZonedDateTime.class);
+            case "ZonedDateTimeWrite" -> set(localDateTime.atZone(ZoneOffset.UTC), LocalDateTime.class);
+            case "DurationRead" -> set(90_000L, Duration.class);
+            case "DurationWrite" -> set(Duration.ofSeconds(90), Long.class);
+            case "Identity" -> set("value", String.class);
+            default -> throw new IllegalArgumentException("Unknown converter: " + converter);
+        }
+    }
+
+    private void set(Object value, Class<?> target) {
+        this.value = value;
+        this.target = target;
+    }
+
+    @Benchmark
+    public Object convert() {
+        return columnConverter.convert(value, target);
+    }
+}
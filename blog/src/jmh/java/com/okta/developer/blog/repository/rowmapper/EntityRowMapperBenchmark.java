@@ -0,0 +1,131 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import io.r2dbc.spi.Row;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Measures the mapping of a result by each row mapper, from synthetic {@link TestRow}s with the types the driver returns, e.g.
+ * {@link LocalDateTime} for the {@code timestamp} columns.
+ * <p>
+ * A result of one row mostly measures the plan of the columns, which is built once per result, a result of many rows the mapping
+ * of each row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityRowMapperBenchmark {
+
+    @Param({ "post", "postSummary", "blog", "tag", "user" })
+    private String mapper;
+
+    @Param({ "1", "1000" })
+    private int rows;
+
+    private BiFunction<Row, String, ?> rowMapper;
+    private TestRow.Metadata metadata;
+    private Object[][] result;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions));
+
+        LocalDateTime date = LocalDateTime.of(2025, 2, 7, 22, 6, 48);
+        metadata = new TestRow.Metadata();
+        result = new Object[rows][];
+        switch (mapper) {
+            case "post" -> {
+                rowMapper = new PostRowMapper(converter);
+                metadata
+                    .column("e_id", Long.class)
+                    .column("e_title", String.class)
+                    .column("e_content", String.class)
+                    .column("e_date", LocalDateTime.class)
+                    .column("e_excerpt", String.class)
+                    .column("e_blog_id", Long.class);
+                for (int i = 0; i < rows; i++) {
+                    result[i] = new Object[] { (long) i, "title " + i, "content " + i, date, "content " + i, (long) i % 10 };
+                }
+            }
+            case "postSummary" -> {
+                rowMapper = new PostSummaryRowMapper(converter);
+                metadata
+                    .column("e_id", Long.class)
+                    .column("e_title", String.class)
+                    .column("e_date", LocalDateTime.class)
+                    .column("e_excerpt", String.class)
+                    .column("e_blog_id", Long.class);
+                for (int i = 0; i < rows; i++) {
+                    result[i] = new Object[] { (long) i, "title " + i, date, "content " + i, (long) i % 10 };
+                }
+            }
+            case "blog" -> {
+                rowMapper = new BlogRowMapper(converter);
+                metadata
+                    .column("e_id", Long.class)
+                    .column("e_name", String.class)
+                    .column("e_handle", String.class)
+                    .column("e_user_id", String.class);
+                for (int i = 0; i < rows; i++) {
+                    result[i] = new Object[] { (long) i, "blog " + i, "handle" + i, "user" + i % 10 };
+                }
+            }
+            case "tag" -> {
+                rowMapper = new TagRowMapper(converter);
+                metadata.column("e_id", Long.class).column("e_name", String.class);
+                for (int i = 0; i < rows; i++) {
+                    result[i] = new Object[] { (long) i, "tag " + i };
+                }
+            }
+            case "user" -> {
+                rowMapper = new UserRowMapper(converter);
+                metadata
+                    .column("e_id", String.class)
+                    .column("e_login", String.class)
+                    .column("e_first_name", String.class)
+                    .column("e_last_name", String.class)
+                    .column("e_email", String.class)
+                    .column("e_activated", Boolean.class)
+                    .column("e_lang_key", String.class)
+                    .column("e_image_url", String.class);
+                for (int i = 0; i < rows; i++) {
+                    result[i] = new Object[] { "user" + i, "login" + i, "first", "last", "user" + i + "@localhost", true, "en", null };
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown mapper: " + mapper);
+        }
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) {
+        // the driver creates new metadata for every result, so the plan is built once per invocation
+        TestRow.Metadata resultMetadata = metadata.copy();
+        for (Object[] values : result) {
+            blackhole.consume(rowMapper.apply(new TestRow(resultMetadata, values), "e"));
+        }
+    }
+}
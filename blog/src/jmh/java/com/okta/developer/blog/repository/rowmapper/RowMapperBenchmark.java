@@ -0,0 +1,110 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import com.okta.developer.blog.domain.Blog;
+import com.okta.developer.blog.domain.Post;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares the mapping of a result of posts joined with their blog by the {@link PostRowMapper} and {@link BlogRowMapper}
+ * with the previous mapping, which looked the columns up by name and fell back to the {@link ColumnConverter} when the driver
+ * could not decode a column to the requested type.
+ * <p>
+ * The date column is a {@link LocalDateTime}, as reported by the drivers for {@code timestamp} columns, so the previous mapping
+ * goes through the fallback for every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param({ "1", "100", "1000" })
+    private int rows;
+
+    private ColumnConverter converter;
+    private PostRowMapper postRowMapper;
+    private BlogRowMapper blogRowMapper;
+    private TestRow.Metadata metadata;
+    private Object[][] result;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions));
+        postRowMapper = new PostRowMapper(converter);
+        blogRowMapper = new BlogRowMapper(converter);
+
+        metadata = new TestRow.Metadata()
+            .column("e_id", Long.class)
+            .column("e_title", String.class)
+            .column("e_content", String.class)
+            .column("e_date", LocalDateTime.class)
+            .column("e_blog_id", Long.class)
+            .column("blog_id", Long.class)
+            .column("blog_name", String.class)
+            .column("blog_handle", String.class)
+            .column("blog_user_id", String.class);
+        LocalDateTime date = LocalDateTime.of(2025, 2, 7, 22, 6, 48);
+        result = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            long blogId = i % 10;
+            result[i] = new Object[] { (long) i, "title " + i, "content " + i, date, blogId, blogId, "blog", "handle", "user" };
+        }
+    }
+
+    @Benchmark
+    public void planned(Blackhole blackhole) {
+        // the driver creates new metadata for every result, so the plan is built once per invocation
+        TestRow.Metadata resultMetadata = metadata.copy();
+        for (Object[] values : result) {
+            TestRow row = new TestRow(resultMetadata, values);
+            Post post = postRowMapper.apply(row, "e");
+            post.setBlog(blogRowMapper.apply(row, "blog"));
+            blackhole.consume(post);
+        }
+    }
+
+    @Benchmark
+    public void byName(Blackhole blackhole) {
+        TestRow.Metadata resultMetadata = metadata.copy();
+        for (Object[] values : result) {
+            TestRow row = new TestRow(resultMetadata, values);
+            Post post = new Post();
+            post.setId(converter.fromRow(row, "e" + "_id", Long.class));
+            post.setTitle(converter.fromRow(row, "e" + "_title", String.class));
+            post.setContent(converter.fromRow(row, "e" + "_content", String.class));
+            post.setDate(converter.fromRow(row, "e" + "_date", Instant.class));
+            post.setBlogId(converter.fromRow(row, "e" + "_blog_id", Long.class));
+            Blog blog = new Blog();
+            blog.setId(converter.fromRow(row, "blog" + "_id", Long.class));
+            blog.setName(converter.fromRow(row, "blog" + "_name", String.class));
+            blog.setHandle(converter.fromRow(row, "blog" + "_handle", String.class));
+            blog.setUserId(converter.fromRow(row, "blog" + "_user_id", String.class));
+            post.setBlog(blog);
+            blackhole.consume(post);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.okta.developer.blog.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.okta.developer.blog.config.JacksonConfiguration;
+import com.okta.developer.blog.domain.Blog;
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import com.okta.developer.blog.domain.Tag;
+import com.okta.developer.blog.domain.User;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the Jackson serialization of a page of {@link Post}s with their blog and tags, as returned by {@code GET /api/posts},
+ * or of their {@link PostSummary}s, as returned with {@code view=summary}.
+ * <p>
+ * The {@link ObjectMapper} is configured as by Spring Boot, with the modules of {@link JacksonConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostPageSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int size;
+
+    @Param({ "full", "summary" })
+    private String view;
+
+    @Param({ "1000" })
+    private int contentLength;
+
+    private ObjectWriter writer;
+    private List<?> page;
+
+    @Setup
+    public void setUp() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(jacksonConfiguration.javaTimeModule(), jacksonConfiguration.jdk8TimeModule())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+        writer = objectMapper.writer();
+
+        String content = "lorem ipsum ".repeat(contentLength / 12 + 1).substring(0, contentLength);
+        List<Object> posts = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            User user = new User();
+            user.setId("user" + id % 10);
+            user.setLogin("login" + id % 10);
+            Blog blog = new Blog().id(id % 10).name("blog " + id % 10).handle("handle" + id % 10).user(user);
+            Post post = new Post()
+                .id(id)
+                .title("title " + id)
+                .content(content)
+                .date(Instant.parse("2025-02-07T22:06:48Z").plusSeconds(id))
+                .blog(blog)
+                .addTag(new Tag().id(id % 5).name("tag " + id % 5))
+                .addTag(new Tag().id(5 + id % 5).name("tag " + (5 + id % 5)));
+            posts.add(view.equals("summary") ? PostSummary.of(post) : post);
+        }
+        page = posts;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
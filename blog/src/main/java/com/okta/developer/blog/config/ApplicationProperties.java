@@ -1,5 +1,9 @@
 package com.okta.developer.blog.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +14,623 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Database database = new Database();
+
+    private final Counts counts = new Counts();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Search search = new Search();
+
+    private final EntityCache entityCache = new EntityCache();
+
+    private final PostStream postStream = new PostStream();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final OidcKeys oidcKeys = new OidcKeys();
+
     // jhipster-needle-application-properties-property
 
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Counts getCounts() {
+        return counts;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public PostStream getPostStream() {
+        return postStream;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public OidcKeys getOidcKeys() {
+        return oidcKeys;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    public static class Database {
+
+        /**
+         * Maximum number of rendered select statements kept by the repositories.
+         */
+        private int selectTemplateCacheSize = 500;
+
+        /**
+         * Maximum number of prepared statements cached by each R2DBC connection, 0 disables the cache.
+         */
+        private int preparedStatementCacheSize = 256;
+
+        /**
+         * Number of rows fetched per round trip by the statements which stream their rows, such as the exports.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Fraction of the connection acquisitions whose call site is recorded, for the holders listed by {@code /management/connections}.
+         */
+        private double holderSampleRate = 0.01;
+
+        private final Replica replica = new Replica();
+
+        public int getSelectTemplateCacheSize() {
+            return selectTemplateCacheSize;
+        }
+
+        public void setSelectTemplateCacheSize(int selectTemplateCacheSize) {
+            this.selectTemplateCacheSize = selectTemplateCacheSize;
+        }
+
+        public int getPreparedStatementCacheSize() {
+            return preparedStatementCacheSize;
+        }
+
+        public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+            this.preparedStatementCacheSize = preparedStatementCacheSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public double getHolderSampleRate() {
+            return holderSampleRate;
+        }
+
+        public void setHolderSampleRate(double holderSampleRate) {
+            this.holderSampleRate = holderSampleRate;
+        }
+
+        public Replica getReplica() {
+            return replica;
+        }
+
+        public static class Replica {
+
+            /**
+             * R2DBC URL of the read replica, the reads are not routed without it. Its pool has the settings of spring.r2dbc.pool.
+             */
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            /**
+             * Maximum replication lag of the replica, beyond which the reads go to the primary.
+             */
+            private Duration maxLag = Duration.ofSeconds(2);
+
+            /**
+             * Interval of the checks of the replication lag.
+             */
+            private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+            /**
+             * How long the requests of a user who wrote go to the primary, so the user reads their own writes.
+             */
+            private Duration stickyWindow = Duration.ofSeconds(5);
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public Duration getMaxLag() {
+                return maxLag;
+            }
+
+            public void setMaxLag(Duration maxLag) {
+                this.maxLag = maxLag;
+            }
+
+            public Duration getLagCheckInterval() {
+                return lagCheckInterval;
+            }
+
+            public void setLagCheckInterval(Duration lagCheckInterval) {
+                this.lagCheckInterval = lagCheckInterval;
+            }
+
+            public Duration getStickyWindow() {
+                return stickyWindow;
+            }
+
+            public void setStickyWindow(Duration stickyWindow) {
+                this.stickyWindow = stickyWindow;
+            }
+        }
+    }
+
+    public static class Counts {
+
+        /**
+         * How the total count of the paginated lists is computed, unless configured for the endpoint.
+         */
+        private Mode mode = Mode.EXACT;
+
+        /**
+         * How the total count of the paginated lists is computed, per endpoint (posts, tags).
+         */
+        private Map<String, Mode> endpoints = new HashMap<>();
+
+        /**
+         * Interval between two reconciliations of the cached counts with the database.
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Map<String, Mode> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(Map<String, Mode> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public Duration getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        public void setReconcileInterval(Duration reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+
+        public Mode getEndpointMode(String endpoint) {
+            return endpoints.getOrDefault(endpoint, mode);
+        }
+
+        public enum Mode {
+            /**
+             * The exact count, kept in memory and adjusted on the saves and deletes of the repositories.
+             */
+            EXACT,
+            /**
+             * The estimate of the planner statistics ({@code pg_class.reltuples}), adjusted the same way.
+             */
+            ESTIMATED,
+            /**
+             * No count, the lists only link to their next page.
+             */
+            NONE,
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of posts written by each statement and transaction of a bulk import.
+         */
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * Which index answers the full-text searches of the posts.
+         */
+        private Engine engine = Engine.DATABASE;
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        public enum Engine {
+            /**
+             * The generated {@code tsvector} column of the posts and its GIN index.
+             */
+            DATABASE,
+            /**
+             * An inverted index kept in the memory of each instance, for the development databases without full-text search.
+             */
+            IN_MEMORY,
+        }
+    }
+
+    public static class EntityCache {
+
+        /**
+         * Whether the lookups of the entities by id are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Limits of the cache of each entity, unless configured for the entity.
+         */
+        private Limits defaults = new Limits(10_000L, Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+        /**
+         * Limits of the cache per entity (blog, post, tag), the missing limits are the default ones.
+         */
+        private Map<String, Limits> entities = new HashMap<>();
+
+        private final Notifications notifications = new Notifications();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Limits getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(Limits defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, Limits> getEntities() {
+            return entities;
+        }
+
+        public void setEntities(Map<String, Limits> entities) {
+            this.entities = entities;
+        }
+
+        public Notifications getNotifications() {
+            return notifications;
+        }
+
+        public Limits getEntityLimits(String entity) {
+            Limits limits = entities.getOrDefault(entity, new Limits());
+            return new Limits(
+                limits.maximumSize != null ? limits.maximumSize : defaults.maximumSize,
+                limits.timeToLive != null ? limits.timeToLive : defaults.timeToLive,
+                limits.refreshAfter != null ? limits.refreshAfter : defaults.refreshAfter
+            );
+        }
+
+        public static class Limits {
+
+            /**
+             * Maximum number of cached entities.
+             */
+            private Long maximumSize;
+
+            /**
+             * Time after which a cached entity is evicted, even if it is read.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Time after which a cached entity which is read is reloaded in the background, while the cached one is served.
+             */
+            private Duration refreshAfter;
+
+            public Limits() {}
+
+            public Limits(Long maximumSize, Duration timeToLive, Duration refreshAfter) {
+                this.maximumSize = maximumSize;
+                this.timeToLive = timeToLive;
+                this.refreshAfter = refreshAfter;
+            }
+
+            public Long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(Long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getRefreshAfter() {
+                return refreshAfter;
+            }
+
+            public void setRefreshAfter(Duration refreshAfter) {
+                this.refreshAfter = refreshAfter;
+            }
+        }
+
+        public static class Notifications {
+
+            /**
+             * Whether the evictions, and the changes of the posts, are published to, and received from, the other instances with
+             * Postgres notifications.
+             */
+            private boolean enabled = true;
+
+            /**
+             * The channel of the notifications.
+             */
+            private String channel = "entity_cache";
+
+            /**
+             * Maximum number of received evictions applied together.
+             */
+            private int batchSize = 256;
+
+            /**
+             * Maximum time a received eviction waits for the others of its batch.
+             */
+            private Duration batchWindow = Duration.ofMillis(20);
+
+            /**
+             * Delay before listening again after the connection is lost, doubled up to the maximum delay.
+             */
+            private Duration reconnectDelay = Duration.ofSeconds(1);
+
+            private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public Duration getBatchWindow() {
+                return batchWindow;
+            }
+
+            public void setBatchWindow(Duration batchWindow) {
+                this.batchWindow = batchWindow;
+            }
+
+            public Duration getReconnectDelay() {
+                return reconnectDelay;
+            }
+
+            public void setReconnectDelay(Duration reconnectDelay) {
+                this.reconnectDelay = reconnectDelay;
+            }
+
+            public Duration getMaxReconnectDelay() {
+                return maxReconnectDelay;
+            }
+
+            public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+                this.maxReconnectDelay = maxReconnectDelay;
+            }
+        }
+    }
+
+    public static class PostStream {
+
+        /**
+         * Number of changes buffered for each subscriber of the stream, the oldest being dropped when the subscriber is too slow.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Number of recent changes replayed to the subscribers reconnecting with the id of the last change they received.
+         */
+        private int replaySize = 1000;
+
+        /**
+         * Interval of the heartbeats sent to the subscribers, so the idle connections are not closed by the proxies.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * The channel of the Postgres notifications sending the changes to the other instances, when the notifications of the entity
+         * cache are enabled.
+         */
+        private String channel = "post_changes";
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    public static class JwtCache {
+
+        /**
+         * Maximum number of validated bearer tokens kept, so their signature is not verified again.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Time before their expiration at which the tokens are evicted, the clock skew tolerated by the validation of the tokens.
+         */
+        private Duration clockSkew = Duration.ofSeconds(60);
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getClockSkew() {
+            return clockSkew;
+        }
+
+        public void setClockSkew(Duration clockSkew) {
+            this.clockSkew = clockSkew;
+        }
+    }
+
+    public static class OidcKeys {
+
+        /**
+         * File of the last signing keys of the IdP, loaded at startup so the application does not wait for the IdP; none if unset.
+         */
+        private Path snapshotFile;
+
+        /**
+         * Interval of the background refreshes of the keys.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Minimum interval of the refreshes triggered by the tokens signed with an unknown key.
+         */
+        private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+        /**
+         * Timeout of the connections to the IdP and of its responses.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public Path getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getMinRefreshInterval() {
+            return minRefreshInterval;
+        }
+
+        public void setMinRefreshInterval(Duration minRefreshInterval) {
+            this.minRefreshInterval = minRefreshInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
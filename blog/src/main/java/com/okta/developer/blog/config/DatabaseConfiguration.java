@@ -1,6 +1,15 @@
 package com.okta.developer.blog.config;
 
+import com.okta.developer.blog.repository.EntityManager;
+import com.okta.developer.blog.repository.InstrumentedConnectionFactory;
+import com.okta.developer.blog.repository.ReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -9,8 +18,16 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
@@ -22,6 +39,7 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
@@ -29,6 +47,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
+    private static final Option<Integer> PREPARED_STATEMENT_CACHE_QUERIES = Option.valueOf("preparedStatementCacheQueries");
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
@@ -44,6 +64,139 @@ public class DatabaseConfiguration {
         return R2dbcCustomConversions.of(dialect, converters);
     }
 
+    @Bean
+    public ConnectionFactoryOptionsBuilderCustomizer preparedStatementCacheCustomizer(ApplicationProperties applicationProperties) {
+        // r2dbc-postgresql keeps the prepared statements per connection, the hot queries are bound, not inlined, so they can be reused
+        return builder ->
+            builder.option(PREPARED_STATEMENT_CACHE_QUERIES, applicationProperties.getDatabase().getPreparedStatementCacheSize());
+    }
+
+    /**
+     * The pool of the connections, configured by {@code spring.r2dbc.pool}, instrumented to measure the acquisitions and list the
+     * holders of the connections.
+     */
+    @Bean(destroyMethod = "dispose")
+    public InstrumentedConnectionFactory connectionFactory(
+        R2dbcProperties properties,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        return createPool(
+            "connectionFactory",
+            properties.getUrl(),
+            properties.getUsername(),
+            properties.getPassword(),
+            properties.getPool(),
+            customizers,
+            applicationProperties,
+            meterRegistry
+        );
+    }
+
+    /**
+     * The pool of the connections to the read replica, with the settings of {@code spring.r2dbc.pool}.
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "application.database.replica", name = "url")
+    public InstrumentedConnectionFactory replicaConnectionFactory(
+        R2dbcProperties properties,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Database.Replica replica = applicationProperties.getDatabase().getReplica();
+        return createPool(
+            "replicaConnectionFactory",
+            replica.getUrl(),
+            replica.getUsername() != null ? replica.getUsername() : properties.getUsername(),
+            replica.getPassword() != null ? replica.getPassword() : properties.getPassword(),
+            properties.getPool(),
+            customizers,
+            applicationProperties,
+            meterRegistry
+        );
+    }
+
+    /**
+     * The connection factory of the application when a read replica is configured, routing the reads to it.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "application.database.replica", name = "url")
+    public ReplicaRoutingConnectionFactory routingConnectionFactory(
+        @Qualifier("connectionFactory") ConnectionFactory primary,
+        @Qualifier("replicaConnectionFactory") ConnectionFactory replica,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Database.Replica properties = applicationProperties.getDatabase().getReplica();
+        return new ReplicaRoutingConnectionFactory(
+            primary,
+            replica,
+            properties.getMaxLag(),
+            properties.getLagCheckInterval(),
+            properties.getStickyWindow(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.database.replica", name = "url")
+    public ReactiveTransactionManager transactionManager(ReplicaRoutingConnectionFactory connectionFactory) {
+        return new ReplicaRoutingConnectionFactory.TransactionManager(connectionFactory);
+    }
+
+    private static InstrumentedConnectionFactory createPool(
+        String name,
+        String url,
+        String username,
+        String password,
+        R2dbcProperties.Pool pool,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+            .username(username)
+            .password(password)
+            .configure(options -> customizers.orderedStream().forEach(customizer -> customizer.customize(options)))
+            .build();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        return new InstrumentedConnectionFactory(
+            builder,
+            pool.getMaxLifeTime(),
+            name,
+            applicationProperties.getDatabase().getHolderSampleRate(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public MeterBinder sqlTemplateCacheMetrics(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, entityManager.getSelectTemplates(), "sqlTemplates");
+            Gauge.builder(
+                "r2dbc.prepared.statement.cache.capacity",
+                applicationProperties.getDatabase(),
+                ApplicationProperties.Database::getPreparedStatementCacheSize
+            )
+                .description("Maximum number of prepared statements cached by each R2DBC connection")
+                .register(registry);
+        };
+    }
+
     @Bean
     public R2dbcDialect dialect(ConnectionFactory connectionFactory) {
         return DialectResolver.getDialect(connectionFactory);
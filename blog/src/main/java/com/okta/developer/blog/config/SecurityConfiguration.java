@@ -7,13 +7,18 @@ import static org.springframework.security.web.server.util.matcher.ServerWebExch
 import com.okta.developer.blog.security.AuthoritiesConstants;
 import com.okta.developer.blog.security.SecurityUtils;
 import com.okta.developer.blog.security.oauth2.AudienceValidator;
+import com.okta.developer.blog.security.oauth2.CachingReactiveJwtDecoder;
+import com.okta.developer.blog.security.oauth2.OidcKeySource;
 import com.okta.developer.blog.web.filter.SpaWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
 import java.util.HashSet;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
@@ -35,8 +40,10 @@ import org.springframework.security.web.server.header.XFrameOptionsServerHttpHea
 import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
 import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
 import org.springframework.security.web.server.util.matcher.OrServerWebExchangeMatcher;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
 import tech.jhipster.config.JHipsterProperties;
 
 @Configuration
@@ -144,8 +151,24 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    ReactiveJwtDecoder jwtDecoder() {
-        NimbusReactiveJwtDecoder jwtDecoder = (NimbusReactiveJwtDecoder) ReactiveJwtDecoders.fromOidcIssuerLocation(issuerUri);
+    OidcKeySource oidcKeySource(ApplicationProperties applicationProperties, WebClient.Builder webClientBuilder) {
+        ApplicationProperties.OidcKeys oidcKeys = applicationProperties.getOidcKeys();
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) oidcKeys.getTimeout().toMillis())
+            .responseTimeout(oidcKeys.getTimeout());
+        return new OidcKeySource(
+            issuerUri,
+            webClientBuilder.clone().clientConnector(new ReactorClientHttpConnector(httpClient)).build(),
+            oidcKeys.getSnapshotFile(),
+            oidcKeys.getRefreshInterval(),
+            oidcKeys.getMinRefreshInterval()
+        );
+    }
+
+    @Bean
+    ReactiveJwtDecoder jwtDecoder(OidcKeySource oidcKeySource, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        // the keys are fetched in the background, not during the startup
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withJwkSource(oidcKeySource::getKeys).build();
 
         OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(jHipsterProperties.getSecurity().getOauth2().getAudience());
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuerUri);
@@ -153,6 +176,8 @@ public class SecurityConfiguration {
 
         jwtDecoder.setJwtValidator(withAudience);
 
-        return jwtDecoder;
+        // the requests relayed by the gateway carry the same token, its signature is verified once
+        ApplicationProperties.JwtCache jwtCache = applicationProperties.getJwtCache();
+        return new CachingReactiveJwtDecoder(jwtDecoder, jwtCache.getCacheSize(), jwtCache.getClockSkew(), meterRegistry);
     }
 }
@@ -34,6 +34,12 @@ public class Post implements Serializable {
     @Column("date")
     private Instant date;
 
+    /**
+     * The beginning of the content, maintained on every save so the lists of posts do not have to read the content.
+     */
+    @Column("excerpt")
+    private String excerpt;
+
     @org.springframework.data.annotation.Transient
     @JsonIgnoreProperties(value = { "user" }, allowSetters = true)
     private Blog blog;
@@ -99,6 +105,19 @@ public class Post implements Serializable {
         this.date = date;
     }
 
+    public String getExcerpt() {
+        return this.excerpt;
+    }
+
+    public Post excerpt(String excerpt) {
+        this.setExcerpt(excerpt);
+        return this;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
     public Blog getBlog() {
         return this.blog;
     }
@@ -171,6 +190,7 @@ public class Post implements Serializable {
             ", title='" + getTitle() + "'" +
             ", content='" + getContent() + "'" +
             ", date='" + getDate() + "'" +
+            ", excerpt='" + getExcerpt() + "'" +
             "}";
     }
 }
@@ -0,0 +1,147 @@
+package com.okta.developer.blog.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A summary of a {@link Post}, without its content, for the lists of posts.
+ */
+public class PostSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of characters of the excerpt of a post.
+     */
+    public static final int EXCERPT_MAX_LENGTH = 255;
+
+    private Long id;
+
+    private String title;
+
+    private Instant date;
+
+    private String excerpt;
+
+    @JsonIgnoreProperties(value = { "user" }, allowSetters = true)
+    private Blog blog;
+
+    /**
+     * The relevance of the post for a full-text search, null outside of the search results.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Float rank;
+
+    /**
+     * Create the excerpt of the content of a post.
+     * @param content the content of the post.
+     * @return the content, cut after {@link #EXCERPT_MAX_LENGTH} characters, or null if there is no content.
+     */
+    public static String excerptOf(String content) {
+        if (content == null || content.length() <= EXCERPT_MAX_LENGTH) {
+            return content;
+        }
+        int end = EXCERPT_MAX_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            // do not split a surrogate pair
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
+    /**
+     * Create the summary of a post.
+     * @param post the post.
+     * @return the summary, with the blog of the post, or a blog with its id only if the post has no blog.
+     */
+    public static PostSummary of(Post post) {
+        PostSummary summary = new PostSummary();
+        summary.setId(post.getId());
+        summary.setTitle(post.getTitle());
+        summary.setDate(post.getDate());
+        summary.setExcerpt(excerptOf(post.getContent()));
+        if (post.getBlog() != null) {
+            summary.setBlog(post.getBlog());
+        } else if (post.getBlogId() != null) {
+            summary.setBlog(new Blog().id(post.getBlogId()));
+        }
+        return summary;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Instant getDate() {
+        return this.date;
+    }
+
+    public void setDate(Instant date) {
+        this.date = date;
+    }
+
+    public String getExcerpt() {
+        return this.excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public Blog getBlog() {
+        return this.blog;
+    }
+
+    public void setBlog(Blog blog) {
+        this.blog = blog;
+    }
+
+    public Float getRank() {
+        return this.rank;
+    }
+
+    public void setRank(Float rank) {
+        this.rank = rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PostSummary)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((PostSummary) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PostSummary{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", date='" + getDate() + "'" +
+            ", excerpt='" + getExcerpt() + "'" +
+            "}";
+    }
+}
@@ -2,6 +2,7 @@ package com.okta.developer.blog.repository;
 
 import com.okta.developer.blog.domain.Blog;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -45,10 +46,31 @@ public interface BlogRepository extends ReactiveCrudRepository<Blog, Long>, Blog
 interface BlogRepositoryInternal {
     <S extends Blog> Mono<S> save(S entity);
 
+    /**
+     * Updates all the columns of a blog, with a single statement returning the updated blog.
+     * @return the updated blog, with its user, or an empty {@link Mono} if there is no blog with its id.
+     */
+    Mono<Blog> update(Blog blog);
+
+    /**
+     * Updates the columns of the non-null fields of a blog, with a single statement returning the updated blog.
+     * @return the updated blog, with its user, or an empty {@link Mono} if there is no blog with its id.
+     */
+    Mono<Blog> partialUpdate(Blog blog);
+
     Flux<Blog> findAllBy(Pageable pageable);
 
     Flux<Blog> findAll();
 
+    Flux<Blog> findAllAfter(KeysetCursor cursor, int size, Sort sort);
+
+    /**
+     * Streams all the blogs ordered by id, fetching them in chunks as they are consumed.
+     */
+    Flux<Blog> streamAll();
+
+    KeysetCursor cursorOf(Blog entity, Sort sort);
+
     Mono<Blog> findById(Long id);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Blog> findAllBy(Pageable pageable, Criteria criteria);
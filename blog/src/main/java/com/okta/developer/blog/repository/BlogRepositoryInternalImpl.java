@@ -5,23 +5,25 @@ import com.okta.developer.blog.repository.rowmapper.BlogRowMapper;
 import com.okta.developer.blog.repository.rowmapper.UserRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -34,16 +36,24 @@ class BlogRepositoryInternalImpl extends SimpleR2dbcRepository<Blog, Long> imple
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
+    private final EntityCache entityCache;
+    private final EntityCache.Region<Blog> cacheById;
 
     private final UserRowMapper userMapper;
     private final BlogRowMapper blogMapper;
 
     private static final Table entityTable = Table.aliased("blog", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
+
+    private static final String SELECT_ALL = "all";
+    private static final String SELECT_BY_ID = "byId";
     private static final Table userTable = Table.aliased("jhi_user", "e_user");
+    private static final List<String> UPDATED_COLUMNS = List.of("name", "handle", "user_id");
 
     public BlogRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
+        EntityCache entityCache,
         UserRowMapper userMapper,
         BlogRowMapper blogMapper,
         R2dbcEntityOperations entityOperations,
@@ -57,27 +67,54 @@ class BlogRepositoryInternalImpl extends SimpleR2dbcRepository<Blog, Long> imple
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
+        this.entityCache = entityCache;
+        this.cacheById = entityCache.register(Blog.class, "byId", this::selectById);
         this.userMapper = userMapper;
         this.blogMapper = blogMapper;
     }
 
     @Override
     public Flux<Blog> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery(SELECT_ALL, pageable, null).map(this::process).all();
+    }
+
+    DatabaseClient.GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(shape, this::createSelectFrom, Blog.class, pageable, whereClause);
+        return entityManager.bindPaging(db.sql(select), pageable);
     }
 
-    RowsFetchSpec<Blog> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = BlogSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+    private SelectFromAndJoinCondition createSelectFrom() {
+        return createSelectFrom(entityTable);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom(Table table) {
+        List<Expression> columns = BlogSqlHelper.getColumns(table, EntityManager.ENTITY_ALIAS);
         columns.addAll(UserSqlHelper.getColumns(userTable, "user"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
+        return Select.builder()
             .select(columns)
-            .from(entityTable)
+            .from(table)
             .leftOuterJoin(userTable)
-            .on(Column.create("user_id", entityTable))
+            .on(Column.create("user_id", table))
             .equals(Column.create("id", userTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Blog.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+    }
+
+    @Override
+    public Flux<Blog> findAllAfter(KeysetCursor cursor, int size, Sort sort) {
+        EntityManager.Keyset keyset = entityManager.createKeyset(Blog.class, sort, cursor);
+        String select = entityManager.createSelect(SELECT_ALL, this::createSelectFrom, Blog.class, keyset, null);
+        return keyset.bind(db.sql(select), size).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Blog> streamAll() {
+        Pageable byId = Pageable.unpaged(Sort.by("id"));
+        return entityManager.fetchInChunks(createQuery(SELECT_ALL, byId, null)).map(this::process).all();
+    }
+
+    @Override
+    public KeysetCursor cursorOf(Blog entity, Sort sort) {
+        return entityManager.createCursor(entity, sort);
     }
 
     @Override
@@ -87,8 +124,11 @@ class BlogRepositoryInternalImpl extends SimpleR2dbcRepository<Blog, Long> imple
 
     @Override
     public Mono<Blog> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return cacheById.get(id);
+    }
+
+    private Mono<Blog> selectById(Long id) {
+        return createQuery(SELECT_BY_ID, null, idCondition).bind("id", id).map(this::process).one();
     }
 
     @Override
@@ -114,6 +154,48 @@ class BlogRepositoryInternalImpl extends SimpleR2dbcRepository<Blog, Long> imple
 
     @Override
     public <S extends Blog> Mono<S> save(S entity) {
-        return super.save(entity);
+        if (entity.getId() == null) {
+            return super.save(entity);
+        }
+        return super.save(entity).flatMap(e -> entityCache.evict(Blog.class, e.getId()).thenReturn(e));
+    }
+
+    @Override
+    public Mono<Blog> update(Blog blog) {
+        String update = entityManager.createUpdate("blog", UPDATED_COLUMNS, null, this::createSelectFrom);
+        DatabaseClient.GenericExecuteSpec spec = db.sql(update).bind("id", blog.getId());
+        spec = bind(spec, "name", blog.getName(), String.class);
+        spec = bind(spec, "handle", blog.getHandle(), String.class);
+        spec = bind(spec, "user_id", blog.getUserId(), String.class);
+        return spec.map(this::process).one().flatMap(updated -> entityCache.evict(Blog.class, updated.getId()).thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Blog> partialUpdate(Blog blog) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (blog.getName() != null) {
+            values.put("name", blog.getName());
+        }
+        if (blog.getHandle() != null) {
+            values.put("handle", blog.getHandle());
+        }
+        if (values.isEmpty()) {
+            return findById(blog.getId());
+        }
+        String update = entityManager.createUpdate("blog", values.keySet(), null, this::createSelectFrom);
+        DatabaseClient.GenericExecuteSpec spec = db.sql(update).bind("id", blog.getId());
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec.map(this::process).one().flatMap(updated -> entityCache.evict(Blog.class, updated.getId()).thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return super.deleteById(id).then(entityCache.evict(Blog.class, id));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
     }
 }
@@ -0,0 +1,68 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.domain.PostSummary;
+import com.okta.developer.blog.repository.rowmapper.BlogRowMapper;
+import com.okta.developer.blog.repository.rowmapper.PostSummaryRowMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Searches the posts with the generated {@code search_vector} column and its GIN index.
+ * <p>
+ * The query is parsed by {@code websearch_to_tsquery}, so it accepts quoted phrases, {@code or} and {@code -} exclusions. The index
+ * finds the matching posts, which are all ranked to select the page, so the cost of a page grows with the number of matching posts
+ * rather than with the number of posts.
+ */
+@Component
+@ConditionalOnProperty(name = "application.search.engine", havingValue = "database", matchIfMissing = true)
+class DatabasePostSearchIndex implements PostSearchIndex {
+
+    // 'english' is the text search configuration of the search_vector column
+    private static final String HITS =
+        "SELECT e.id AS e_id, e.title AS e_title, e.date AS e_date, e.excerpt AS e_excerpt, e.blog_id AS e_blog_id," +
+        " blog.id AS blog_id, blog.name AS blog_name, blog.handle AS blog_handle, blog.user_id AS blog_user_id," +
+        " ts_rank(e.search_vector, query) AS rank" +
+        " FROM post e CROSS JOIN websearch_to_tsquery('english', :query) query" +
+        " LEFT OUTER JOIN blog blog ON e.blog_id = blog.id" +
+        " WHERE e.search_vector @@ query";
+
+    private static final String SEARCH = "SELECT * FROM (" + HITS + ") hits ORDER BY hits.rank DESC, hits.e_id DESC LIMIT :limit";
+
+    private static final String SEARCH_AFTER =
+        "SELECT * FROM (" +
+        HITS +
+        ") hits WHERE (hits.rank, hits.e_id) < (:rank, :id) ORDER BY hits.rank DESC, hits.e_id DESC LIMIT :limit";
+
+    private final DatabaseClient db;
+    private final PostSummaryRowMapper postSummaryMapper;
+    private final BlogRowMapper blogMapper;
+
+    DatabasePostSearchIndex(R2dbcEntityTemplate template, PostSummaryRowMapper postSummaryMapper, BlogRowMapper blogMapper) {
+        this.db = template.getDatabaseClient();
+        this.postSummaryMapper = postSummaryMapper;
+        this.blogMapper = blogMapper;
+    }
+
+    @Override
+    public Flux<PostSummary> search(String query, KeysetCursor after, int size) {
+        DatabaseClient.GenericExecuteSpec spec;
+        if (after == null) {
+            spec = db.sql(SEARCH);
+        } else {
+            spec = db.sql(SEARCH_AFTER).bind("rank", PostSearchIndex.rankOf(after)).bind("id", PostSearchIndex.idOf(after));
+        }
+        return spec
+            .bind("query", query)
+            .bind("limit", size)
+            .map((row, metadata) -> {
+                PostSummary hit = postSummaryMapper.apply(row, "e");
+                hit.setBlog(blogMapper.apply(row, "blog"));
+                hit.setRank(row.get("rank", Float.class));
+                return hit;
+            })
+            .all();
+    }
+}
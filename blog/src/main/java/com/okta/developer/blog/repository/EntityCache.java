@@ -0,0 +1,341 @@
+package com.okta.developer.blog.repository;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.okta.developer.blog.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through caches of the lookups of the entities by id, in front of the repositories.
+ * <p>
+ * Each repository registers a {@link Region} per lookup, with the limits of {@code application.entity-cache}. The entities are loaded
+ * on a miss and reloaded in the background once they are older than the refresh delay, while the cached ones are served, so the
+ * event loop never waits for a cache. The repositories evict the entities they save or delete, which also flushes the regions whose
+ * entities embed them, e.g. the posts and their blog.
+ */
+@Component
+public class EntityCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCache.class);
+
+    /**
+     * The key of the {@link Writes} of the current transaction.
+     */
+    private static final Object WRITES = new Object();
+
+    private final ApplicationProperties.EntityCache properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Region<?>> regions = new ConcurrentHashMap<>();
+    private volatile Function<Collection<String>, Mono<Void>> publisher = keys -> Mono.empty();
+
+    public EntityCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getEntityCache();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Register a region.
+     * @param entityType the type of the cached entities.
+     * @param lookup the name of the lookup, unique for the entity type.
+     * @param loader the lookup, which completes empty when there is no entity.
+     * @param embeddedTypes the types of the entities embedded in the cached entities, whose changes flush the region.
+     * @return the region.
+     */
+    public <T> Region<T> register(Class<T> entityType, String lookup, Function<Long, Mono<T>> loader, Class<?>... embeddedTypes) {
+        String entity = nameOf(entityType);
+        Set<String> embeddedEntities = Arrays.stream(embeddedTypes).map(EntityCache::nameOf).collect(Collectors.toUnmodifiableSet());
+        Region<T> region = new Region<>(entity, lookup, entityType, loader, embeddedEntities);
+        if (properties.isEnabled()) {
+            ApplicationProperties.EntityCache.Limits limits = properties.getEntityLimits(entity);
+            region.cache = Caffeine.newBuilder()
+                .maximumSize(limits.getMaximumSize())
+                .expireAfterWrite(limits.getTimeToLive())
+                .refreshAfterWrite(limits.getRefreshAfter())
+                .recordStats()
+                .buildAsync((id, executor) -> loader.apply(id).toFuture());
+            region.limits = limits;
+            CaffeineCacheMetrics.monitor(meterRegistry, region.cache.synchronous(), "entity." + region.name);
+        }
+        regions.put(region.name, region);
+        return region;
+    }
+
+    /**
+     * Evict a saved or deleted entity, from the regions of its type and from the regions which embed its type.
+     * <p>
+     * The entity is evicted at once, and again when the current transaction completes, so a lookup running before the commit does
+     * not leave the previous version in the cache. Until then, the lookups of the transaction bypass the regions of the entity, as
+     * the cache only sees the committed entities. The eviction is published to the other instances on commit, or at once without a
+     * transaction.
+     * @param entityType the type of the entity.
+     * @param id the id of the entity.
+     * @return a {@link Mono} completing when the eviction is done, or registered for the completion of the transaction.
+     */
+    public Mono<Void> evict(Class<?> entityType, Long id) {
+        String key = keyOf(entityType, id);
+        return Mono.fromRunnable(() -> evictNow(List.of(key)))
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .map(synchronizationManager -> writesOf(synchronizationManager).add(entityType, key))
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.defer(() -> publisher.apply(List.of(key))).thenReturn(true))
+            .then();
+    }
+
+    /**
+     * Set the function publishing the evictions to the other instances, which do nothing by default.
+     */
+    void publishEvictionsWith(Function<Collection<String>, Mono<Void>> publisher) {
+        this.publisher = publisher;
+    }
+
+    private Writes writesOf(TransactionSynchronizationManager synchronizationManager) {
+        Writes writes = (Writes) synchronizationManager.getResource(WRITES);
+        if (writes == null) {
+            Writes created = new Writes();
+            synchronizationManager.bindResource(WRITES, created);
+            synchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> beforeCommit(boolean readOnly) {
+                        // a notification sent in the transaction is only delivered if it commits
+                        return Mono.defer(() -> publisher.apply(created.keys));
+                    }
+
+                    @Override
+                    public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(() -> {
+                            synchronizationManager.unbindResourceIfPossible(WRITES);
+                            evictNow(created.keys);
+                        });
+                    }
+                }
+            );
+            writes = created;
+        }
+        return writes;
+    }
+
+    static String keyOf(Class<?> entityType, Long id) {
+        return nameOf(entityType) + ":" + id;
+    }
+
+    private static String nameOf(Class<?> entityType) {
+        return entityType.getSimpleName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Evict entities, from the regions of their type and from the regions which embed their type.
+     * @param keys the {@code entity:id} keys of the entities, e.g. {@code post:42}; the malformed keys are ignored.
+     */
+    void evictNow(Collection<String> keys) {
+        Map<String, Set<Long>> idsByEntity = new HashMap<>();
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            try {
+                Long id = Long.valueOf(key.substring(separator + 1));
+                idsByEntity.computeIfAbsent(key.substring(0, Math.max(separator, 0)), entity -> new HashSet<>()).add(id);
+            } catch (NumberFormatException e) {
+                LOG.debug("Ignoring the malformed entity key {}", key);
+            }
+        }
+        for (Region<?> region : regions.values()) {
+            Set<Long> ids = idsByEntity.get(region.entity);
+            if (ids != null) {
+                region.invalidateAll(ids);
+            }
+            if (region.embeddedEntities.stream().anyMatch(idsByEntity::containsKey)) {
+                region.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Flush all the regions.
+     */
+    public void invalidateAll() {
+        regions.values().forEach(Region::invalidateAll);
+    }
+
+    public Collection<Region<?>> getRegions() {
+        return regions.values();
+    }
+
+    public Region<?> getRegion(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * A cached lookup. The cached entities are shared, so the lookup returns a deep copy of them which the callers may modify.
+     */
+    public static final class Region<T> {
+
+        private final String entity;
+        private final String name;
+        private final Class<T> entityType;
+        private final Function<Long, Mono<T>> loader;
+        private final Set<String> embeddedEntities;
+        private AsyncLoadingCache<Long, T> cache;
+        private ApplicationProperties.EntityCache.Limits limits;
+
+        private Region(String entity, String lookup, Class<T> entityType, Function<Long, Mono<T>> loader, Set<String> embeddedEntities) {
+            this.entity = entity;
+            this.name = entity + "." + lookup;
+            this.entityType = entityType;
+            this.loader = loader;
+            this.embeddedEntities = embeddedEntities;
+        }
+
+        /**
+         * Get an entity, from the cache or else from the lookup.
+         * @param id the id of the entity.
+         * @return a copy of the entity, or an empty {@link Mono} if there is no entity.
+         */
+        public Mono<T> get(Long id) {
+            if (cache == null) {
+                return loader.apply(id);
+            }
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(synchronizationManager -> {
+                    Writes writes = (Writes) synchronizationManager.getResource(WRITES);
+                    return writes != null && writes.concern(this);
+                })
+                .onErrorReturn(NoTransactionException.class, false)
+                .flatMap(written ->
+                    written
+                        ? loader.apply(id)
+                        // a cancelled request does not cancel the load, which other requests may wait for
+                        : Mono.fromFuture(cache.get(id), true).map(this::copyOf)
+                );
+        }
+
+        public void invalidate(Long id) {
+            if (cache != null) {
+                cache.synchronous().invalidate(id);
+            }
+        }
+
+        void invalidateAll(Set<Long> ids) {
+            if (cache != null) {
+                cache.synchronous().invalidateAll(ids);
+            }
+        }
+
+        public void invalidateAll() {
+            if (cache != null) {
+                cache.synchronous().invalidateAll();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isEnabled() {
+            return cache != null;
+        }
+
+        public long getSize() {
+            return cache != null ? cache.synchronous().estimatedSize() : 0;
+        }
+
+        public Long getMaximumSize() {
+            return limits != null ? limits.getMaximumSize() : null;
+        }
+
+        public Duration getTimeToLive() {
+            return limits != null ? limits.getTimeToLive() : null;
+        }
+
+        public Duration getRefreshAfter() {
+            return limits != null ? limits.getRefreshAfter() : null;
+        }
+
+        public CacheStats getStats() {
+            return cache != null ? cache.synchronous().stats() : CacheStats.empty();
+        }
+
+        private T copyOf(T entity) {
+            return entityType.cast(copyOf(entity, new IdentityHashMap<>()));
+        }
+
+        /**
+         * Copy an entity with the entities and the collections it references, so the copy shares no mutable state with the cache.
+         * The fields are assigned directly, the setters of the bidirectional associations would modify the cached entities.
+         */
+        private Object copyOf(Object value, Map<Object, Object> copies) {
+            if (value instanceof Set<?> set) {
+                Set<Object> copy = new HashSet<>();
+                set.forEach(element -> copy.add(copyOf(element, copies)));
+                return copy;
+            }
+            if (value instanceof List<?> list) {
+                List<Object> copy = new ArrayList<>(list.size());
+                list.forEach(element -> copy.add(copyOf(element, copies)));
+                return copy;
+            }
+            // the other values of the entities, e.g. String or Instant, are immutable
+            if (value == null || !value.getClass().getPackageName().equals(entityType.getPackageName())) {
+                return value;
+            }
+            Object copy = copies.get(value);
+            if (copy == null) {
+                Object created = BeanUtils.instantiateClass(value.getClass());
+                copies.put(value, created);
+                ReflectionUtils.doWithFields(
+                    value.getClass(),
+                    field -> {
+                        ReflectionUtils.makeAccessible(field);
+                        field.set(created, copyOf(field.get(value), copies));
+                    },
+                    ReflectionUtils.COPYABLE_FIELDS
+                );
+                copy = created;
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * The entities saved or deleted by a transaction.
+     */
+    private static final class Writes {
+
+        private final Set<String> entities = ConcurrentHashMap.newKeySet();
+        private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+        boolean add(Class<?> entityType, String key) {
+            entities.add(nameOf(entityType));
+            return keys.add(key);
+        }
+
+        boolean concern(Region<?> region) {
+            return entities.contains(region.entity) || region.embeddedEntities.stream().anyMatch(entities::contains);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.okta.developer.blog.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okta.developer.blog.config.ApplicationProperties;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Sends the evictions of the {@link EntityCache} and the changes of the {@link PostChangeFeed} to the other instances of the
+ * application, and applies theirs, with Postgres {@code NOTIFY} and {@code LISTEN}.
+ * <p>
+ * The evictions of a transaction are sent in the transaction, so Postgres delivers them on commit only. Their payload is the id of
+ * the sending instance, which ignores its own evictions, then the {@code entity:id} keys of the entities, e.g.
+ * {@code 3f2a9c1e;post:42,blog:7}. The evictions are received on a dedicated connection, outside the pool, and applied in batches so a
+ * burst of writes flushes the regions embedding an entity once. The notifications sent while the connection is lost are lost too, so
+ * all the regions are flushed whenever the instance listens again.
+ * <p>
+ * The changes of the posts are sent the same way on their own channel, as JSON arrays packing the changes of a transaction in as few
+ * notifications as possible, e.g. {@code 3f2a9c1e;[{"type":"DELETED","postId":42}]}. A change too large for a notification, e.g. of a
+ * post with a very long title, is sent as a {@link PostChangeFeed.Type#RESET} change, so the subscribers of the other instances reload
+ * the posts. They are also sent a reset whenever the instance listens again.
+ */
+@Component
+class EntityCacheNotifications implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCacheNotifications.class);
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    // the payload of a notification is limited to 8000 bytes
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private static final PostChangeFeed.Change RESET = new PostChangeFeed.Change(null, PostChangeFeed.Type.RESET, null, null);
+
+    private static final TypeReference<List<PostChangeFeed.Change>> CHANGES = new TypeReference<>() {};
+
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private final EntityCache entityCache;
+    private final PostChangeFeed changeFeed;
+    private final DatabaseClient db;
+    private final ObjectMapper objectMapper;
+    private final R2dbcProperties r2dbcProperties;
+    private final ApplicationProperties.EntityCache.Notifications properties;
+    private final String changeChannel;
+    private Disposable listener;
+
+    EntityCacheNotifications(
+        EntityCache entityCache,
+        PostChangeFeed changeFeed,
+        DatabaseClient db,
+        ObjectMapper objectMapper,
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityCache = entityCache;
+        this.changeFeed = changeFeed;
+        this.db = db;
+        this.objectMapper = objectMapper;
+        this.r2dbcProperties = r2dbcProperties;
+        this.properties = applicationProperties.getEntityCache().getNotifications();
+        this.changeChannel = applicationProperties.getPostStream().getChannel();
+        for (String channel : List.of(properties.getChannel(), changeChannel)) {
+            if (!CHANNEL.matcher(channel).matches()) {
+                throw new IllegalArgumentException("Invalid notification channel: " + channel);
+            }
+        }
+        if (properties.getChannel().equals(changeChannel)) {
+            throw new IllegalArgumentException("The evictions and the changes of the posts need their own channels: " + changeChannel);
+        }
+        if (properties.isEnabled()) {
+            if (applicationProperties.getEntityCache().isEnabled()) {
+                entityCache.publishEvictionsWith(this::publish);
+            }
+            changeFeed.publishChangesWith(this::publishChanges);
+        }
+    }
+
+    Mono<Void> publish(Collection<String> keys) {
+        return Flux.fromIterable(payloadsOf(origin, keys)).concatMap(payload -> notify(properties.getChannel(), payload)).then();
+    }
+
+    Mono<Void> publishChanges(List<PostChangeFeed.Change> changes) {
+        return Mono.fromCallable(() -> payloadsOf(objectMapper, origin, changes))
+            .flatMapMany(Flux::fromIterable)
+            .concatMap(payload -> notify(changeChannel, payload))
+            .then();
+    }
+
+    private Mono<Void> notify(String channel, String payload) {
+        return db.sql("SELECT pg_notify(:channel, :payload)").bind("channel", channel).bind("payload", payload).then();
+    }
+
+    static List<String> payloadsOf(ObjectMapper objectMapper, String origin, List<PostChangeFeed.Change> changes)
+        throws JsonProcessingException {
+        List<String> payloads = new ArrayList<>();
+        // the lengths are in bytes, the origin, separator and brackets being ASCII
+        int overhead = origin.length() + 3;
+        StringBuilder elements = new StringBuilder();
+        int length = 0;
+        for (PostChangeFeed.Change change : changes) {
+            String element = objectMapper.writeValueAsString(change);
+            int elementLength = element.getBytes(StandardCharsets.UTF_8).length;
+            if (overhead + elementLength > MAX_PAYLOAD_LENGTH) {
+                element = objectMapper.writeValueAsString(RESET);
+                elementLength = element.length();
+            }
+            if (length > 0 && overhead + length + 1 + elementLength > MAX_PAYLOAD_LENGTH) {
+                payloads.add(origin + ";[" + elements + "]");
+                elements.setLength(0);
+                length = 0;
+            }
+            if (length > 0) {
+                elements.append(',');
+                length++;
+            }
+            elements.append(element);
+            length += elementLength;
+        }
+        if (length > 0) {
+            payloads.add(origin + ";[" + elements + "]");
+        }
+        return payloads;
+    }
+
+    static List<PostChangeFeed.Change> changesOf(ObjectMapper objectMapper, String origin, String payload) {
+        int separator = payload.indexOf(';');
+        if (separator < 0 || payload.startsWith(origin + ";")) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(payload.substring(separator + 1), CHANGES);
+        } catch (JsonProcessingException e) {
+            LOG.debug("Ignoring the malformed changes {}", payload);
+            return List.of();
+        }
+    }
+
+    static List<String> payloadsOf(String origin, Collection<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(origin).append(';');
+        for (String key : keys) {
+            if (payload.length() + key.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(origin.length() + 1);
+            }
+            if (payload.length() > origin.length() + 1) {
+                payload.append(',');
+            }
+            payload.append(key);
+        }
+        if (payload.length() > origin.length() + 1) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(r2dbcProperties.getUrl())
+            .username(r2dbcProperties.getUsername())
+            .password(r2dbcProperties.getPassword())
+            .build();
+        listener = Flux.usingWhen(connectionFactory.create(), this::notificationsOf, Connection::close)
+            // the notifications complete when the connection closes
+            .concatWith(Flux.error(() -> new IllegalStateException("The notification connection is closed")))
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, properties.getReconnectDelay())
+                    .maxBackoff(properties.getMaxReconnectDelay())
+                    .filter(e -> !(e instanceof UnsupportedOperationException))
+                    .doBeforeRetry(signal -> LOG.warn("Listening to the cache evictions again after: {}", signal.failure().toString()))
+            )
+            .filter(notification -> notification.getParameter() != null)
+            .doOnNext(notification -> {
+                if (changeChannel.equals(notification.getName())) {
+                    List<PostChangeFeed.Change> changes = changesOf(objectMapper, origin, notification.getParameter());
+                    if (!changes.isEmpty()) {
+                        changeFeed.receive(changes);
+                    }
+                }
+            })
+            .filter(notification -> properties.getChannel().equals(notification.getName()))
+            .flatMapIterable(notification -> keysOf(origin, notification.getParameter()))
+            .bufferTimeout(properties.getBatchSize(), properties.getBatchWindow())
+            .subscribe(
+                keys -> entityCache.evictNow(new LinkedHashSet<>(keys)),
+                e -> LOG.warn("Not listening to the cache evictions of the other instances: {}", e.getMessage())
+            );
+    }
+
+    private Flux<Notification> notificationsOf(Connection connection) {
+        Connection unwrapped = connection;
+        while (!(unwrapped instanceof PostgresqlConnection) && unwrapped instanceof Wrapped<?> wrapped) {
+            unwrapped = (Connection) wrapped.unwrap();
+        }
+        if (!(unwrapped instanceof PostgresqlConnection postgresqlConnection)) {
+            return Flux.error(new UnsupportedOperationException("Notifications need a Postgres connection"));
+        }
+        // subscribe to the notifications before listening so none is missed, then flush what may have been missed before
+        Mono<Void> listen = postgresqlConnection
+            .createStatement("LISTEN " + properties.getChannel() + "; LISTEN " + changeChannel)
+            .execute()
+            .flatMap(PostgresqlResult::getRowsUpdated)
+            .then(
+                Mono.fromRunnable(() -> {
+                    LOG.debug("Listening to the cache evictions on {} and to the changes on {}", properties.getChannel(), changeChannel);
+                    entityCache.invalidateAll();
+                    changeFeed.receive(List.of(RESET));
+                })
+            );
+        return postgresqlConnection.getNotifications().mergeWith(listen.then(Mono.<Notification>empty()));
+    }
+
+    static List<String> keysOf(String origin, String payload) {
+        int separator = payload.indexOf(';');
+        if (separator < 0 || payload.startsWith(origin + ";") || separator == payload.length() - 1) {
+            return List.of();
+        }
+        return Arrays.asList(payload.substring(separator + 1).split(","));
+    }
+
+    @Override
+    public void destroy() {
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.config.ApplicationProperties.Counts.Mode;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the counts of the entities in memory, so the paginated lists do not scan the tables to fill their total count.
+ * <p>
+ * The counts are seeded when the application is ready (or on first use), adjusted by the repositories when their inserts or
+ * deletes commit, and periodically reconciled with the database, which also repairs the drift of the changes made outside of the
+ * repositories.
+ */
+@Component
+public class EntityCounter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCounter.class);
+
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient db;
+    private final Map<Key, Count> counts = new ConcurrentHashMap<>();
+
+    public EntityCounter(R2dbcEntityTemplate template) {
+        this.template = template;
+        this.db = template.getDatabaseClient();
+    }
+
+    /**
+     * Register a count, so it is seeded when the application starts.
+     * @param entityType the type of the entity.
+     * @param mode how the count is computed.
+     */
+    public void track(Class<?> entityType, Mode mode) {
+        if (mode != Mode.NONE) {
+            getCount(entityType, mode);
+        }
+    }
+
+    /**
+     * Get the count of the entities.
+     * @param entityType the type of the entity.
+     * @param mode how the count is computed.
+     * @return the count, or an empty optional if the mode is {@link Mode#NONE}.
+     */
+    public Mono<Optional<Long>> count(Class<?> entityType, Mode mode) {
+        if (mode == Mode.NONE) {
+            return Mono.just(Optional.empty());
+        }
+        return getCount(entityType, mode).get().map(Optional::of);
+    }
+
+    /**
+     * Adjust the counts of the entities after inserts or deletes, once the current transaction commits, or now outside of a
+     * transaction, so the counts never include the uncommitted or rolled back rows.
+     * @param entityType the type of the entity.
+     * @param delta the number of inserted entities, negative for deleted entities.
+     * @return a {@link Mono} completing when the counts are adjusted, or the adjustment registered for the commit.
+     */
+    public Mono<Void> adjust(Class<?> entityType, long delta) {
+        if (delta == 0) {
+            return Mono.empty();
+        }
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> adjustNow(entityType, delta));
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(() -> adjustNow(entityType, delta)))
+            .then();
+    }
+
+    private void adjustNow(Class<?> entityType, long delta) {
+        counts.forEach((key, count) -> {
+            if (key.entityType() == entityType) {
+                count.value.addAndGet(delta);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile().subscribe();
+    }
+
+    /**
+     * Reload all the counts from the database.
+     */
+    @Scheduled(
+        initialDelayString = "${application.counts.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.counts.reconcile-interval:PT5M}"
+    )
+    public Mono<Void> reconcile() {
+        return Flux.fromIterable(counts.entrySet())
+            .concatMap(entry ->
+                load(entry.getKey())
+                    .doOnNext(entry.getValue()::set)
+                    .onErrorResume(e -> {
+                        LOG.warn("Could not reconcile the count of {}: {}", entry.getKey(), e.getMessage());
+                        return Mono.empty();
+                    })
+            )
+            .then();
+    }
+
+    private Count getCount(Class<?> entityType, Mode mode) {
+        return counts.computeIfAbsent(new Key(entityType, mode), key -> new Count(load(key)));
+    }
+
+    private Mono<Long> load(Key key) {
+        Mono<Long> exact = template.count(Query.empty(), key.entityType());
+        if (key.mode() == Mode.EXACT) {
+            return exact;
+        }
+        String table = template
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(key.entityType())
+            .getTableName()
+            .getReference();
+        // reltuples is -1 until the table has been vacuumed or analyzed
+        return db
+            .sql("SELECT reltuples::bigint AS estimate FROM pg_class WHERE oid = to_regclass(:table)")
+            .bind("table", table)
+            .map(row -> row.get("estimate", Long.class))
+            .one()
+            .filter(estimate -> estimate >= 0)
+            .switchIfEmpty(exact);
+    }
+
+    private record Key(Class<?> entityType, Mode mode) {}
+
+    private static final class Count {
+
+        private final AtomicLong value = new AtomicLong();
+        private final Mono<Long> seed;
+        private volatile boolean seeded;
+
+        Count(Mono<Long> load) {
+            // concurrent first requests share the seeding query, which is retried on the next request if it failed
+            this.seed = load.doOnNext(this::set).then(Mono.fromSupplier(this::current)).cache(
+                value -> Duration.ofMillis(Long.MAX_VALUE),
+                error -> Duration.ZERO,
+                () -> Duration.ZERO
+            );
+        }
+
+        Mono<Long> get() {
+            return seeded ? Mono.just(current()) : seed;
+        }
+
+        void set(long count) {
+            value.set(count);
+            seeded = true;
+        }
+
+        long current() {
+            return Math.max(0, value.get());
+        }
+    }
+}
@@ -1,26 +1,45 @@
 package com.okta.developer.blog.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.okta.developer.blog.config.ApplicationProperties;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
-import org.springframework.r2dbc.core.Parameter;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
@@ -52,16 +71,75 @@ public class EntityManager {
         }
     }
 
+    /**
+     * The resolved position of a keyset (seek) paginated select: the sort extended with the id as tie-breaker, and the condition selecting
+     * the rows after the cursor, together with its bind values.
+     */
+    public static class Keyset {
+
+        final Sort sort;
+        final Condition condition;
+        final Map<String, Object> bindings;
+
+        Keyset(Sort sort, Condition condition, Map<String, Object> bindings) {
+            this.sort = sort;
+            this.condition = condition;
+            this.bindings = bindings;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
+
+        /**
+         * Binds the cursor values and the page size to a statement created from the keyset.
+         * @param spec the statement.
+         * @param size the maximum number of rows to return.
+         * @return the statement with the cursor values bound.
+         */
+        public DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, int size) {
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                spec = spec.bind(binding.getKey(), binding.getValue());
+            }
+            return spec.bind(LIMIT_BIND, size);
+        }
+    }
+
+    private enum Paging {
+        NONE,
+        OFFSET,
+        KEYSET_FIRST,
+        KEYSET_NEXT,
+    }
+
+    private record SelectKey(Class<?> entityType, String shape, Sort sort, Paging paging) {}
+
+    private static final String KEYSET_BIND_PREFIX = "keyset_";
+    private static final String LIMIT_BIND = "limit";
+    private static final String OFFSET_BIND = "offset";
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final Cache<SelectKey, String> selectTemplates;
+    private final int fetchSize;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.selectTemplates = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getDatabase().getSelectTemplateCacheSize())
+            .recordStats()
+            .build();
+        this.fetchSize = applicationProperties.getDatabase().getFetchSize();
     }
 
     /**
@@ -128,6 +206,196 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Creates an SQL select statement from the given fragment and pagination parameters, through the template cache.
+     * <p>
+     * The statement only depends on the shape of the query, the sort and whether it's paged: the page is rendered with the {@code :limit}
+     * and {@code :offset} bind markers, which are bound by {@link #bindPaging}. So the statement is rendered once, and every page shares
+     * the same SQL, which lets the driver reuse the prepared statement.
+     * @param shape identifies the select fragment and the where condition, for the entity type.
+     * @param selectFrom creates the representation of the select statement, only called on a cache miss.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned.
+     * @param where condition or null. The condition to apply as where clause, its values must be bind markers.
+     * @return sql select statement
+     */
+    public String createSelect(String shape, Supplier<? extends SelectWhere> selectFrom, Class<?> entityType, Pageable pageable, Condition where) {
+        boolean paged = pageable != null && pageable.isPaged();
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        SelectKey key = new SelectKey(entityType, shape, sort, paged ? Paging.OFFSET : Paging.NONE);
+        return selectTemplates.get(key, k -> {
+            String select = createSelectImpl(where != null ? selectFrom.get().where(where) : selectFrom.get(), entityType, sort);
+            return paged ? select + " LIMIT :" + LIMIT_BIND + " OFFSET :" + OFFSET_BIND : select;
+        });
+    }
+
+    /**
+     * Creates an SQL select statement which seeks to the rows after the keyset cursor, instead of skipping them with an offset.
+     * The statement is cached, see {@link #createSelect(String, Supplier, Class, Pageable, Condition)}.
+     * @param shape identifies the select fragment and the where condition, for the entity type.
+     * @param selectFrom creates the representation of the select statement, only called on a cache miss.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the keyset created by {@link #createKeyset(Class, Sort, KeysetCursor)}.
+     * @param where condition or null. The condition to apply as where clause, its values must be bind markers.
+     * @return sql select statement, the keyset values and the page size need to be bound with {@link Keyset#bind}.
+     */
+    public String createSelect(String shape, Supplier<? extends SelectWhere> selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        SelectKey key = new SelectKey(entityType, shape, keyset.sort, keyset.condition != null ? Paging.KEYSET_NEXT : Paging.KEYSET_FIRST);
+        return selectTemplates.get(key, k -> {
+            Condition condition = and(where, keyset.condition);
+            String select = createSelectImpl(condition != null ? selectFrom.get().where(condition) : selectFrom.get(), entityType, keyset.sort);
+            return select + " LIMIT :" + LIMIT_BIND;
+        });
+    }
+
+    /**
+     * Generate an actual SQL from the given {@link Select}, through the template cache.
+     * @param shape identifies the select statement.
+     * @param select creates the representation of the select statement, only called on a cache miss.
+     * @return the generated SQL select.
+     */
+    public String createSelect(String shape, Supplier<Select> select) {
+        return selectTemplates.get(new SelectKey(null, shape, Sort.unsorted(), Paging.NONE), k -> createSelect(select.get()));
+    }
+
+    /**
+     * Creates a statement updating the row with the id {@code :id} and selecting it back in the same round trip.
+     * <p>
+     * The update is the common table expression {@code updated}, returning the updated row, which the select reads instead of the
+     * entity table, with the same joins. With a link table, the links of the entity are replaced by the ids bound to {@code :links}
+     * (an array) in the same statement. Nothing is returned when there is no row with the id. The statement is cached.
+     * @param table the entity table.
+     * @param columns the updated columns, whose values must be bound with the names of the columns.
+     * @param links the link table whose links are replaced, or null.
+     * @param selectFrom creates the select of the entity from the given table, aliased {@link #ENTITY_ALIAS}.
+     * @return the sql statement.
+     */
+    public String createUpdate(String table, Collection<String> columns, LinkTable links, Function<Table, ? extends SelectWhere> selectFrom) {
+        Assert.notEmpty(columns, "no updated column");
+        String shape = "update " + table + " " + String.join(",", columns) + (links != null ? " " + links.tableName : "");
+        return selectTemplates.get(new SelectKey(null, shape, Sort.unsorted(), Paging.NONE), k -> {
+            StringBuilder sql = new StringBuilder("WITH updated AS (UPDATE ").append(table).append(" SET ");
+            sql.append(columns.stream().map(column -> column + " = :" + column).collect(Collectors.joining(", ")));
+            sql.append(" WHERE id = :id RETURNING *)");
+            if (links != null) {
+                // the deleted and inserted links are disjoint, the links to keep conflict with themselves
+                sql.append(", unlinked AS (DELETE FROM ").append(links.tableName).append(" l USING updated u WHERE l.");
+                sql.append(links.idColumn).append(" = u.id AND l.").append(links.referenceColumn).append(" <> ALL(:links))");
+                sql.append(", linked AS (INSERT INTO ").append(links.tableName).append(" (").append(links.idColumn).append(", ");
+                sql.append(links.referenceColumn).append(") SELECT DISTINCT u.id, unnest(:links) FROM updated u ON CONFLICT DO NOTHING)");
+            }
+            return sql.append(' ').append(createSelect(selectFrom.apply(Table.aliased("updated", ENTITY_ALIAS)).build())).toString();
+        });
+    }
+
+    /**
+     * Binds the page of a statement created by {@link #createSelect(String, Supplier, Class, Pageable, Condition)}.
+     * @param spec the statement.
+     * @param pageable page parameter, or null.
+     * @return the statement with the page bound.
+     */
+    public DatabaseClient.GenericExecuteSpec bindPaging(DatabaseClient.GenericExecuteSpec spec, Pageable pageable) {
+        if (pageable == null || pageable.isUnpaged()) {
+            return spec;
+        }
+        return spec.bind(LIMIT_BIND, pageable.getPageSize()).bind(OFFSET_BIND, pageable.getOffset());
+    }
+
+    /**
+     * Reads the rows of a statement through a cursor, a bounded number of rows per round trip as they are requested downstream,
+     * instead of receiving all of them at once.
+     * @param spec the statement.
+     * @return the statement with its fetch size set.
+     */
+    public DatabaseClient.GenericExecuteSpec fetchInChunks(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.filter(statement -> statement.fetchSize(fetchSize));
+    }
+
+    /**
+     * The cache of the rendered select statements, exposed for monitoring.
+     * @return the cache.
+     */
+    public Cache<?, String> getSelectTemplates() {
+        return selectTemplates;
+    }
+
+    /**
+     * Resolves a keyset cursor against the sort of the entity.
+     * <p>
+     * The id is appended to the sort as tie-breaker, so the order is total. When every order has the same direction, the condition is
+     * a row value comparison {@code (sort_col, id) > (:v, :id)}, otherwise it's expanded into the equivalent disjunction.
+     * The sort properties must be non-nullable columns of the entity table.
+     * @param entityType the entity type which holds the table name.
+     * @param sort the requested sort.
+     * @param cursor the position to continue from, or null for the first page.
+     * @return the keyset.
+     * @throws IllegalArgumentException if the sort or the cursor can't be used for keyset pagination.
+     */
+    public Keyset createKeyset(Class<?> entityType, Sort sort, KeysetCursor cursor) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        Sort keysetSort = createKeysetSort(entity, sort);
+        if (cursor == null) {
+            return new Keyset(keysetSort, null, Map.of());
+        }
+        List<Sort.Order> orders = keysetSort.toList();
+        if (cursor.getValues().size() != orders.size()) {
+            throw new IllegalArgumentException("The cursor does not match the sort " + keysetSort);
+        }
+
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        List<String> columns = new ArrayList<>();
+        List<String> markers = new ArrayList<>();
+        boolean sameDirection = true;
+        for (int i = 0; i < orders.size(); i++) {
+            RelationalPersistentProperty property = getKeysetProperty(entity, orders.get(i).getProperty());
+            String bindName = KEYSET_BIND_PREFIX + i;
+            bindings.put(bindName, readKeysetValue(cursor.getValues().get(i), property));
+            columns.add(ENTITY_ALIAS + "." + property.getColumnName().getReference());
+            markers.add(":" + bindName);
+            sameDirection &= orders.get(i).getDirection() == orders.get(0).getDirection();
+        }
+
+        Condition condition;
+        if (sameDirection) {
+            condition = keysetComparison(
+                orders.get(0),
+                Expressions.just("(" + String.join(", ", columns) + ")"),
+                Expressions.just("(" + String.join(", ", markers) + ")")
+            );
+        } else {
+            condition = null;
+            for (int i = 0; i < orders.size(); i++) {
+                Condition term = keysetComparison(orders.get(i), Expressions.just(columns.get(i)), SQL.bindMarker(markers.get(i)));
+                for (int j = i - 1; j >= 0; j--) {
+                    term = Conditions.isEqual(Expressions.just(columns.get(j)), SQL.bindMarker(markers.get(j))).and(term);
+                }
+                condition = condition == null ? Conditions.nest(term) : condition.or(Conditions.nest(term));
+            }
+            condition = Conditions.nest(condition);
+        }
+        return new Keyset(keysetSort, condition, bindings);
+    }
+
+    /**
+     * Creates the cursor pointing after the given entity, for the given sort.
+     * @param entity the last entity of a page.
+     * @param sort the sort used to fetch the page.
+     * @return the cursor to fetch the next page.
+     */
+    public KeysetCursor createCursor(Object entity, Sort sort) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entity.getClass());
+        PersistentPropertyAccessor<?> accessor = persistentEntity.getPropertyAccessor(entity);
+        List<String> values = new ArrayList<>();
+        for (Sort.Order order : createKeysetSort(persistentEntity, sort)) {
+            Object value = accessor.getProperty(getKeysetProperty(persistentEntity, order.getProperty()));
+            if (value == null) {
+                throw new IllegalStateException("The keyset property " + order.getProperty() + " is null");
+            }
+            values.add(value.toString());
+        }
+        return new KeysetCursor(values);
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -168,27 +436,76 @@ public class EntityManager {
 
     /**
      * Updates the table, which links the entity with the referred entities.
+     * <p>
+     * The current links are read first, and only the difference is applied: one delete for the removed links, and one multi-row insert
+     * for the added ones. Nothing is written if the links didn't change.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * @return the number of inserted and deleted rows.
      */
     public Mono<Long> updateLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds) {
-        return deleteFromLinkTable(table, entityId).then(
-            Flux.fromStream(referencedIds)
-                .flatMap((Object referenceId) -> {
-                    StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                        .getDataAccessStrategy()
-                        .getStatementMapper()
-                        .createInsert(table.tableName)
-                        .withColumn(table.idColumn, Parameter.from(entityId))
-                        .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                    return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                })
-                .collectList()
-                .map((List<Long> updates) -> updates.stream().reduce(Long::sum).orElse(0l))
-        );
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> targetIds = referencedIds.collect(Collectors.toCollection(LinkedHashSet::new));
+        return selectFromLinkTable(table, entityId)
+            .collect(Collectors.toSet())
+            .flatMap((Set<Object> currentIds) -> {
+                List<Object> removedIds = currentIds.stream().filter(id -> !targetIds.contains(id)).toList();
+                List<Object> addedIds = targetIds.stream().filter(id -> !currentIds.contains(id)).toList();
+                return deleteFromLinkTable(table, entityId, removedIds)
+                    .zipWith(insertIntoLinkTable(table, entityId, addedIds.stream()))
+                    .map(updates -> updates.getT1() + updates.getT2());
+            });
+    }
+
+    /**
+     * Inserts the links of a new entity with one multi-row insert.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities.
+     * @return the number of inserted rows.
+     */
+    public Mono<Long> insertIntoLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        List<?> ids = referencedIds.distinct().toList();
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder()
+            .append("INSERT INTO ")
+            .append(table.tableName)
+            .append(" (")
+            .append(table.idColumn)
+            .append(", ")
+            .append(table.referenceColumn)
+            .append(") VALUES ");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:entityId, :referenceId").append(i).append(")");
+        }
+        DatabaseClient.GenericExecuteSpec insert = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()).bind("entityId", entityId);
+        for (int i = 0; i < ids.size(); i++) {
+            insert = insert.bind("referenceId" + i, ids.get(i));
+        }
+        return insert.fetch().rowsUpdated();
+    }
+
+    /**
+     * Reads the ids of the entities referred by the entity.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity.
+     * @return the id of the referred entities.
+     */
+    public Flux<Object> selectFromLinkTable(LinkTable table, Object entityId) {
+        Assert.notNull(entityId, "entityId is null");
+        StatementMapper.SelectSpec selectSpec = statementMapper
+            .createSelect(table.tableName)
+            .withProjection(table.referenceColumn)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(selectSpec))
+            .map(row -> row.get(table.referenceColumn))
+            .all();
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Object entityId) {
@@ -201,6 +518,24 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
+    /**
+     * Deletes the given links of the entity with one statement.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity.
+     * @param referencedIds the id of the referred entities to unlink.
+     * @return the number of deleted rows.
+     */
+    public Mono<Long> deleteFromLinkTable(LinkTable table, Object entityId, Collection<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        if (referencedIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StatementMapper.DeleteSpec deleteSpec = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId).and(table.referenceColumn).in(referencedIds));
+        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).fetch().rowsUpdated();
+    }
+
     private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
         if (sortParameter != null && sortParameter.isSorted()) {
             RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
@@ -217,6 +552,53 @@ public class EntityManager {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
 
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+
+    private static Sort createKeysetSort(RelationalPersistentEntity<?> entity, Sort sort) {
+        String idProperty = entity.getRequiredIdProperty().getName();
+        Sort keysetSort = sort != null ? sort : Sort.unsorted();
+        if (keysetSort.getOrderFor(idProperty) != null) {
+            return keysetSort;
+        }
+        Sort.Direction direction = keysetSort
+            .stream()
+            .reduce((first, second) -> second)
+            .map(Sort.Order::getDirection)
+            .orElse(Sort.Direction.ASC);
+        return keysetSort.and(Sort.by(direction, idProperty));
+    }
+
+    private static RelationalPersistentProperty getKeysetProperty(RelationalPersistentEntity<?> entity, String propertyName) {
+        RelationalPersistentProperty property = propertyName.contains(".") ? null : entity.getPersistentProperty(propertyName);
+        if (property == null || property.isTransient() || property.isEntity()) {
+            throw new IllegalArgumentException("The property " + propertyName + " can't be used for keyset pagination");
+        }
+        return property;
+    }
+
+    private Object readKeysetValue(String value, RelationalPersistentProperty property) {
+        R2dbcConverter converter = r2dbcEntityTemplate.getConverter();
+        try {
+            Object typed = converter.getConversionService().convert(value, property.getType());
+            return converter.writeValue(typed, TypeInformation.OBJECT);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("The cursor value for " + property.getName() + " is invalid", e);
+        }
+    }
+
+    private static Condition keysetComparison(Sort.Order order, Expression left, Expression right) {
+        return order.isAscending() ? Conditions.isGreater(left, right) : Conditions.isLess(left, right);
+    }
+
+    private static Condition and(Condition first, Condition second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : first.and(second);
+    }
+
     private static Collection<? extends OrderByField> createOrderByFields(Table table, Sort sortToUse) {
         List<OrderByField> fields = new ArrayList<>();
 
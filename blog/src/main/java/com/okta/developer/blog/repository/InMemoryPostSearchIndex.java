@@ -0,0 +1,218 @@
+package com.okta.developer.blog.repository;
+
+import com.carrotsearch.hppc.LongFloatHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongFloatCursor;
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Searches the posts with an inverted index kept in memory, for the development databases without full-text search.
+ * <p>
+ * The index is loaded from the database when the application is ready, then maintained by the saves and deletes of the
+ * {@link PostRepository}, so it only sees the changes made through this instance. The words are matched exactly, without stemming,
+ * and a post matches when it contains all the words of the query. Its rank is the number of occurrences of these words, weighted as
+ * the default weights of {@code ts_rank} for the title and the content.
+ */
+@Component
+@ConditionalOnProperty(name = "application.search.engine", havingValue = "in-memory")
+class InMemoryPostSearchIndex implements PostSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryPostSearchIndex.class);
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float CONTENT_WEIGHT = 0.4f;
+
+    // the best hits first: decreasing rank then id
+    private static final Comparator<Hit> HIT_ORDER = Comparator.comparingDouble(Hit::rank).thenComparingLong(Hit::id).reversed();
+
+    private final R2dbcEntityTemplate template;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectHashMap<Document> documents = new LongObjectHashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    InMemoryPostSearchIndex(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        template
+            .select(Post.class)
+            .all()
+            .doOnNext(post -> index(post, false))
+            .count()
+            .subscribe(
+                count -> LOG.debug("Loaded {} posts in the search index", count),
+                e -> LOG.warn("Could not load the posts in the search index: {}", e.getMessage())
+            );
+    }
+
+    @Override
+    public void index(Post post) {
+        index(post, true);
+    }
+
+    /**
+     * Index a post.
+     * @param post the post.
+     * @param replace whether to replace a post already indexed, which is newer than the posts loaded from the database.
+     */
+    void index(Post post, boolean replace) {
+        Map<String, Float> weights = new HashMap<>();
+        addWeights(weights, post.getTitle(), TITLE_WEIGHT);
+        addWeights(weights, post.getContent(), CONTENT_WEIGHT);
+        lock.writeLock().lock();
+        try {
+            if (documents.containsKey(post.getId())) {
+                if (!replace) {
+                    return;
+                }
+                removeDocument(post.getId());
+            }
+            // the documents share the postings, rather than holding a copy of their terms
+            Postings[] documentPostings = new Postings[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> weight : weights.entrySet()) {
+                Postings termPostings = postings.computeIfAbsent(weight.getKey(), Postings::new);
+                termPostings.weights.put(post.getId(), weight.getValue());
+                documentPostings[i++] = termPostings;
+            }
+            documents.put(post.getId(), new Document(PostSummary.of(post), documentPostings));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Flux<PostSummary> search(String query, KeysetCursor after, int size) {
+        String[] terms = Arrays.stream(WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .toArray(String[]::new);
+        if (terms.length == 0) {
+            return Flux.empty();
+        }
+        float afterRank = after != null ? PostSearchIndex.rankOf(after) : Float.POSITIVE_INFINITY;
+        long afterId = after != null ? PostSearchIndex.idOf(after) : Long.MAX_VALUE;
+        // the best hits of the page, the worst one at the head
+        PriorityQueue<Hit> page = new PriorityQueue<>(HIT_ORDER.reversed());
+        List<PostSummary> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            LongFloatHashMap[] termPostings = new LongFloatHashMap[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                Postings matching = postings.get(terms[i]);
+                if (matching == null) {
+                    return Flux.empty();
+                }
+                termPostings[i] = matching.weights;
+            }
+            // the posts matching all the terms are among the posts of the rarest term
+            Arrays.sort(termPostings, Comparator.comparingInt(LongFloatHashMap::size));
+            for (LongFloatCursor candidate : termPostings[0]) {
+                float rank = candidate.value;
+                for (int i = 1; i < termPostings.length && !Float.isNaN(rank); i++) {
+                    int slot = termPostings[i].indexOf(candidate.key);
+                    rank = termPostings[i].indexExists(slot) ? rank + termPostings[i].indexGet(slot) : Float.NaN;
+                }
+                if (!Float.isNaN(rank) && (rank < afterRank || (rank == afterRank && candidate.key < afterId))) {
+                    page.add(new Hit(candidate.key, rank));
+                    if (page.size() > size) {
+                        page.poll();
+                    }
+                }
+            }
+            for (Hit hit : page.stream().sorted(HIT_ORDER).toList()) {
+                PostSummary summary = copyOf(documents.get(hit.id()).summary());
+                summary.setRank(hit.rank());
+                hits.add(summary);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Flux.fromIterable(hits);
+    }
+
+    private void removeDocument(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (Postings termPostings : document.postings()) {
+            termPostings.weights.remove(id);
+            if (termPostings.weights.isEmpty()) {
+                postings.remove(termPostings.term);
+            }
+        }
+    }
+
+    private static void addWeights(Map<String, Float> weights, String text, float weight) {
+        if (text == null) {
+            return;
+        }
+        for (String term : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                weights.merge(term, weight, Float::sum);
+            }
+        }
+    }
+
+    private static PostSummary copyOf(PostSummary summary) {
+        PostSummary copy = new PostSummary();
+        copy.setId(summary.getId());
+        copy.setTitle(summary.getTitle());
+        copy.setDate(summary.getDate());
+        copy.setExcerpt(summary.getExcerpt());
+        copy.setBlog(summary.getBlog());
+        return copy;
+    }
+
+    private record Document(PostSummary summary, Postings[] postings) {}
+
+    /**
+     * The weights of a term in the posts which contain it.
+     */
+    private static final class Postings {
+
+        private final String term;
+        private final LongFloatHashMap weights = new LongFloatHashMap();
+
+        Postings(String term) {
+            this.term = term;
+        }
+    }
+
+    private record Hit(long id, float rank) {}
+}
@@ -0,0 +1,368 @@
+package com.okta.developer.blog.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolMetricsRecorder;
+
+/**
+ * The pool of the R2DBC connections, which measures how long the connections are waited for and held, and keeps track of their
+ * current holders.
+ * <p>
+ * The gauges of the pool ({@code r2dbc.pool.acquired}, {@code idle}, {@code pending}...) are published by Spring Boot, which unwraps
+ * this factory. It adds the timers {@code r2dbc.pool.acquire} and {@code r2dbc.pool.hold}, with percentile histograms, the timer
+ * {@code r2dbc.pool.allocation} of the new connections and the counter {@code r2dbc.pool.evictions} of the destroyed connections, by
+ * reason. The call site of a sample of the acquisitions is recorded, as capturing a stack trace is too costly for all of them.
+ */
+public class InstrumentedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private static final String[] SKIPPED_FRAMES = { "java.", "jdk.", "reactor.", "io.netty.", "io.r2dbc.", "io.micrometer." };
+    private static final String APPLICATION_PACKAGE = "com.okta.developer.";
+    private static final int CALL_SITE_DEPTH = 8;
+
+    private final ConnectionPool pool;
+    private final double sampleRate;
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+    private final Timer hold;
+    private final AtomicLong lastHolderId = new AtomicLong();
+    private final Map<Long, Holder> holders = new ConcurrentHashMap<>();
+
+    /**
+     * Create the pool.
+     * @param configuration the configuration of the pool, whose metrics recorder is replaced.
+     * @param maxLifeTime the maximum lifetime of the connections, to count the evictions it causes.
+     * @param name the name of the pool, tagging its metrics.
+     * @param sampleRate the fraction of the acquisitions whose call site is recorded.
+     * @param registry the registry of the metrics.
+     */
+    public InstrumentedConnectionFactory(
+        ConnectionPoolConfiguration.Builder configuration,
+        Duration maxLifeTime,
+        String name,
+        double sampleRate,
+        MeterRegistry registry
+    ) {
+        this.pool = new ConnectionPool(configuration.metricsRecorder(new MetricsRecorder(name, maxLifeTime, registry)).build());
+        this.sampleRate = sampleRate;
+        this.acquireSuccess = acquireTimer(name, "success", registry);
+        this.acquireFailure = acquireTimer(name, "failure", registry);
+        this.hold = Timer.builder("r2dbc.pool.hold")
+            .description("Time the connections are held, from their acquisition to their release")
+            .tag("name", name)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Timer acquireTimer(String name, String outcome, MeterRegistry registry) {
+        return Timer.builder("r2dbc.pool.acquire")
+            .description("Time waited for a connection, including the pending acquisitions and the new connections")
+            .tags("name", name, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String thread = Thread.currentThread().getName();
+            String callSite = ThreadLocalRandom.current().nextDouble() < sampleRate ? callSite(new Throwable().getStackTrace()) : null;
+            return pool
+                .create()
+                .doOnError(e -> acquireFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .map(connection -> {
+                    long acquired = System.nanoTime();
+                    acquireSuccess.record(acquired - start, TimeUnit.NANOSECONDS);
+                    Holder holder = new Holder(lastHolderId.incrementAndGet(), Instant.now(), acquired, thread, callSite);
+                    holders.put(holder.id(), holder);
+                    return new HeldConnection(connection, holder);
+                });
+        });
+    }
+
+    /**
+     * The frames of the application in a stack trace, or else the frames which are not from the libraries of the pool.
+     */
+    static String callSite(StackTraceElement[] stackTrace) {
+        List<StackTraceElement> frames = Arrays.stream(stackTrace)
+            .filter(frame -> Arrays.stream(SKIPPED_FRAMES).noneMatch(frame.getClassName()::startsWith))
+            .filter(frame -> !frame.getClassName().equals(InstrumentedConnectionFactory.class.getName()))
+            .toList();
+        List<StackTraceElement> applicationFrames = frames
+            .stream()
+            .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+            .toList();
+        return (applicationFrames.isEmpty() ? frames : applicationFrames).stream()
+            .limit(CALL_SITE_DEPTH)
+            .map(StackTraceElement::toString)
+            .collect(Collectors.joining("\n"));
+    }
+
+    private void release(Holder holder) {
+        if (holders.remove(holder.id()) != null) {
+            hold.record(System.nanoTime() - holder.acquiredNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The current holders of the connections.
+     */
+    public Collection<Holder> getHolders() {
+        return holders.values();
+    }
+
+    public Optional<PoolMetrics> getMetrics() {
+        return pool.getMetrics();
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return pool;
+    }
+
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+
+    /**
+     * A holder of a connection.
+     * @param id the id of the acquisition.
+     * @param acquiredAt when the connection was acquired.
+     * @param acquiredNanos when the connection was acquired, for {@link System#nanoTime()}.
+     * @param thread the thread which requested the connection.
+     * @param callSite the frames of the application which acquired the connection, or null if the acquisition is not sampled.
+     */
+    public record Holder(long id, Instant acquiredAt, long acquiredNanos, String thread, String callSite) {
+        public Duration getHeldFor() {
+            return Duration.ofNanos(System.nanoTime() - acquiredNanos);
+        }
+    }
+
+    /**
+     * A connection of the pool, which ends its holder when it is released.
+     */
+    private final class HeldConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection delegate;
+        private final Holder holder;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private HeldConnection(Connection delegate, Holder holder) {
+            this.delegate = delegate;
+            this.holder = holder;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.defer(() -> {
+                if (released.compareAndSet(false, true)) {
+                    release(holder);
+                }
+                return Mono.from(delegate.close());
+            });
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return delegate.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return delegate.beginTransaction(definition);
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return delegate.commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return delegate.createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return delegate.createSavepoint(name);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return delegate.createStatement(sql);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return delegate.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return delegate.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return delegate.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return delegate.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return delegate.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return delegate.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return delegate.setLockWaitTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return delegate.setStatementTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return delegate.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return delegate.validate(depth);
+        }
+
+        @Override
+        public Connection unwrap() {
+            return delegate;
+        }
+    }
+
+    /**
+     * Records the allocations and the evictions of the connections of the pool.
+     */
+    private static final class MetricsRecorder implements PoolMetricsRecorder {
+
+        private final Duration maxLifeTime;
+        private final Timer allocationSuccess;
+        private final Timer allocationFailure;
+        private final Counter maxLifeTimeEvictions;
+        private final Counter otherEvictions;
+
+        private MetricsRecorder(String name, Duration maxLifeTime, MeterRegistry registry) {
+            this.maxLifeTime = maxLifeTime;
+            this.allocationSuccess = allocationTimer(name, "success", registry);
+            this.allocationFailure = allocationTimer(name, "failure", registry);
+            this.maxLifeTimeEvictions = evictionCounter(name, "max-lifetime", registry);
+            this.otherEvictions = evictionCounter(name, "other", registry);
+        }
+
+        private static Timer allocationTimer(String name, String outcome, MeterRegistry registry) {
+            return Timer.builder("r2dbc.pool.allocation")
+                .description("Time taken to open a new connection")
+                .tags("name", name, "outcome", outcome)
+                .register(registry);
+        }
+
+        private static Counter evictionCounter(String name, String reason, MeterRegistry registry) {
+            return Counter.builder("r2dbc.pool.evictions")
+                .description("Connections destroyed by the pool, because of their maximum lifetime or else (idle, invalid, closed)")
+                .tags("name", name, "reason", reason)
+                .register(registry);
+        }
+
+        @Override
+        public void recordAllocationSuccessAndLatency(long latencyMs) {
+            allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordAllocationFailureAndLatency(long latencyMs) {
+            allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+            // the lifetime is recorded when a connection is destroyed
+            if (maxLifeTime != null && millisecondsSinceAllocation >= maxLifeTime.toMillis()) {
+                maxLifeTimeEvictions.increment();
+            } else {
+                otherEvictions.increment();
+            }
+        }
+
+        @Override
+        public void recordResetLatency(long latencyMs) {}
+
+        @Override
+        public void recordDestroyLatency(long latencyMs) {}
+
+        @Override
+        public void recordRecycled() {}
+
+        @Override
+        public void recordIdleTime(long millisecondsIdle) {}
+
+        @Override
+        public void recordSlowPath() {}
+
+        @Override
+        public void recordFastPath() {}
+    }
+}
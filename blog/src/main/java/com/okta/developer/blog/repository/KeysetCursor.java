@@ -0,0 +1,82 @@
+package com.okta.developer.blog.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.util.Assert;
+
+/**
+ * Opaque position inside a keyset (seek) paginated result.
+ * <p>
+ * It holds the values of the sort columns of the last returned row, in the order of the keyset sort (the id being always the last one),
+ * and is exchanged with the clients as an URL safe token.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = ".";
+
+    private final List<String> values;
+
+    public KeysetCursor(List<String> values) {
+        Assert.notEmpty(values, "values is empty");
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * Encode the cursor as an URL safe token.
+     * @return the token.
+     */
+    public String encode() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> encoded = new ArrayList<>(values.size());
+        for (String value : values) {
+            encoded.add(encoder.encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.join(SEPARATOR, encoded);
+    }
+
+    /**
+     * Decode a token created by {@link #encode()}.
+     * @param token the token, an empty or null token means the beginning of the result.
+     * @return the cursor, or null if the token is empty.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        List<String> values = new ArrayList<>();
+        for (String part : token.split("\\" + SEPARATOR, -1)) {
+            values.add(new String(decoder.decode(part), StandardCharsets.UTF_8));
+        }
+        return new KeysetCursor(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        return values.equals(((KeysetCursor) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" + "values=" + values + "}";
+    }
+}
@@ -0,0 +1,205 @@
+package com.okta.developer.blog.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * The feed of the changes of the posts, published by the {@link PostRepository} once their transaction commits.
+ * <p>
+ * The changes are multicast to the subscribers, each with a bounded buffer dropping its oldest changes when the subscriber is too
+ * slow, so a stalled client never holds the others or the memory. The last changes are kept in a ring, so a client reconnecting with
+ * the id of the last change it received gets the changes it missed. The ids are {@code origin-sequence}, the origin being the
+ * instance which published the change: a client coming back with an id of another instance, or older than the ring, gets a
+ * {@link Type#RESET} change telling it to reload the posts, then the next changes.
+ * <p>
+ * The changes are also sent to the other instances of the application, by {@link EntityCacheNotifications}, so the subscribers of
+ * every instance see the changes of all of them; each instance numbers the changes it emits with its own origin.
+ */
+@Component
+public class PostChangeFeed {
+
+    /**
+     * The key of the changes of the current transaction.
+     */
+    private static final Object PENDING = new Object();
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * The changes since the last received one cannot be replayed, the posts must be reloaded.
+         */
+        RESET,
+    }
+
+    /**
+     * A change of a post.
+     * @param id the id of the change.
+     * @param type the type of the change.
+     * @param postId the id of the changed post, null for a reset.
+     * @param post the summary of the created or updated post, null otherwise.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(String id, Type type, Long postId, PostSummary post) {}
+
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private final Sinks.Many<Change> sink = Sinks.many().multicast().directBestEffort();
+    private final Deque<Change> recent = new ArrayDeque<>();
+    private final int replaySize;
+    private final int bufferSize;
+    private final Counter dropped;
+    private volatile Function<List<Change>, Mono<Void>> publisher = changes -> Mono.empty();
+    private long sequence;
+
+    public PostChangeFeed(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.replaySize = applicationProperties.getPostStream().getReplaySize();
+        this.bufferSize = applicationProperties.getPostStream().getBufferSize();
+        this.dropped = Counter.builder("post.stream.dropped")
+            .description("Changes of the posts dropped for the subscribers which could not keep up")
+            .register(meterRegistry);
+        Gauge.builder("post.stream.subscribers", sink, Sinks.Many::currentSubscriberCount)
+            .description("Subscribers of the changes of the posts")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Publish a change to the subscribers of all the instances, once the current transaction commits, or now outside of a transaction.
+     */
+    Mono<Void> publish(Type type, Long postId, Post post) {
+        Pending pending = new Pending(type, postId, post != null ? PostSummary.of(post) : null);
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .map(synchronizationManager -> pendingOf(synchronizationManager).add(pending))
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(
+                Mono.fromSupplier(() -> emit(List.of(pending))).flatMap(emitted ->
+                    publisher.apply(List.of(pending.change())).thenReturn(emitted)
+                )
+            )
+            .then();
+    }
+
+    /**
+     * Set the function publishing the changes to the other instances, which do nothing by default.
+     */
+    void publishChangesWith(Function<List<Change>, Mono<Void>> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Emit the changes received from another instance.
+     * @param changes the changes, whose ids are ignored.
+     */
+    void receive(List<Change> changes) {
+        emit(changes.stream().map(change -> new Pending(change.type(), change.postId(), change.post())).toList());
+    }
+
+    private List<Pending> pendingOf(TransactionSynchronizationManager synchronizationManager) {
+        @SuppressWarnings("unchecked")
+        List<Pending> pending = (List<Pending>) synchronizationManager.getResource(PENDING);
+        if (pending == null) {
+            List<Pending> created = new ArrayList<>();
+            synchronizationManager.bindResource(PENDING, created);
+            synchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> beforeCommit(boolean readOnly) {
+                        // sent together in the transaction, so the other instances receive them on commit only
+                        return Mono.defer(() -> publisher.apply(created.stream().map(Pending::change).toList()));
+                    }
+
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> emit(created));
+                    }
+
+                    @Override
+                    public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(() -> synchronizationManager.unbindResourceIfPossible(PENDING));
+                    }
+                }
+            );
+            pending = created;
+        }
+        return pending;
+    }
+
+    private synchronized boolean emit(List<Pending> changes) {
+        for (Pending pending : changes) {
+            Change change = new Change(origin + "-" + ++sequence, pending.type(), pending.postId(), pending.post());
+            if (recent.size() == replaySize) {
+                recent.removeFirst();
+            }
+            recent.addLast(change);
+            // the subscribers request unbounded, this can only fail once the feed has no subscriber
+            sink.tryEmitNext(change);
+        }
+        return true;
+    }
+
+    /**
+     * Subscribe to the changes.
+     * @param lastEventId the id of the last change received before a reconnection, or null.
+     * @return the changes missed since the last change received, then the next changes, as they are published.
+     */
+    public Flux<Change> changes(String lastEventId) {
+        return Flux.<Change>create(emitter -> {
+            // replay and subscribe without any change published in between
+            synchronized (this) {
+                replay(lastEventId).forEach(emitter::next);
+                Disposable subscription = sink.asFlux().subscribe(emitter::next, emitter::error, emitter::complete);
+                emitter.onDispose(subscription);
+            }
+        }).onBackpressureBuffer(bufferSize, change -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private List<Change> replay(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long last = sequenceOf(lastEventId);
+        long oldest = recent.isEmpty() ? sequence + 1 : sequenceOf(recent.getFirst().id());
+        if (last < 0 || last > sequence || last < oldest - 1) {
+            return List.of(new Change(origin + "-" + sequence, Type.RESET, null, null));
+        }
+        return recent.stream().filter(change -> sequenceOf(change.id()) > last).toList();
+    }
+
+    private long sequenceOf(String id) {
+        if (!id.startsWith(origin + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(origin.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Pending(Type type, Long postId, PostSummary post) {
+        Change change() {
+            return new Change(null, type, postId, post);
+        }
+    }
+}
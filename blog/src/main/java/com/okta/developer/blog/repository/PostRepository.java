@@ -1,7 +1,10 @@
 package com.okta.developer.blog.repository;
 
 import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -31,7 +34,7 @@ public interface PostRepository extends ReactiveCrudRepository<Post, Long>, Post
     @Query("SELECT * FROM post entity WHERE entity.blog_id IS NULL")
     Flux<Post> findAllWhereBlogIsNull();
 
-    @Query("SELECT entity.* FROM post entity JOIN rel_post__tag joinTable ON entity.id = joinTable.tag_id WHERE joinTable.tag_id = :id")
+    @Query("SELECT entity.* FROM post entity JOIN rel_post__tag joinTable ON entity.id = joinTable.post_id WHERE joinTable.tag_id = :id")
     Flux<Post> findByTag(Long id);
 
     @Override
@@ -50,10 +53,71 @@ public interface PostRepository extends ReactiveCrudRepository<Post, Long>, Post
 interface PostRepositoryInternal {
     <S extends Post> Mono<S> save(S entity);
 
+    /**
+     * Saves the columns of the post, leaving its links to the tags untouched.
+     */
+    <S extends Post> Mono<S> saveWithoutRelations(S entity);
+
+    /**
+     * Updates all the columns and the links to the tags of a post, with a single statement returning the updated post.
+     * @return the updated post, with its blog, or an empty {@link Mono} if there is no post with its id.
+     */
+    Mono<Post> update(Post post);
+
+    /**
+     * Updates the columns of the non-null fields of a post, with a single statement returning the updated post.
+     * @return the updated post, with its blog, or an empty {@link Mono} if there is no post with its id.
+     */
+    Mono<Post> partialUpdate(Post post);
+
+    /**
+     * Inserts new posts and their links to the tags with multi-row statements, rather than one statement per post and per link.
+     * @param posts the posts to insert, without ids.
+     * @return the inserted posts, in the same order, with their ids.
+     */
+    <S extends Post> Flux<S> insertAll(List<S> posts);
+
     Flux<Post> findAllBy(Pageable pageable);
 
     Flux<Post> findAll();
 
+    Flux<Post> findAllAfter(KeysetCursor cursor, int size, Sort sort);
+
+    /**
+     * Streams all the posts ordered by id, fetching them in chunks as they are consumed.
+     */
+    Flux<Post> streamAll();
+
+    KeysetCursor cursorOf(Post entity, Sort sort);
+
+    /**
+     * Finds a page of summaries of the posts, which do not read the content of the posts.
+     */
+    Flux<PostSummary> findAllSummariesBy(Pageable pageable);
+
+    Flux<PostSummary> findAllSummariesAfter(KeysetCursor cursor, int size, Sort sort);
+
+    KeysetCursor cursorOf(PostSummary summary, Sort sort);
+
+    /**
+     * Streams the posts of a tag ordered by id, reading them with successive keyset pages on the {@code (tag_id, post_id)} index.
+     * @param tagId the id of the tag.
+     * @param afterPostId the id of the last post already read, or null to start from the first post.
+     * @return the posts, with their blog.
+     */
+    Flux<Post> findAllByTag(Long tagId, Long afterPostId);
+
+    /**
+     * Searches the posts whose title or content match the query, with the index selected by {@code application.search.engine}.
+     * @param query the words to search.
+     * @param after the cursor of the last hit of the previous page, or null for the first page.
+     * @param size the maximum number of hits.
+     * @return the summaries of the matching posts by decreasing rank, then id.
+     */
+    Flux<PostSummary> search(String query, KeysetCursor after, int size);
+
+    KeysetCursor searchCursorOf(PostSummary hit);
+
     Mono<Post> findById(Long id);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Post> findAllBy(Pageable pageable, Criteria criteria);
@@ -1,28 +1,41 @@
 package com.okta.developer.blog.repository;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.okta.developer.blog.domain.Blog;
 import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
 import com.okta.developer.blog.domain.Tag;
 import com.okta.developer.blog.repository.rowmapper.BlogRowMapper;
 import com.okta.developer.blog.repository.rowmapper.PostRowMapper;
+import com.okta.developer.blog.repository.rowmapper.PostSummaryRowMapper;
+import com.okta.developer.blog.repository.rowmapper.TagRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -35,20 +48,51 @@ class PostRepositoryInternalImpl extends SimpleR2dbcRepository<Post, Long> imple
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
+    private final EntityCounter entityCounter;
+    private final PostSearchIndex searchIndex;
+    private final EntityCache entityCache;
+    private final PostChangeFeed changeFeed;
+    private final EntityCache.Region<Post> cacheById;
+    private final EntityCache.Region<Post> cacheWithTags;
 
     private final BlogRowMapper blogMapper;
     private final PostRowMapper postMapper;
+    private final PostSummaryRowMapper postSummaryMapper;
+    private final TagRowMapper tagMapper;
 
     private static final Table entityTable = Table.aliased("post", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
+
+    private static final String SELECT_ALL = "all";
+    private static final String SELECT_BY_ID = "byId";
+    private static final String SELECT_SUMMARIES = "summaries";
     private static final Table blogTable = Table.aliased("blog", "blog");
+    private static final Table tagTable = Table.aliased("tag", "tag");
+    private static final Table tagLinkTable = Table.aliased("rel_post__tag", "rel");
+
+    // the tags of the posts are fetched with one query per batch of posts
+    private static final int TAG_FETCH_BATCH_SIZE = 500;
+
+    // the posts of a tag are streamed with one query per page
+    private static final int TAG_POSTS_PAGE_SIZE = 500;
+
+    // the rows of a multi-row insert are bound one by one, and Postgres accepts at most 65535 binds per statement
+    private static final int MAX_INSERT_ROWS = 10_000;
 
     private static final EntityManager.LinkTable tagLink = new EntityManager.LinkTable("rel_post__tag", "post_id", "tag_id");
+    private static final List<String> UPDATED_COLUMNS = List.of("title", "content", "date", "excerpt", "blog_id");
 
     public PostRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
+        EntityCounter entityCounter,
+        PostSearchIndex searchIndex,
+        EntityCache entityCache,
+        PostChangeFeed changeFeed,
         BlogRowMapper blogMapper,
         PostRowMapper postMapper,
+        PostSummaryRowMapper postSummaryMapper,
+        TagRowMapper tagMapper,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -60,27 +104,141 @@ class PostRepositoryInternalImpl extends SimpleR2dbcRepository<Post, Long> imple
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
+        this.entityCounter = entityCounter;
+        this.searchIndex = searchIndex;
+        this.entityCache = entityCache;
+        this.changeFeed = changeFeed;
+        this.cacheById = entityCache.register(Post.class, "byId", this::selectById, Blog.class);
+        this.cacheWithTags = entityCache.register(
+            Post.class,
+            "withTags",
+            id -> fetchTags(selectById(id).flux()).next(),
+            Blog.class,
+            Tag.class
+        );
         this.blogMapper = blogMapper;
         this.postMapper = postMapper;
+        this.postSummaryMapper = postSummaryMapper;
+        this.tagMapper = tagMapper;
     }
 
     @Override
     public Flux<Post> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery(SELECT_ALL, pageable, null).map(this::process).all();
+    }
+
+    DatabaseClient.GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(shape, this::createSelectFrom, Post.class, pageable, whereClause);
+        return entityManager.bindPaging(db.sql(select), pageable);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
+        return createSelectFrom(entityTable);
     }
 
-    RowsFetchSpec<Post> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = PostSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+    private SelectFromAndJoinCondition createSelectFrom(Table table) {
+        return createSelectFrom(table, PostSqlHelper.getColumns(table, EntityManager.ENTITY_ALIAS));
+    }
+
+    private SelectFromAndJoinCondition createSummarySelectFrom() {
+        return createSelectFrom(entityTable, PostSqlHelper.getSummaryColumns(entityTable, EntityManager.ENTITY_ALIAS));
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom(Table table, List<Expression> columns) {
         columns.addAll(BlogSqlHelper.getColumns(blogTable, "blog"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
+        return Select.builder()
             .select(columns)
-            .from(entityTable)
+            .from(table)
             .leftOuterJoin(blogTable)
-            .on(Column.create("blog_id", entityTable))
+            .on(Column.create("blog_id", table))
             .equals(Column.create("id", blogTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Post.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+    }
+
+    @Override
+    public Flux<Post> findAllAfter(KeysetCursor cursor, int size, Sort sort) {
+        EntityManager.Keyset keyset = entityManager.createKeyset(Post.class, sort, cursor);
+        String select = entityManager.createSelect(SELECT_ALL, this::createSelectFrom, Post.class, keyset, null);
+        return keyset.bind(db.sql(select), size).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Post> streamAll() {
+        Pageable byId = Pageable.unpaged(Sort.by("id"));
+        return entityManager.fetchInChunks(createQuery(SELECT_ALL, byId, null)).map(this::process).all();
+    }
+
+    @Override
+    public KeysetCursor cursorOf(Post entity, Sort sort) {
+        return entityManager.createCursor(entity, sort);
+    }
+
+    @Override
+    public Flux<PostSummary> findAllSummariesBy(Pageable pageable) {
+        String select = entityManager.createSelect(SELECT_SUMMARIES, this::createSummarySelectFrom, Post.class, pageable, null);
+        return entityManager.bindPaging(db.sql(select), pageable).map(this::processSummary).all();
+    }
+
+    @Override
+    public Flux<PostSummary> findAllSummariesAfter(KeysetCursor cursor, int size, Sort sort) {
+        EntityManager.Keyset keyset = entityManager.createKeyset(Post.class, sort, cursor);
+        String select = entityManager.createSelect(SELECT_SUMMARIES, this::createSummarySelectFrom, Post.class, keyset, null);
+        return keyset.bind(db.sql(select), size).map(this::processSummary).all();
+    }
+
+    @Override
+    public KeysetCursor cursorOf(PostSummary summary, Sort sort) {
+        // the keyset columns of the posts are all part of the summary
+        return entityManager.createCursor(new Post().id(summary.getId()).title(summary.getTitle()).date(summary.getDate()), sort);
+    }
+
+    @Override
+    public Flux<Post> findAllByTag(Long tagId, Long afterPostId) {
+        // each page is read after the last one, from its last id: the pages are expanded iteratively, so the number of pages
+        // does not grow the stack
+        return findPageByTag(tagId, afterPostId)
+            .collectList()
+            .expand(page ->
+                page.size() < TAG_POSTS_PAGE_SIZE ? Mono.empty() : findPageByTag(tagId, page.get(page.size() - 1).getId()).collectList()
+            )
+            .flatMapIterable(Function.identity());
+    }
+
+    private Flux<Post> findPageByTag(Long tagId, Long afterPostId) {
+        Column postId = Column.create("post_id", tagLinkTable);
+        Condition tagCondition = Conditions.isEqual(Column.create("tag_id", tagLinkTable), SQL.bindMarker(":tagId"));
+        String select = entityManager.createSelect(afterPostId == null ? "tag_posts" : "tag_posts_after", () -> {
+            List<Expression> columns = PostSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+            columns.addAll(BlogSqlHelper.getColumns(blogTable, "blog"));
+            return Select.builder()
+                .select(columns)
+                .from(tagLinkTable)
+                .join(entityTable)
+                .on(postId)
+                .equals(Column.create("id", entityTable))
+                .leftOuterJoin(blogTable)
+                .on(Column.create("blog_id", entityTable))
+                .equals(Column.create("id", blogTable))
+                .limit(TAG_POSTS_PAGE_SIZE)
+                .where(afterPostId == null ? tagCondition : tagCondition.and(Conditions.isGreater(postId, SQL.bindMarker(":afterPostId"))))
+                .orderBy(OrderByField.from(postId, Sort.Direction.ASC))
+                .build();
+        });
+        DatabaseClient.GenericExecuteSpec spec = db.sql(select).bind("tagId", tagId);
+        if (afterPostId != null) {
+            spec = spec.bind("afterPostId", afterPostId);
+        }
+        return spec.map(this::process).all();
+    }
+
+    @Override
+    public Flux<PostSummary> search(String query, KeysetCursor after, int size) {
+        return searchIndex.search(query, after, size);
+    }
+
+    @Override
+    public KeysetCursor searchCursorOf(PostSummary hit) {
+        return PostSearchIndex.cursorOf(hit);
     }
 
     @Override
@@ -90,23 +248,59 @@ class PostRepositoryInternalImpl extends SimpleR2dbcRepository<Post, Long> imple
 
     @Override
     public Mono<Post> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return cacheById.get(id);
+    }
+
+    private Mono<Post> selectById(Long id) {
+        return createQuery(SELECT_BY_ID, null, idCondition).bind("id", id).map(this::process).one();
     }
 
     @Override
     public Mono<Post> findOneWithEagerRelationships(Long id) {
-        return findById(id);
+        return cacheWithTags.get(id);
     }
 
     @Override
     public Flux<Post> findAllWithEagerRelationships() {
-        return findAll();
+        return fetchTags(findAll());
     }
 
     @Override
     public Flux<Post> findAllWithEagerRelationships(Pageable page) {
-        return findAllBy(page);
+        return fetchTags(findAllBy(page));
+    }
+
+    private Flux<Post> fetchTags(Flux<Post> posts) {
+        return posts.buffer(TAG_FETCH_BATCH_SIZE).concatMap(this::fetchTags);
+    }
+
+    private Flux<Post> fetchTags(List<Post> posts) {
+        LongObjectHashMap<Post> postsById = new LongObjectHashMap<>(posts.size());
+        for (Post post : posts) {
+            postsById.put(post.getId(), post);
+        }
+        String select = entityManager.createSelect("post_tags", () -> {
+            List<Expression> columns = TagSqlHelper.getColumns(tagTable, "tag");
+            columns.add(Column.aliased("post_id", tagLinkTable, "rel_post_id"));
+            return Select.builder()
+                .select(columns)
+                .from(tagLinkTable)
+                .join(tagTable)
+                .on(Column.create("tag_id", tagLinkTable))
+                .equals(Column.create("id", tagTable))
+                .where(Conditions.in(Column.create("post_id", tagLinkTable), SQL.bindMarker(":postIds")))
+                .build();
+        });
+        return db
+            .sql(select)
+            .bind("postIds", posts.stream().map(Post::getId).toList())
+            .map((row, metadata) -> {
+                Post post = postsById.get(row.get("rel_post_id", Long.class));
+                post.addTag(tagMapper.apply(row, "tag"));
+                return post;
+            })
+            .all()
+            .thenMany(Flux.fromIterable(posts));
     }
 
     private Post process(Row row, RowMetadata metadata) {
@@ -115,9 +309,175 @@ class PostRepositoryInternalImpl extends SimpleR2dbcRepository<Post, Long> imple
         return entity;
     }
 
+    private PostSummary processSummary(Row row, RowMetadata metadata) {
+        PostSummary summary = postSummaryMapper.apply(row, "e");
+        summary.setBlog(blogMapper.apply(row, "blog"));
+        return summary;
+    }
+
     @Override
     public <S extends Post> Mono<S> save(S entity) {
-        return super.save(entity).flatMap((S e) -> updateRelations(e));
+        entity.setExcerpt(PostSummary.excerptOf(entity.getContent()));
+        if (entity.getId() == null) {
+            return super
+                .save(entity)
+                .flatMap((S e) -> entityCounter.adjust(Post.class, 1).thenReturn(e))
+                .flatMap((S e) -> insertRelations(e))
+                .doOnNext(searchIndex::index)
+                .flatMap(e -> changeFeed.publish(PostChangeFeed.Type.CREATED, e.getId(), e).thenReturn(e));
+        }
+        return super
+            .save(entity)
+            .flatMap((S e) -> updateRelations(e))
+            .doOnNext(searchIndex::index)
+            .flatMap(e -> entityCache.evict(Post.class, e.getId()).thenReturn(e))
+            .flatMap(e -> changeFeed.publish(PostChangeFeed.Type.UPDATED, e.getId(), e).thenReturn(e));
+    }
+
+    @Override
+    public <S extends Post> Mono<S> saveWithoutRelations(S entity) {
+        entity.setExcerpt(PostSummary.excerptOf(entity.getContent()));
+        return super
+            .save(entity)
+            .doOnNext(searchIndex::index)
+            .flatMap(e -> entityCache.evict(Post.class, e.getId()).thenReturn(e))
+            .flatMap(e -> changeFeed.publish(PostChangeFeed.Type.UPDATED, e.getId(), e).thenReturn(e));
+    }
+
+    @Override
+    public Mono<Post> update(Post post) {
+        String update = entityManager.createUpdate("post", UPDATED_COLUMNS, tagLink, this::createSelectFrom);
+        post.setExcerpt(PostSummary.excerptOf(post.getContent()));
+        DatabaseClient.GenericExecuteSpec spec = db.sql(update).bind("id", post.getId());
+        spec = bind(spec, "title", post.getTitle(), String.class);
+        spec = bind(spec, "content", post.getContent(), String.class);
+        spec = bind(spec, "date", post.getDate(), Instant.class);
+        spec = bind(spec, "excerpt", post.getExcerpt(), String.class);
+        spec = bind(spec, "blog_id", post.getBlogId(), Long.class);
+        spec = spec.bind("links", post.getTags().stream().map(Tag::getId).toArray(Long[]::new));
+        return spec
+            .map(this::process)
+            .one()
+            .doOnNext(updated -> {
+                updated.setTags(post.getTags());
+                searchIndex.index(updated);
+            })
+            .flatMap(updated -> entityCache.evict(Post.class, updated.getId()).thenReturn(updated))
+            .flatMap(updated -> changeFeed.publish(PostChangeFeed.Type.UPDATED, updated.getId(), updated).thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Post> partialUpdate(Post post) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (post.getTitle() != null) {
+            values.put("title", post.getTitle());
+        }
+        if (post.getContent() != null) {
+            values.put("content", post.getContent());
+            values.put("excerpt", PostSummary.excerptOf(post.getContent()));
+        }
+        if (post.getDate() != null) {
+            values.put("date", post.getDate());
+        }
+        if (values.isEmpty()) {
+            return findById(post.getId());
+        }
+        String update = entityManager.createUpdate("post", values.keySet(), null, this::createSelectFrom);
+        DatabaseClient.GenericExecuteSpec spec = db.sql(update).bind("id", post.getId());
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec
+            .map(this::process)
+            .one()
+            .doOnNext(searchIndex::index)
+            .flatMap(updated -> entityCache.evict(Post.class, updated.getId()).thenReturn(updated))
+            .flatMap(updated -> changeFeed.publish(PostChangeFeed.Type.UPDATED, updated.getId(), updated).thenReturn(updated));
+    }
+
+    @Override
+    public <S extends Post> Flux<S> insertAll(List<S> posts) {
+        return Flux.fromIterable(partition(posts)).concatMap(this::insertRows);
+    }
+
+    private <S extends Post> Flux<S> insertRows(List<S> posts) {
+        // the ids are reserved first and inserted with the rows, as the order of the rows returned by a multi-row insert is not
+        // guaranteed by Postgres
+        return db
+            .sql("SELECT nextval(pg_get_serial_sequence('post', 'id')) AS id FROM generate_series(1, :count)")
+            .bind("count", posts.size())
+            .map((row, metadata) -> row.get("id", Long.class))
+            .all()
+            .collectList()
+            .flatMapMany(ids -> {
+                for (int i = 0; i < posts.size(); i++) {
+                    posts.get(i).setId(ids.get(i));
+                }
+                return insertPostRows(posts)
+                    .then(entityCounter.adjust(Post.class, posts.size()))
+                    .then(insertTagLinks(posts))
+                    .thenMany(Flux.fromIterable(posts))
+                    .doOnNext(searchIndex::index)
+                    .concatMap(post -> changeFeed.publish(PostChangeFeed.Type.CREATED, post.getId(), post).thenReturn(post));
+            });
+    }
+
+    private Mono<Long> insertPostRows(List<? extends Post> posts) {
+        StringBuilder sql = new StringBuilder("INSERT INTO post (id, title, content, date, excerpt, blog_id) VALUES ");
+        for (int i = 0; i < posts.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (");
+            sql.append(":id").append(i).append(", :title").append(i).append(", :content").append(i).append(", :date").append(i);
+            sql.append(", :excerpt").append(i).append(", :blogId").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.toString());
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            post.setExcerpt(PostSummary.excerptOf(post.getContent()));
+            spec = spec.bind("id" + i, post.getId());
+            spec = bind(spec, "title" + i, post.getTitle(), String.class);
+            spec = bind(spec, "content" + i, post.getContent(), String.class);
+            spec = bind(spec, "date" + i, post.getDate(), Instant.class);
+            spec = bind(spec, "excerpt" + i, post.getExcerpt(), String.class);
+            spec = bind(spec, "blogId" + i, post.getBlogId(), Long.class);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private Mono<Void> insertTagLinks(List<? extends Post> posts) {
+        List<long[]> links = new ArrayList<>();
+        for (Post post : posts) {
+            post.getTags().stream().map(Tag::getId).distinct().forEach(tagId -> links.add(new long[] { post.getId(), tagId }));
+        }
+        return Flux.fromIterable(partition(links)).concatMap(this::insertTagLinkRows).then();
+    }
+
+    private Mono<Long> insertTagLinkRows(List<long[]> links) {
+        StringBuilder sql = new StringBuilder("INSERT INTO rel_post__tag (post_id, tag_id) VALUES ");
+        for (int i = 0; i < links.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (").append(":postId").append(i).append(", :tagId").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.toString());
+        for (int i = 0; i < links.size(); i++) {
+            spec = spec.bind("postId" + i, links.get(i)[0]).bind("tagId" + i, links.get(i)[1]);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static <T> List<List<T>> partition(List<T> rows) {
+        List<List<T>> partitions = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += MAX_INSERT_ROWS) {
+            partitions.add(rows.subList(from, Math.min(from + MAX_INSERT_ROWS, rows.size())));
+        }
+        return partitions;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    protected <S extends Post> Mono<S> insertRelations(S entity) {
+        Mono<Void> result = entityManager.insertIntoLinkTable(tagLink, entity.getId(), entity.getTags().stream().map(Tag::getId)).then();
+        return result.thenReturn(entity);
     }
 
     protected <S extends Post> Mono<S> updateRelations(S entity) {
@@ -127,7 +487,15 @@ class PostRepositoryInternalImpl extends SimpleR2dbcRepository<Post, Long> imple
 
     @Override
     public Mono<Void> deleteById(Long entityId) {
-        return deleteRelations(entityId).then(super.deleteById(entityId));
+        return deleteRelations(entityId)
+            .then(r2dbcEntityTemplate.delete(Query.query(Criteria.where("id").is(entityId)), Post.class))
+            .flatMap(deleted -> {
+                searchIndex.remove(entityId);
+                return entityCounter.adjust(Post.class, -deleted).thenReturn(deleted);
+            })
+            .filter(deleted -> deleted > 0)
+            .flatMap(deleted -> changeFeed.publish(PostChangeFeed.Type.DELETED, entityId, null))
+            .then(entityCache.evict(Post.class, entityId));
     }
 
     protected Mono<Void> deleteRelations(Long entityId) {
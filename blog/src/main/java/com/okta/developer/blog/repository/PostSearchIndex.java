@@ -0,0 +1,56 @@
+package com.okta.developer.blog.repository;
+
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import java.util.List;
+import reactor.core.publisher.Flux;
+
+/**
+ * Full-text index of the title and content of the posts, selected by {@code application.search.engine}.
+ * <p>
+ * The hits are ordered by decreasing rank then id, and paginated with a {@link KeysetCursor} holding the rank and the id of the
+ * last hit of the previous page.
+ */
+interface PostSearchIndex {
+    /**
+     * Index a post after it was saved, replacing its previous version.
+     * @param post the saved post.
+     */
+    default void index(Post post) {}
+
+    /**
+     * Remove a post from the index after it was deleted.
+     * @param id the id of the deleted post.
+     */
+    default void remove(Long id) {}
+
+    /**
+     * Search the posts matching the query.
+     * @param query the words to search.
+     * @param after the cursor of the last hit of the previous page, or null for the first page.
+     * @param size the maximum number of hits.
+     * @return the summaries of the matching posts, with their rank.
+     * @throws IllegalArgumentException if the cursor is not a cursor of the hits.
+     */
+    Flux<PostSummary> search(String query, KeysetCursor after, int size);
+
+    static KeysetCursor cursorOf(PostSummary hit) {
+        return new KeysetCursor(List.of(Float.toString(hit.getRank()), hit.getId().toString()));
+    }
+
+    static float rankOf(KeysetCursor cursor) {
+        checkCursor(cursor);
+        return Float.parseFloat(cursor.getValues().get(0));
+    }
+
+    static long idOf(KeysetCursor cursor) {
+        checkCursor(cursor);
+        return Long.parseLong(cursor.getValues().get(1));
+    }
+
+    private static void checkCursor(KeysetCursor cursor) {
+        if (cursor.getValues().size() != 2) {
+            throw new IllegalArgumentException("Not a cursor of the search hits: " + cursor);
+        }
+    }
+}
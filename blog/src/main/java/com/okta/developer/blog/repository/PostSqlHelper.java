@@ -14,6 +14,21 @@ public class PostSqlHelper {
         columns.add(Column.aliased("title", table, columnPrefix + "_title"));
         columns.add(Column.aliased("content", table, columnPrefix + "_content"));
         columns.add(Column.aliased("date", table, columnPrefix + "_date"));
+        columns.add(Column.aliased("excerpt", table, columnPrefix + "_excerpt"));
+
+        columns.add(Column.aliased("blog_id", table, columnPrefix + "_blog_id"));
+        return columns;
+    }
+
+    /**
+     * The columns of a {@link com.okta.developer.blog.domain.PostSummary}, i.e. all the columns but the content.
+     */
+    public static List<Expression> getSummaryColumns(Table table, String columnPrefix) {
+        List<Expression> columns = new ArrayList<>();
+        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
+        columns.add(Column.aliased("title", table, columnPrefix + "_title"));
+        columns.add(Column.aliased("date", table, columnPrefix + "_date"));
+        columns.add(Column.aliased("excerpt", table, columnPrefix + "_excerpt"));
 
         columns.add(Column.aliased("blog_id", table, columnPrefix + "_blog_id"));
         return columns;
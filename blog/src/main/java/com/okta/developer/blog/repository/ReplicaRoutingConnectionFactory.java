@@ -0,0 +1,202 @@
+package com.okta.developer.blog.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Routes the read-only transactions, and the statements of the GET requests outside of a transaction, to a read replica.
+ * <p>
+ * The other statements go to the primary: the read-write transactions, the statements outside of a request (such as the loads of the
+ * {@link EntityCache}, which must see the last commits) and the requests of a user who wrote less than the sticky window ago, so the
+ * users read their own writes. The replication lag is checked in the background, and the replica is not used while it lags more
+ * than the maximum lag or cannot be reached.
+ * <p>
+ * The connection of a transaction is acquired before the transaction is flagged read-only, so the transactions must be managed by
+ * the {@link TransactionManager} of this class.
+ */
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    // the replay lag, 0 if the replica replayed all it received or is not a standby
+    private static final String LAG_QUERY =
+        "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)::float8";
+
+    /**
+     * Where the statements of a request may go, set in the Reactor context of the request.
+     */
+    public enum Target {
+        PRIMARY,
+        REPLICA,
+    }
+
+    private final ConnectionFactory replica;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaAvailable;
+    private Disposable lagChecks;
+
+    /**
+     * Create the routing factory.
+     * @param primary the pool of the primary.
+     * @param replica the pool of the replica.
+     * @param maxLag the maximum replication lag of the replica.
+     * @param lagCheckInterval the interval of the checks of the replication lag.
+     * @param stickyWindow how long the requests of a user who wrote go to the primary.
+     * @param registry the registry of the metrics of the replica.
+     */
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        ConnectionFactory replica,
+        Duration maxLag,
+        Duration lagCheckInterval,
+        Duration stickyWindow,
+        MeterRegistry registry
+    ) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(stickyWindow).maximumSize(100_000).build();
+        setTargetConnectionFactories(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        Gauge.builder("r2dbc.replica.lag", this, factory -> factory.lagSeconds)
+            .description("Replication lag of the read replica, in seconds")
+            .baseUnit("seconds")
+            .register(registry);
+        Gauge.builder("r2dbc.replica.available", this, factory -> factory.replicaAvailable ? 1 : 0)
+            .description("Whether the read replica receives the reads")
+            .register(registry);
+    }
+
+    /**
+     * Route the statements of a request.
+     * @param target where the statements of the request may go.
+     * @return the context to write in the Reactor context of the request.
+     */
+    public static Context withTarget(Target target) {
+        return Context.of(Target.class, target);
+    }
+
+    /**
+     * Send the requests of a user to the primary for the sticky window, after a write.
+     */
+    public void wrote(String user) {
+        recentWriters.put(user, Boolean.TRUE);
+    }
+
+    public boolean isSticky(String user) {
+        return recentWriters.getIfPresent(user) != null;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            Target target = context.getOrDefault(Target.class, null);
+            if (target == Target.PRIMARY || !replicaAvailable) {
+                return Mono.just(Target.PRIMARY);
+            }
+            Target outsideTransaction = target == Target.REPLICA ? Target.REPLICA : Target.PRIMARY;
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(synchronizationManager -> {
+                    if (!synchronizationManager.isActualTransactionActive()) {
+                        return outsideTransaction;
+                    }
+                    return synchronizationManager.isCurrentTransactionReadOnly() ? Target.REPLICA : Target.PRIMARY;
+                })
+                .onErrorReturn(NoTransactionException.class, outsideTransaction);
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        lagChecks = Flux.interval(Duration.ZERO, lagCheckInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> checkLag(), 1)
+            .subscribe();
+    }
+
+    private Mono<Void> checkLag() {
+        return Mono.usingWhen(
+            replica.create(),
+            connection ->
+                Mono.from(connection.createStatement(LAG_QUERY).execute()).flatMap(result ->
+                    Mono.from(result.map(row -> row.get(0, Double.class)))
+                ),
+            Connection::close
+        )
+            .timeout(lagCheckInterval)
+            .doOnNext(this::updateLag)
+            .doOnError(e -> {
+                if (replicaAvailable) {
+                    LOG.warn("Reading from the primary, as the replica cannot be reached: {}", e.toString());
+                }
+                lagSeconds = Double.NaN;
+                replicaAvailable = false;
+            })
+            .onErrorComplete()
+            .then();
+    }
+
+    void updateLag(double seconds) {
+        boolean available = seconds * 1000 <= maxLag.toMillis();
+        if (available != replicaAvailable) {
+            LOG.info("Reading from the {}, as the replication lag is {}s", available ? "replica" : "primary", seconds);
+        }
+        lagSeconds = seconds;
+        replicaAvailable = available;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Override
+    public void destroy() {
+        if (lagChecks != null) {
+            lagChecks.dispose();
+        }
+    }
+
+    /**
+     * The transaction manager flagging the transactions read-only before acquiring their connection, so they are routed.
+     */
+    public static class TransactionManager extends R2dbcTransactionManager {
+
+        public TransactionManager(ReplicaRoutingConnectionFactory connectionFactory) {
+            super(connectionFactory);
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            synchronizationManager.setActualTransactionActive(true);
+            synchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+            return super.doBegin(synchronizationManager, transaction, definition);
+        }
+    }
+}
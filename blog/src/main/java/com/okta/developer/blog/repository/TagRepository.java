@@ -2,6 +2,7 @@ package com.okta.developer.blog.repository;
 
 import com.okta.developer.blog.domain.Tag;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -31,11 +32,34 @@ public interface TagRepository extends ReactiveCrudRepository<Tag, Long>, TagRep
 interface TagRepositoryInternal {
     <S extends Tag> Mono<S> save(S entity);
 
+    /**
+     * Updates all the columns of a tag, with a single statement returning the updated tag.
+     * @return the updated tag, or an empty {@link Mono} if there is no tag with its id.
+     */
+    Mono<Tag> update(Tag tag);
+
+    /**
+     * Updates the columns of the non-null fields of a tag, with a single statement returning the updated tag.
+     * @return the updated tag, or an empty {@link Mono} if there is no tag with its id.
+     */
+    Mono<Tag> partialUpdate(Tag tag);
+
     Flux<Tag> findAllBy(Pageable pageable);
 
     Flux<Tag> findAll();
 
+    Flux<Tag> findAllAfter(KeysetCursor cursor, int size, Sort sort);
+
+    /**
+     * Streams all the tags ordered by id, fetching them in chunks as they are consumed.
+     */
+    Flux<Tag> streamAll();
+
+    KeysetCursor cursorOf(Tag entity, Sort sort);
+
     Mono<Tag> findById(Long id);
+
+    Mono<Void> deleteById(Long id);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Tag> findAllBy(Pageable pageable, Criteria criteria);
 }
@@ -6,20 +6,22 @@ import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -32,14 +34,23 @@ class TagRepositoryInternalImpl extends SimpleR2dbcRepository<Tag, Long> impleme
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
+    private final EntityCounter entityCounter;
+    private final EntityCache entityCache;
+    private final EntityCache.Region<Tag> cacheById;
 
     private final TagRowMapper tagMapper;
 
     private static final Table entityTable = Table.aliased("tag", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
+
+    private static final String SELECT_ALL = "all";
+    private static final String SELECT_BY_ID = "byId";
 
     public TagRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
+        EntityCounter entityCounter,
+        EntityCache entityCache,
         TagRowMapper tagMapper,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
@@ -52,20 +63,48 @@ class TagRepositoryInternalImpl extends SimpleR2dbcRepository<Tag, Long> impleme
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
+        this.entityCounter = entityCounter;
+        this.entityCache = entityCache;
+        this.cacheById = entityCache.register(Tag.class, "byId", this::selectById);
         this.tagMapper = tagMapper;
     }
 
     @Override
     public Flux<Tag> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery(SELECT_ALL, pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<Tag> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = TagSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+    DatabaseClient.GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
         // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Tag.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        String select = entityManager.createSelect(shape, this::createSelectFrom, Tag.class, pageable, whereClause);
+        return entityManager.bindPaging(db.sql(select), pageable);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        return createSelectFrom(entityTable);
+    }
+
+    private SelectFromAndJoin createSelectFrom(Table table) {
+        List<Expression> columns = TagSqlHelper.getColumns(table, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(table);
+    }
+
+    @Override
+    public Flux<Tag> findAllAfter(KeysetCursor cursor, int size, Sort sort) {
+        EntityManager.Keyset keyset = entityManager.createKeyset(Tag.class, sort, cursor);
+        String select = entityManager.createSelect(SELECT_ALL, this::createSelectFrom, Tag.class, keyset, null);
+        return keyset.bind(db.sql(select), size).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Tag> streamAll() {
+        Pageable byId = Pageable.unpaged(Sort.by("id"));
+        return entityManager.fetchInChunks(createQuery(SELECT_ALL, byId, null)).map(this::process).all();
+    }
+
+    @Override
+    public KeysetCursor cursorOf(Tag entity, Sort sort) {
+        return entityManager.createCursor(entity, sort);
     }
 
     @Override
@@ -75,8 +114,11 @@ class TagRepositoryInternalImpl extends SimpleR2dbcRepository<Tag, Long> impleme
 
     @Override
     public Mono<Tag> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return cacheById.get(id);
+    }
+
+    private Mono<Tag> selectById(Long id) {
+        return createQuery(SELECT_BY_ID, null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private Tag process(Row row, RowMetadata metadata) {
@@ -86,6 +128,35 @@ class TagRepositoryInternalImpl extends SimpleR2dbcRepository<Tag, Long> impleme
 
     @Override
     public <S extends Tag> Mono<S> save(S entity) {
-        return super.save(entity);
+        if (entity.getId() == null) {
+            return super.save(entity).flatMap(e -> entityCounter.adjust(Tag.class, 1).thenReturn(e));
+        }
+        return super.save(entity).flatMap(e -> entityCache.evict(Tag.class, e.getId()).thenReturn(e));
+    }
+
+    @Override
+    public Mono<Tag> update(Tag tag) {
+        String update = entityManager.createUpdate("tag", List.of("name"), null, this::createSelectFrom);
+        return bind(db.sql(update).bind("id", tag.getId()), "name", tag.getName(), String.class)
+            .map(this::process)
+            .one()
+            .flatMap(updated -> entityCache.evict(Tag.class, updated.getId()).thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Tag> partialUpdate(Tag tag) {
+        return tag.getName() != null ? update(tag) : findById(tag.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long entityId) {
+        return r2dbcEntityTemplate
+            .delete(Query.query(Criteria.where("id").is(entityId)), Tag.class)
+            .flatMap(deleted -> entityCounter.adjust(Tag.class, -deleted))
+            .then(entityCache.evict(Tag.class, entityId));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
     }
 }
@@ -11,23 +11,36 @@ import org.springframework.stereotype.Service;
 @Service
 public class BlogRowMapper implements BiFunction<Row, String, Blog> {
 
-    private final ColumnConverter converter;
+    private final RowMappingPlans<Blog> plans;
 
     public BlogRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new RowMappingPlans<>(
+            converter,
+            columns -> {
+                ColumnReader<Long> id = columns.reader("id", Long.class);
+                ColumnReader<String> name = columns.reader("name", String.class);
+                ColumnReader<String> handle = columns.reader("handle", String.class);
+                ColumnReader<String> userId = columns.reader("user_id", String.class);
+                return row -> {
+                    Blog entity = new Blog();
+                    entity.setId(id.read(row));
+                    entity.setName(name.read(row));
+                    entity.setHandle(handle.read(row));
+                    entity.setUserId(userId.read(row));
+                    return entity;
+                };
+            }
+        );
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
+     * <p>
+     * The columns are resolved once per result, see {@link RowMappingPlans}.
      * @return the {@link Blog} stored in the database.
      */
     @Override
     public Blog apply(Row row, String prefix) {
-        Blog entity = new Blog();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
-        entity.setHandle(converter.fromRow(row, prefix + "_handle", String.class));
-        entity.setUserId(converter.fromRow(row, prefix + "_user_id", String.class));
-        return entity;
+        return plans.apply(row, prefix);
     }
 }
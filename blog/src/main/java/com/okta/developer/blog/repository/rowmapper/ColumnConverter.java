@@ -1,7 +1,11 @@
 package com.okta.developer.blog.repository.rowmapper;
 
+import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.lang.Nullable;
@@ -65,4 +69,53 @@ public class ColumnConverter implements ColumnConverterReactive {
             return convert(obj, target);
         }
     }
+
+    /**
+     * Resolve how a column is read from the rows described by the {@link RowMetadata}, so the rows can then be read by index
+     * without any lookup by name nor any exception handling.
+     * <p>
+     * The value is read directly from the driver when the column already has the target type, or converted with the
+     * {@link R2dbcCustomConversions} and the {@link ConversionService} when they can convert it, the driver codecs being used otherwise.
+     * A column which is not part of the result is read as {@code null}.
+     * @param metadata the metadata of the result.
+     * @param columnName the name of the column.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the reader of the column.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ColumnReader<T> reader(RowMetadata metadata, String columnName, Class<T> target) {
+        List<? extends ColumnMetadata> columns = metadata.getColumnMetadatas();
+        int index = -1;
+        for (int i = 0; i < columns.size() && index < 0; i++) {
+            if (columns.get(i).getName().equalsIgnoreCase(columnName)) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return row -> null;
+        }
+
+        int column = index;
+        Class<?> declaredType = columns.get(column).getJavaType();
+        if (declaredType == null) {
+            return row -> convert(row.get(column), target);
+        }
+        Class<?> javaType = ClassUtils.resolvePrimitiveIfNecessary(declaredType);
+        if (target.isAssignableFrom(javaType)) {
+            return row -> row.get(column, target);
+        }
+        if (conversions.hasCustomReadTarget(javaType, target) || conversionService.canConvert(javaType, target)) {
+            TypeDescriptor sourceType = TypeDescriptor.valueOf(javaType);
+            TypeDescriptor targetType = TypeDescriptor.valueOf(target);
+            return row -> (T) conversionService.convert(row.get(column, javaType), sourceType, targetType);
+        }
+        if (Enum.class.isAssignableFrom(target)) {
+            return row -> {
+                Object value = row.get(column);
+                return value == null ? null : (T) Enum.valueOf((Class<Enum>) target, value.toString());
+            };
+        }
+        return row -> row.get(column, target);
+    }
 }
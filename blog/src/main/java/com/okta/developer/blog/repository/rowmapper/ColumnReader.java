@@ -0,0 +1,13 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import io.r2dbc.spi.Row;
+
+/**
+ * Reads the value of one column from the rows of a result, the column index and the conversion being resolved beforehand
+ * by {@link ColumnConverter#reader(io.r2dbc.spi.RowMetadata, String, Class)}.
+ * @param <T> the type of the value.
+ */
+@FunctionalInterface
+public interface ColumnReader<T> {
+    T read(Row row);
+}
@@ -12,24 +12,40 @@ import org.springframework.stereotype.Service;
 @Service
 public class PostRowMapper implements BiFunction<Row, String, Post> {
 
-    private final ColumnConverter converter;
+    private final RowMappingPlans<Post> plans;
 
     public PostRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new RowMappingPlans<>(
+            converter,
+            columns -> {
+                ColumnReader<Long> id = columns.reader("id", Long.class);
+                ColumnReader<String> title = columns.reader("title", String.class);
+                ColumnReader<String> content = columns.reader("content", String.class);
+                ColumnReader<Instant> date = columns.reader("date", Instant.class);
+                ColumnReader<String> excerpt = columns.reader("excerpt", String.class);
+                ColumnReader<Long> blogId = columns.reader("blog_id", Long.class);
+                return row -> {
+                    Post entity = new Post();
+                    entity.setId(id.read(row));
+                    entity.setTitle(title.read(row));
+                    entity.setContent(content.read(row));
+                    entity.setDate(date.read(row));
+                    entity.setExcerpt(excerpt.read(row));
+                    entity.setBlogId(blogId.read(row));
+                    return entity;
+                };
+            }
+        );
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
+     * <p>
+     * The columns are resolved once per result, see {@link RowMappingPlans}.
      * @return the {@link Post} stored in the database.
      */
     @Override
     public Post apply(Row row, String prefix) {
-        Post entity = new Post();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setTitle(converter.fromRow(row, prefix + "_title", String.class));
-        entity.setContent(converter.fromRow(row, prefix + "_content", String.class));
-        entity.setDate(converter.fromRow(row, prefix + "_date", Instant.class));
-        entity.setBlogId(converter.fromRow(row, prefix + "_blog_id", Long.class));
-        return entity;
+        return plans.apply(row, prefix);
     }
 }
@@ -0,0 +1,47 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import com.okta.developer.blog.domain.PostSummary;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.util.function.BiFunction;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converter between {@link Row} to {@link PostSummary}, with proper type conversions.
+ */
+@Service
+public class PostSummaryRowMapper implements BiFunction<Row, String, PostSummary> {
+
+    private final RowMappingPlans<PostSummary> plans;
+
+    public PostSummaryRowMapper(ColumnConverter converter) {
+        this.plans = new RowMappingPlans<>(
+            converter,
+            columns -> {
+                ColumnReader<Long> id = columns.reader("id", Long.class);
+                ColumnReader<String> title = columns.reader("title", String.class);
+                ColumnReader<Instant> date = columns.reader("date", Instant.class);
+                ColumnReader<String> excerpt = columns.reader("excerpt", String.class);
+                return row -> {
+                    PostSummary entity = new PostSummary();
+                    entity.setId(id.read(row));
+                    entity.setTitle(title.read(row));
+                    entity.setDate(date.read(row));
+                    entity.setExcerpt(excerpt.read(row));
+                    return entity;
+                };
+            }
+        );
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * <p>
+     * The columns are resolved once per result, see {@link RowMappingPlans}.
+     * @return the {@link PostSummary} stored in the database.
+     */
+    @Override
+    public PostSummary apply(Row row, String prefix) {
+        return plans.apply(row, prefix);
+    }
+}
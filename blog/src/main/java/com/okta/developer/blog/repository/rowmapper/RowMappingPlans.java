@@ -0,0 +1,108 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Mapping plans of an entity, built once per shape of result, i.e. per column prefix, column names and column types.
+ * <p>
+ * The driver shares the same {@link RowMetadata} between all the rows of a result, so the plan is looked up for the first row
+ * of each result and the following rows are only read by index.
+ * @param <T> the type of the entity.
+ */
+public final class RowMappingPlans<T> {
+
+    private static final int MAXIMUM_PLANS = 256;
+
+    private final ColumnConverter converter;
+    private final Function<Columns, Function<Row, T>> planner;
+    private final Map<Shape, Function<Row, T>> plans = new ConcurrentHashMap<>();
+
+    private volatile Plan<T> lastPlan;
+
+    /**
+     * @param converter the converter resolving the column readers.
+     * @param planner creates the mapping of a row from the readers of its columns.
+     */
+    public RowMappingPlans(ColumnConverter converter, Function<Columns, Function<Row, T>> planner) {
+        this.converter = converter;
+        this.planner = planner;
+    }
+
+    /**
+     * Map a row with the plan of its metadata and prefix.
+     * @param row the row.
+     * @param prefix the prefix of the columns of the entity.
+     * @return the entity.
+     */
+    public T apply(Row row, String prefix) {
+        RowMetadata metadata = row.getMetadata();
+        Plan<T> plan = lastPlan;
+        if (plan == null || plan.metadata != metadata || !plan.prefix.equals(prefix)) {
+            plan = new Plan<>(metadata, prefix, getMapping(metadata, prefix));
+            lastPlan = plan;
+        }
+        return plan.mapping.apply(row);
+    }
+
+    private Function<Row, T> getMapping(RowMetadata metadata, String prefix) {
+        Shape shape = Shape.of(metadata, prefix);
+        Function<Row, T> mapping = plans.get(shape);
+        if (mapping == null) {
+            if (plans.size() >= MAXIMUM_PLANS) {
+                // the shapes come from the queries of the repositories, this only guards against unexpected dynamic queries
+                plans.clear();
+            }
+            mapping = plans.computeIfAbsent(shape, key -> planner.apply(new Columns(converter, metadata, prefix)));
+        }
+        return mapping;
+    }
+
+    /**
+     * The columns of an entity in a result.
+     */
+    public static final class Columns {
+
+        private final ColumnConverter converter;
+        private final RowMetadata metadata;
+        private final String prefix;
+
+        private Columns(ColumnConverter converter, RowMetadata metadata, String prefix) {
+            this.converter = converter;
+            this.metadata = metadata;
+            this.prefix = prefix;
+        }
+
+        /**
+         * Resolve the reader of a column of the entity.
+         * @param column the name of the column, without the prefix.
+         * @param target class.
+         * @param <C> the parameter for the intended type.
+         * @return the reader of the column.
+         */
+        public <C> ColumnReader<C> reader(String column, Class<C> target) {
+            return converter.reader(metadata, prefix + "_" + column, target);
+        }
+    }
+
+    private record Plan<T>(RowMetadata metadata, String prefix, Function<Row, T> mapping) {}
+
+    private record Shape(String prefix, List<String> names, List<Class<?>> javaTypes) {
+        static Shape of(RowMetadata metadata, String prefix) {
+            List<? extends ColumnMetadata> columns = metadata.getColumnMetadatas();
+            List<String> names = new ArrayList<>(columns.size());
+            List<Class<?>> javaTypes = new ArrayList<>(columns.size());
+            for (ColumnMetadata column : columns) {
+                names.add(column.getName());
+                javaTypes.add(column.getJavaType());
+            }
+            return new Shape(prefix, names, javaTypes);
+        }
+    }
+}
@@ -11,21 +11,32 @@ import org.springframework.stereotype.Service;
 @Service
 public class TagRowMapper implements BiFunction<Row, String, Tag> {
 
-    private final ColumnConverter converter;
+    private final RowMappingPlans<Tag> plans;
 
     public TagRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new RowMappingPlans<>(
+            converter,
+            columns -> {
+                ColumnReader<Long> id = columns.reader("id", Long.class);
+                ColumnReader<String> name = columns.reader("name", String.class);
+                return row -> {
+                    Tag entity = new Tag();
+                    entity.setId(id.read(row));
+                    entity.setName(name.read(row));
+                    return entity;
+                };
+            }
+        );
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
+     * <p>
+     * The columns are resolved once per result, see {@link RowMappingPlans}.
      * @return the {@link Tag} stored in the database.
      */
     @Override
     public Tag apply(Row row, String prefix) {
-        Tag entity = new Tag();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
-        return entity;
+        return plans.apply(row, prefix);
     }
 }
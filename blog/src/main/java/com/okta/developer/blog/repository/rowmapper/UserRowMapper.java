@@ -11,27 +11,44 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
-    private final ColumnConverter converter;
+    private final RowMappingPlans<User> plans;
 
     public UserRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new RowMappingPlans<>(
+            converter,
+            columns -> {
+                ColumnReader<String> id = columns.reader("id", String.class);
+                ColumnReader<String> login = columns.reader("login", String.class);
+                ColumnReader<String> firstName = columns.reader("first_name", String.class);
+                ColumnReader<String> lastName = columns.reader("last_name", String.class);
+                ColumnReader<String> email = columns.reader("email", String.class);
+                ColumnReader<Boolean> activated = columns.reader("activated", Boolean.class);
+                ColumnReader<String> langKey = columns.reader("lang_key", String.class);
+                ColumnReader<String> imageUrl = columns.reader("image_url", String.class);
+                return row -> {
+                    User entity = new User();
+                    entity.setId(id.read(row));
+                    entity.setLogin(login.read(row));
+                    entity.setFirstName(firstName.read(row));
+                    entity.setLastName(lastName.read(row));
+                    entity.setEmail(email.read(row));
+                    entity.setActivated(Boolean.TRUE.equals(activated.read(row)));
+                    entity.setLangKey(langKey.read(row));
+                    entity.setImageUrl(imageUrl.read(row));
+                    return entity;
+                };
+            }
+        );
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
+     * <p>
+     * The columns are resolved once per result, see {@link RowMappingPlans}.
      * @return the {@link User} stored in the database.
      */
     @Override
     public User apply(Row row, String prefix) {
-        User entity = new User();
-        entity.setId(row.get(prefix + "_id", String.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        return entity;
+        return plans.apply(row, prefix);
     }
 }
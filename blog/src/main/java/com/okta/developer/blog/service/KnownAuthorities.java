@@ -0,0 +1,114 @@
+package com.okta.developer.blog.service;
+
+import com.okta.developer.blog.domain.Authority;
+import com.okta.developer.blog.repository.AuthorityRepository;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * The names of the authorities of {@code jhi_authority}, kept in memory so the synchronization of the users with the IdP does not
+ * read the table on every login.
+ * <p>
+ * The names are loaded on first use, then updated with the authorities inserted by {@link #saveAll} once its transaction commits,
+ * so a rollback never leaves unsaved names behind. They are reloaded after {@link #evict()}, called when the authorities are
+ * changed by other means, and after {@link #TIME_TO_LIVE}, for the authorities changed by the other instances.
+ */
+@Service
+public class KnownAuthorities {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KnownAuthorities.class);
+
+    static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Set<String> names, long loadedAt) {
+        boolean isExpired() {
+            return System.nanoTime() - loadedAt > TIME_TO_LIVE.toNanos();
+        }
+    }
+
+    public KnownAuthorities(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * @return the names of the authorities.
+     */
+    public Mono<Set<String>> getNames() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return Mono.just(current.names());
+        }
+        return authorityRepository
+            .findAll()
+            .map(Authority::getName)
+            .collect(Collectors.toUnmodifiableSet())
+            .doOnNext(names -> snapshot = new Snapshot(names, System.nanoTime()));
+    }
+
+    /**
+     * Inserts the authorities which are not known yet, with a single statement.
+     *
+     * @param names the names of the authorities.
+     * @return a completed {@link Mono}.
+     */
+    public Mono<Void> saveAll(Collection<String> names) {
+        return getNames()
+            .flatMap(known -> {
+                List<String> missing = names.stream().filter(name -> !known.contains(name)).toList();
+                if (missing.isEmpty()) {
+                    return Mono.empty();
+                }
+                LOG.debug("Saving authorities {} in local database", missing);
+                return authorityRepository.insertAll(missing).then(addAfterCommit(missing));
+            });
+    }
+
+    private Mono<Void> addAfterCommit(Collection<String> names) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> add(names));
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(() -> add(names)))
+            .then();
+    }
+
+    private synchronized void add(Collection<String> names) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            Set<String> updated = new HashSet<>(current.names());
+            updated.addAll(names);
+            snapshot = new Snapshot(Set.copyOf(updated), current.loadedAt());
+        }
+    }
+
+    /**
+     * Reloads the names on next use, when the authorities are changed by other means than {@link #saveAll}.
+     */
+    public void evict() {
+        snapshot = null;
+    }
+}
@@ -35,9 +35,12 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository) {
+    private final KnownAuthorities knownAuthorities;
+
+    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, KnownAuthorities knownAuthorities) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
+        this.knownAuthorities = knownAuthorities;
     }
 
     /**
@@ -53,7 +56,8 @@ public class UserService {
     @Transactional
     public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
         return SecurityUtils.getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
+            // with its authorities, which are saved with it
+            .flatMap(userRepository::findOneWithAuthoritiesByLogin)
             .flatMap(user -> {
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
@@ -73,8 +77,24 @@ public class UserService {
         return saveUser(user, false);
     }
 
+    /**
+     * Saves a user and its authorities: the authorities it has in the database and not in {@link User#getAuthorities()} are
+     * deleted, the missing ones inserted, each with a single statement.
+     *
+     * @param user the user.
+     * @param forceCreate whether the user is inserted, although it has an id.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user, boolean forceCreate) {
+        return saveUser(
+            user,
+            forceCreate,
+            forceCreate ? Mono.just(Set.of()) : userRepository.findAuthorityNamesByUserId(user.getId()).collect(Collectors.toSet())
+        );
+    }
+
+    private Mono<User> saveUser(User user, boolean forceCreate, Mono<Set<String>> currentAuthorities) {
         return SecurityUtils.getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
             .flatMap(login -> {
@@ -90,14 +110,26 @@ public class UserService {
                 } else {
                     persistedUser = userRepository.save(user);
                 }
+                Set<String> authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
                 return persistedUser.flatMap(savedUser ->
-                    Flux.fromIterable(user.getAuthorities())
-                        .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
+                    currentAuthorities
+                        .flatMap(current -> saveUserAuthorities(savedUser.getId(), authorities, current))
                         .then(Mono.just(savedUser))
                 );
             });
     }
 
+    private Mono<Void> saveUserAuthorities(String userId, Set<String> authorities, Set<String> existing) {
+        Mono<Void> deleted = Mono.empty();
+        if (!authorities.containsAll(existing)) {
+            deleted = authorities.isEmpty()
+                ? userRepository.deleteUserAuthorities(userId)
+                : userRepository.deleteUserAuthoritiesNotIn(userId, authorities);
+        }
+        List<String> missing = authorities.stream().filter(authority -> !existing.contains(authority)).toList();
+        return missing.isEmpty() ? deleted : deleted.then(userRepository.saveUserAuthorities(userId, missing));
+    }
+
     @Transactional(readOnly = true)
     public Flux<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
         return userRepository.findAllWithAuthorities(pageable).map(AdminUserDTO::new);
@@ -129,49 +161,55 @@ public class UserService {
 
     private Mono<User> syncUserWithIdP(Map<String, Object> details, User user) {
         // save authorities in to sync user roles/groups between IdP and JHipster's local database
-        Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).toList();
+        Set<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
 
-        return getAuthorities()
-            .collectList()
-            .flatMapMany(dbAuthorities -> {
-                List<Authority> authoritiesToSave = userAuthorities
-                    .stream()
-                    .filter(authority -> !dbAuthorities.contains(authority))
-                    .map(authority -> {
-                        Authority authorityToSave = new Authority();
-                        authorityToSave.setName(authority);
-                        return authorityToSave;
-                    })
-                    .toList();
-                return Flux.fromIterable(authoritiesToSave);
-            })
-            .doOnNext(authority -> LOG.debug("Saving authority '{}' in local database", authority))
-            .flatMap(authorityRepository::save)
-            .then(userRepository.findOneByLogin(user.getLogin()))
-            .switchIfEmpty(saveUser(user, true))
+        return knownAuthorities
+            .saveAll(userAuthorities)
+            // the existing user is read once, with its authorities, which are synchronized with a single diff
+            .then(userRepository.findOneWithAuthoritiesByLogin(user.getLogin()))
             .flatMap(existingUser -> {
-                // if IdP sends last updated information, use it to determine if an update should happen
-                if (details.get("updated_at") != null) {
-                    Instant dbModifiedDate = existingUser.getLastModifiedDate();
-                    Instant idpModifiedDate;
-                    if (details.get("updated_at") instanceof Instant) {
-                        idpModifiedDate = (Instant) details.get("updated_at");
-                    } else {
-                        idpModifiedDate = Instant.ofEpochSecond((Integer) details.get("updated_at"));
-                    }
-                    if (idpModifiedDate.isAfter(dbModifiedDate)) {
-                        LOG.debug("Updating user '{}' in local database", user.getLogin());
-                        return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
-                    }
-                } else {
-                    LOG.debug("Updating user '{}' in local database", user.getLogin());
-                    return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
+                Set<String> existingAuthorities = existingUser
+                    .getAuthorities()
+                    .stream()
+                    .map(Authority::getName)
+                    .collect(Collectors.toSet());
+                if (!isUpdatedByIdP(details, existingUser)) {
+                    return saveUserAuthorities(existingUser.getId(), userAuthorities, existingAuthorities).thenReturn(existingUser);
                 }
-                return Mono.empty();
+                LOG.debug("Updating user '{}' in local database", user.getLogin());
+                existingUser.setFirstName(user.getFirstName());
+                existingUser.setLastName(user.getLastName());
+                if (user.getEmail() != null) {
+                    existingUser.setEmail(user.getEmail().toLowerCase());
+                }
+                existingUser.setLangKey(user.getLangKey());
+                existingUser.setImageUrl(user.getImageUrl());
+                existingUser.setAuthorities(user.getAuthorities());
+                return saveUser(existingUser, false, Mono.just(existingAuthorities));
             })
+            // a new user is saved with its authorities
+            .switchIfEmpty(Mono.defer(() -> saveUser(user, true)))
             .thenReturn(user);
     }
 
+    /**
+     * @return whether the user was updated in the IdP since it was saved, always if the IdP does not send when it was updated.
+     */
+    private static boolean isUpdatedByIdP(Map<String, Object> details, User existingUser) {
+        // if IdP sends last updated information, use it to determine if an update should happen
+        if (details.get("updated_at") == null) {
+            return true;
+        }
+        Instant dbModifiedDate = existingUser.getLastModifiedDate();
+        Instant idpModifiedDate;
+        if (details.get("updated_at") instanceof Instant) {
+            idpModifiedDate = (Instant) details.get("updated_at");
+        } else {
+            idpModifiedDate = Instant.ofEpochSecond((Integer) details.get("updated_at"));
+        }
+        return idpModifiedDate.isAfter(dbModifiedDate);
+    }
+
     /**
      * Returns the user from an OAuth 2.0 login or resource server with JWT.
      * Synchronizes the user in the local repository.
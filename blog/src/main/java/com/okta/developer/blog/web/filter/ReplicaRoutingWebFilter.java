@@ -0,0 +1,55 @@
+package com.okta.developer.blog.web.filter;
+
+import com.okta.developer.blog.repository.ReplicaRoutingConnectionFactory;
+import com.okta.developer.blog.repository.ReplicaRoutingConnectionFactory.Target;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lets the GET requests of the API read from the replica, unless their user wrote during the sticky window, and starts this window
+ * with the other requests of the API.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.database.replica", name = "url")
+public class ReplicaRoutingWebFilter implements WebFilter {
+
+    private static final Set<HttpMethod> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+    private final ReplicaRoutingConnectionFactory connectionFactory;
+
+    public ReplicaRoutingWebFilter(ReplicaRoutingConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getURI().getPath().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        boolean read = READ_METHODS.contains(exchange.getRequest().getMethod());
+        return ReactiveSecurityContextHolder.getContext()
+            .mapNotNull(SecurityContext::getAuthentication)
+            .map(Authentication::getName)
+            .defaultIfEmpty("")
+            .flatMap(user -> {
+                if (!read) {
+                    return chain.filter(exchange).doFinally(signal -> {
+                        if (!user.isEmpty()) {
+                            connectionFactory.wrote(user);
+                        }
+                    });
+                }
+                Target target = !user.isEmpty() && connectionFactory.isSticky(user) ? Target.PRIMARY : Target.REPLICA;
+                return chain.filter(exchange).contextWrite(ReplicaRoutingConnectionFactory.withTarget(target));
+            });
+    }
+}
@@ -2,6 +2,7 @@ package com.okta.developer.blog.web.rest;
 
 import com.okta.developer.blog.domain.Blog;
 import com.okta.developer.blog.repository.BlogRepository;
+import com.okta.developer.blog.repository.KeysetCursor;
 import com.okta.developer.blog.repository.UserRepository;
 import com.okta.developer.blog.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
@@ -10,14 +11,21 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -34,6 +42,8 @@ public class BlogResource {
 
     private static final String ENTITY_NAME = "blogBlog";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("id", "name", "handle");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -85,6 +95,7 @@ public class BlogResource {
      * @param blog the blog to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated blog,
      * or with status {@code 400 (Bad Request)} if the blog is not valid,
+     * or with status {@code 404 (Not Found)} if the blog is not found,
      * or with status {@code 500 (Internal Server Error)} if the blog couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -101,27 +112,19 @@ public class BlogResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return blogRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                if (blog.getUser() != null) {
-                    // Save user in case it's new and only exists in gateway
-                    userRepository.save(blog.getUser());
-                }
+        if (blog.getUser() != null) {
+            // Save user in case it's new and only exists in gateway
+            userRepository.save(blog.getUser());
+        }
 
-                return blogRepository
-                    .save(blog)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+        return blogRepository
+            .update(blog)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -148,40 +151,19 @@ public class BlogResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return blogRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                if (blog.getUser() != null) {
-                    // Save user in case it's new and only exists in gateway
-                    userRepository.save(blog.getUser());
-                }
+        if (blog.getUser() != null) {
+            // Save user in case it's new and only exists in gateway
+            userRepository.save(blog.getUser());
+        }
 
-                Mono<Blog> result = blogRepository
-                    .findById(blog.getId())
-                    .map(existingBlog -> {
-                        if (blog.getName() != null) {
-                            existingBlog.setName(blog.getName());
-                        }
-                        if (blog.getHandle() != null) {
-                            existingBlog.setHandle(blog.getHandle());
-                        }
-
-                        return existingBlog;
-                    })
-                    .flatMap(blogRepository::save);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        return blogRepository
+            .partialUpdate(blog)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -201,13 +183,63 @@ public class BlogResource {
     }
 
     /**
-     * {@code GET  /blogs} : get all the blogs as a stream.
+     * {@code GET  /blogs} : get all the blogs as a stream, read from the database as the client consumes them.
      * @return the {@link Flux} of blogs.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
     public Flux<Blog> getAllBlogsAsStream() {
         LOG.debug("REST request to get all Blogs as a stream");
-        return blogRepository.findAll();
+        return blogRepository.streamAll();
+    }
+
+    /**
+     * {@code GET  /blogs} : export all the blogs as CSV, read from the database as the client consumes them.
+     * @param response a {@link ServerHttpResponse} response, whose content type and disposition are set.
+     * @return the {@link Flux} of the rows of the blogs.
+     */
+    @GetMapping(value = "", produces = CsvExportUtil.TEXT_CSV_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<String> exportBlogs(ServerHttpResponse response) {
+        LOG.debug("REST request to export all Blogs");
+        return CsvExportUtil.export(
+            response,
+            "blogs.csv",
+            new String[] { "id", "name", "handle", "userId" },
+            blogRepository.streamAll().map(blog -> CsvExportUtil.row(blog.getId(), blog.getName(), blog.getHandle(), blog.getUserId()))
+        );
+    }
+
+    /**
+     * {@code GET  /blogs?cursor=} : get a page of blogs with keyset pagination.
+     *
+     * @param cursor the cursor returned in the {@code Link} header of the previous page, empty for the first page.
+     * @param pageable the size and sort of the page, the page number is ignored.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of blogs in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Blog>>> getAllBlogsAfter(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a keyset page of Blogs");
+        Sort sort = KeysetPaginationUtil.checkSort(pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+        KeysetCursor after = KeysetPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        return Flux.defer(() -> blogRepository.findAllAfter(after, pageable.getPageSize(), sort))
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"))
+            .collectList()
+            .map(blogs ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            blogs.size() < pageable.getPageSize() ? null : blogRepository.cursorOf(blogs.get(blogs.size() - 1), sort)
+                        )
+                    )
+                    .body(blogs)
+            );
     }
 
     /**
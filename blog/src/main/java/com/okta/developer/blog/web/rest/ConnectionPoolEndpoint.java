@@ -0,0 +1,74 @@
+package com.okta.developer.blog.web.rest;
+
+import com.okta.developer.blog.repository.InstrumentedConnectionFactory;
+import io.r2dbc.pool.PoolMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint {@code /management/connections} showing the state of the connection pools, by name, and the current holders
+ * of their connections, the longest held first, with the call site of the sampled ones.
+ */
+@Component
+@Endpoint(id = "connections")
+public class ConnectionPoolEndpoint {
+
+    private final Map<String, InstrumentedConnectionFactory> connectionFactories;
+
+    public ConnectionPoolEndpoint(Map<String, InstrumentedConnectionFactory> connectionFactories) {
+        this.connectionFactories = connectionFactories;
+    }
+
+    @ReadOperation
+    public Map<String, ConnectionPoolDescriptor> connections() {
+        Map<String, ConnectionPoolDescriptor> pools = new TreeMap<>();
+        connectionFactories.forEach((name, connectionFactory) -> pools.put(name, describe(connectionFactory)));
+        return pools;
+    }
+
+    private ConnectionPoolDescriptor describe(InstrumentedConnectionFactory connectionFactory) {
+        List<HolderDescriptor> holders = connectionFactory
+            .getHolders()
+            .stream()
+            .sorted(Comparator.comparing(InstrumentedConnectionFactory.Holder::acquiredNanos))
+            .map(HolderDescriptor::new)
+            .toList();
+        return connectionFactory
+            .getMetrics()
+            .map(metrics -> new ConnectionPoolDescriptor(metrics, holders))
+            .orElseGet(() -> new ConnectionPoolDescriptor(0, 0, 0, 0, 0, holders));
+    }
+
+    public record ConnectionPoolDescriptor(
+        int acquired,
+        int allocated,
+        int idle,
+        int pending,
+        int maxAllocated,
+        List<HolderDescriptor> holders
+    ) {
+        ConnectionPoolDescriptor(PoolMetrics metrics, List<HolderDescriptor> holders) {
+            this(
+                metrics.acquiredSize(),
+                metrics.allocatedSize(),
+                metrics.idleSize(),
+                metrics.pendingAcquireSize(),
+                metrics.getMaxAllocatedSize(),
+                holders
+            );
+        }
+    }
+
+    public record HolderDescriptor(long id, Instant acquiredAt, Duration heldFor, String thread, String callSite) {
+        HolderDescriptor(InstrumentedConnectionFactory.Holder holder) {
+            this(holder.id(), holder.acquiredAt(), holder.getHeldFor(), holder.thread(), holder.callSite());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.okta.developer.blog.web.rest;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for the CSV exports, whose rows are written as they are read from the database.
+ */
+final class CsvExportUtil {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final MediaType TEXT_CSV_UTF8 = MediaType.parseMediaType(TEXT_CSV_VALUE + ";charset=UTF-8");
+
+    private CsvExportUtil() {}
+
+    /**
+     * Generate the body of a CSV export, and set its headers on the response.
+     * <p>
+     * The body is returned as a {@link Flux}, not wrapped in a {@code ResponseEntity}, so the {@code @Transactional} export methods
+     * keep a reactive return type and their transaction spans the reading of the rows.
+     * @param response the response, whose content type and disposition are set.
+     * @param filename the name of the file suggested to the client.
+     * @param header the names of the columns.
+     * @param rows the rows, created by {@link #row(Object...)}.
+     * @return the {@link Flux} streaming the header then the rows.
+     */
+    static Flux<String> export(ServerHttpResponse response, String filename, String[] header, Flux<String> rows) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        headers.setContentType(TEXT_CSV_UTF8);
+        return Flux.just(row((Object[]) header)).concatWith(rows);
+    }
+
+    /**
+     * Format a row as defined by RFC 4180, null values being empty fields.
+     * @param values the values of the row.
+     * @return the row, ended by a CRLF.
+     */
+    static String row(Object... values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            if (values[i] != null) {
+                appendField(row, values[i].toString());
+            }
+        }
+        return row.append("\r\n").toString();
+    }
+
+    private static void appendField(StringBuilder row, String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quoted) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+}
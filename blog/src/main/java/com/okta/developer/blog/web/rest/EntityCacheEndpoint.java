@@ -0,0 +1,84 @@
+package com.okta.developer.blog.web.rest;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.okta.developer.blog.repository.EntityCache;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint {@code /management/entitycache} to inspect and flush the regions of the {@link EntityCache}.
+ */
+@Component
+@Endpoint(id = "entitycache")
+public class EntityCacheEndpoint {
+
+    private final EntityCache entityCache;
+
+    public EntityCacheEndpoint(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    @ReadOperation
+    public List<RegionDescriptor> regions() {
+        return entityCache.getRegions().stream().map(RegionDescriptor::new).sorted(Comparator.comparing(RegionDescriptor::name)).toList();
+    }
+
+    @ReadOperation
+    public RegionDescriptor region(@Selector String name) {
+        EntityCache.Region<?> region = entityCache.getRegion(name);
+        return region != null ? new RegionDescriptor(region) : null;
+    }
+
+    @DeleteOperation
+    public void flush() {
+        entityCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public boolean flush(@Selector String name) {
+        EntityCache.Region<?> region = entityCache.getRegion(name);
+        if (region == null) {
+            return false;
+        }
+        region.invalidateAll();
+        return true;
+    }
+
+    public record RegionDescriptor(
+        String name,
+        boolean enabled,
+        long size,
+        Long maximumSize,
+        Duration timeToLive,
+        Duration refreshAfter,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate
+    ) {
+        RegionDescriptor(EntityCache.Region<?> region) {
+            this(region, region.getStats());
+        }
+
+        private RegionDescriptor(EntityCache.Region<?> region, CacheStats stats) {
+            this(
+                region.getName(),
+                region.isEnabled(),
+                region.getSize(),
+                region.getMaximumSize(),
+                region.getTimeToLive(),
+                region.getRefreshAfter(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate()
+            );
+        }
+    }
+}
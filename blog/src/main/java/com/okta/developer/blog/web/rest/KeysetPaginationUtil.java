@@ -0,0 +1,77 @@
+package com.okta.developer.blog.web.rest;
+
+import com.okta.developer.blog.repository.KeysetCursor;
+import com.okta.developer.blog.web.rest.errors.BadRequestAlertException;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * The position is exchanged through the opaque {@code cursor} query parameter, and the next page is linked from the {@code Link} header,
+ * the same way {@link tech.jhipster.web.util.PaginationUtil} does for offset pagination.
+ */
+final class KeysetPaginationUtil {
+
+    static final String CURSOR_PARAM = "cursor";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a keyset page.
+     * @param uriBuilder the builder of the current request URI.
+     * @param next the cursor of the next page, or null if this is the last page.
+     * @return the {@link HttpHeaders}.
+     */
+    static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetCursor next) {
+        HttpHeaders headers = new HttpHeaders();
+        StringBuilder link = new StringBuilder();
+        if (next != null) {
+            link.append(prepareLink(uriBuilder, next.encode(), "next")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, "", "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Decode the cursor sent by the client.
+     * @param cursor the cursor token, empty for the first page.
+     * @param entityName the name of the paginated entity.
+     * @return the decoded cursor, or null for the first page.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    static KeysetCursor decodeCursor(String cursor, String entityName) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Check that the sort only uses properties which can be used for keyset pagination, i.e. non-nullable columns of the entity.
+     * @param sort the requested sort.
+     * @param allowedProperties the properties which can be used.
+     * @param entityName the name of the paginated entity.
+     * @return the sort.
+     * @throws BadRequestAlertException if the sort uses any other property.
+     */
+    static Sort checkSort(Sort sort, Set<String> allowedProperties, String entityName) {
+        for (Sort.Order order : sort) {
+            if (!allowedProperties.contains(order.getProperty())) {
+                throw new BadRequestAlertException("Invalid sort for keyset pagination", entityName, "sortinvalid");
+            }
+        }
+        return sort;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, String cursor, String relType) {
+        String link = uriBuilder.replaceQueryParam(CURSOR_PARAM, cursor).replaceQueryParam("page").toUriString();
+        return String.format(HEADER_LINK_FORMAT, link, relType);
+    }
+}
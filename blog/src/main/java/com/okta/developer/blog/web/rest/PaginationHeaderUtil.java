@@ -0,0 +1,62 @@
+package com.okta.developer.blog.web.rest;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for the headers of offset paginated lists whose total count may not be computed.
+ */
+final class PaginationHeaderUtil {
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private PaginationHeaderUtil() {}
+
+    /**
+     * Generate the pagination headers of a page.
+     * <p>
+     * With a total count, the headers are the ones of {@link PaginationUtil}. Without it, there is neither {@code X-Total-Count}
+     * nor link to the last page, and the next page is linked when the page is full.
+     * @param uriBuilder the builder of the current request URI.
+     * @param pageable the pagination information.
+     * @param content the content of the page.
+     * @param total the total count of the entities, if it is computed.
+     * @return the {@link HttpHeaders}.
+     */
+    static HttpHeaders generatePaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Pageable pageable,
+        List<?> content,
+        Optional<Long> total
+    ) {
+        if (total.isPresent()) {
+            return PaginationUtil.generatePaginationHttpHeaders(uriBuilder, new PageImpl<>(content, pageable, total.orElseThrow()));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (pageable.isUnpaged()) {
+            return headers;
+        }
+        int pageNumber = pageable.getPageNumber();
+        int pageSize = pageable.getPageSize();
+        StringBuilder link = new StringBuilder();
+        if (content.size() >= pageSize) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+        }
+        if (pageNumber > 0) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String link = uriBuilder.replaceQueryParam("page", pageNumber).replaceQueryParam("size", pageSize).toUriString();
+        return String.format(HEADER_LINK_FORMAT, link, relType);
+    }
+}
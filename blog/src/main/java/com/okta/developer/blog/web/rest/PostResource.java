@@ -1,30 +1,49 @@
 package com.okta.developer.blog.web.rest;
 
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.config.ApplicationProperties.Counts.Mode;
 import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import com.okta.developer.blog.repository.EntityCounter;
+import com.okta.developer.blog.repository.KeysetCursor;
 import com.okta.developer.blog.repository.PostRepository;
 import com.okta.developer.blog.web.rest.errors.BadRequestAlertException;
+import com.okta.developer.blog.web.rest.vm.PostImportBatchVM;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.ForwardedHeaderUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -39,13 +58,42 @@ public class PostResource {
 
     private static final String ENTITY_NAME = "blogPost";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("id", "title", "date");
+
+    private static final String SUMMARY_VIEW = "view=summary";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PostRepository postRepository;
 
-    public PostResource(PostRepository postRepository) {
+    private final EntityCounter entityCounter;
+
+    private final Mode countMode;
+
+    private final Validator validator;
+
+    private final TransactionalOperator batchTransaction;
+
+    private final int bulkBatchSize;
+
+    public PostResource(
+        PostRepository postRepository,
+        EntityCounter entityCounter,
+        ApplicationProperties applicationProperties,
+        Validator validator,
+        ReactiveTransactionManager transactionManager
+    ) {
         this.postRepository = postRepository;
+        this.entityCounter = entityCounter;
+        this.countMode = applicationProperties.getCounts().getEndpointMode("posts");
+        entityCounter.track(Post.class, countMode);
+        this.validator = validator;
+        this.batchTransaction = TransactionalOperator.create(
+            transactionManager,
+            new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+        );
+        this.bulkBatchSize = Math.max(1, applicationProperties.getBulk().getBatchSize());
     }
 
     /**
@@ -74,6 +122,73 @@ public class PostResource {
             });
     }
 
+    /**
+     * {@code POST  /posts/bulk} : Import a stream of new posts.
+     * <p>
+     * The posts are validated one by one, then inserted in batches, each with its own transaction, so a failed batch does not
+     * roll back the batches before it.
+     *
+     * @param posts the posts to create, one JSON object per line.
+     * @return the {@link Flux} of the outcome of each batch, with the ids of its inserted posts and its rejected posts.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<PostImportBatchVM> importPosts(@RequestBody Flux<Post> posts) {
+        LOG.debug("REST request to import Posts");
+        return posts
+            .index()
+            .buffer(bulkBatchSize)
+            .index()
+            .concatMap(batch -> importBatch(batch.getT1(), batch.getT2()));
+    }
+
+    private Mono<PostImportBatchVM> importBatch(long batchIndex, List<Tuple2<Long, Post>> batch) {
+        PostImportBatchVM result = new PostImportBatchVM();
+        result.setBatch(batchIndex);
+        result.setFirstIndex(batch.get(0).getT1());
+        result.setReceived(batch.size());
+        List<Post> valid = new ArrayList<>(batch.size());
+        for (Tuple2<Long, Post> element : batch) {
+            List<String> messages = validate(element.getT2());
+            if (messages.isEmpty()) {
+                valid.add(element.getT2());
+            } else {
+                result.getRejected().add(new PostImportBatchVM.Rejection(element.getT1(), messages));
+            }
+        }
+        if (valid.isEmpty()) {
+            return Mono.just(result);
+        }
+        return postRepository
+            .insertAll(valid)
+            .map(Post::getId)
+            .collectList()
+            .as(batchTransaction::transactional)
+            .map(ids -> {
+                result.setIds(ids);
+                return result;
+            })
+            .onErrorResume(DataAccessException.class, e -> {
+                LOG.warn("Batch {} of the import of Posts was rolled back: {}", batchIndex, e.getMessage());
+                result.setError(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return Mono.just(result);
+            });
+    }
+
+    private List<String> validate(Post post) {
+        List<String> messages = new ArrayList<>();
+        if (post.getId() != null) {
+            messages.add("A new post cannot already have an ID");
+        }
+        for (ConstraintViolation<Post> violation : validator.validate(post)) {
+            messages.add(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        if (post.getTags().stream().anyMatch(tag -> tag.getId() == null)) {
+            messages.add("tags must reference existing tags by id");
+        }
+        return messages;
+    }
+
     /**
      * {@code PUT  /posts/:id} : Updates an existing post.
      *
@@ -81,6 +196,7 @@ public class PostResource {
      * @param post the post to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated post,
      * or with status {@code 400 (Bad Request)} if the post is not valid,
+     * or with status {@code 404 (Not Found)} if the post is not found,
      * or with status {@code 500 (Internal Server Error)} if the post couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -98,21 +214,13 @@ public class PostResource {
         }
 
         return postRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return postRepository
-                    .save(post)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+            .update(post)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -140,37 +248,13 @@ public class PostResource {
         }
 
         return postRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Post> result = postRepository
-                    .findById(post.getId())
-                    .map(existingPost -> {
-                        if (post.getTitle() != null) {
-                            existingPost.setTitle(post.getTitle());
-                        }
-                        if (post.getContent() != null) {
-                            existingPost.setContent(post.getContent());
-                        }
-                        if (post.getDate() != null) {
-                            existingPost.setDate(post.getDate());
-                        }
-
-                        return existingPost;
-                    })
-                    .flatMap(postRepository::save);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .partialUpdate(post)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -182,27 +266,197 @@ public class PostResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<List<Post>>> getAllPosts(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         ServerHttpRequest request,
         @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
     ) {
         LOG.debug("REST request to get a page of Posts");
-        return postRepository
-            .count()
-            .zipWith(postRepository.findAllBy(pageable).collectList())
+        Flux<Post> posts = eagerload ? postRepository.findAllWithEagerRelationships(pageable) : postRepository.findAllBy(pageable);
+        return entityCounter
+            .count(Post.class, countMode)
+            .zipWith(posts.collectList())
             .map(countWithEntities ->
                 ResponseEntity.ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /posts} : get all the posts as a stream, read from the database as the client consumes them.
+     * @return the {@link Flux} of posts, without their tags.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<Post> getAllPostsAsStream() {
+        LOG.debug("REST request to get all Posts as a stream");
+        return postRepository.streamAll();
+    }
+
+    /**
+     * {@code GET  /posts} : export all the posts as CSV, read from the database as the client consumes them.
+     * @param response a {@link ServerHttpResponse} response, whose content type and disposition are set.
+     * @return the {@link Flux} of the rows of the posts.
+     */
+    @GetMapping(value = "", produces = CsvExportUtil.TEXT_CSV_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<String> exportPosts(ServerHttpResponse response) {
+        LOG.debug("REST request to export all Posts");
+        return CsvExportUtil.export(
+            response,
+            "posts.csv",
+            new String[] { "id", "title", "content", "date", "blogId" },
+            postRepository
+                .streamAll()
+                .map(post -> CsvExportUtil.row(post.getId(), post.getTitle(), post.getContent(), post.getDate(), post.getBlogId()))
+        );
+    }
+
+    /**
+     * {@code GET  /posts?cursor=} : get a page of posts with keyset pagination.
+     *
+     * @param cursor the cursor returned in the {@code Link} header of the previous page, empty for the first page.
+     * @param pageable the size and sort of the page, the page number is ignored.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<Post>>> getAllPostsAfter(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a keyset page of Posts");
+        Sort sort = KeysetPaginationUtil.checkSort(pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+        KeysetCursor after = KeysetPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        return Flux.defer(() -> postRepository.findAllAfter(after, pageable.getPageSize(), sort))
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"))
+            .collectList()
+            .map(posts ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            posts.size() < pageable.getPageSize() ? null : postRepository.cursorOf(posts.get(posts.size() - 1), sort)
+                        )
+                    )
+                    .body(posts)
+            );
+    }
+
+    /**
+     * {@code GET  /posts?view=summary} : get a page of summaries of the posts, without their content.
+     *
+     * @param pageable the pagination information.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of post summaries in body.
+     */
+    @GetMapping(value = "", params = { SUMMARY_VIEW, "!" + KeysetPaginationUtil.CURSOR_PARAM }, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<PostSummary>>> getAllPostSummaries(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a page of Post summaries");
+        return entityCounter
+            .count(Post.class, countMode)
+            .zipWith(postRepository.findAllSummariesBy(pageable).collectList())
+            .map(countWithSummaries ->
+                ResponseEntity.ok()
+                    .headers(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            pageable,
+                            countWithSummaries.getT2(),
+                            countWithSummaries.getT1()
+                        )
+                    )
+                    .body(countWithSummaries.getT2())
+            );
+    }
+
+    /**
+     * {@code GET  /posts?view=summary&cursor=} : get a page of summaries of the posts with keyset pagination.
+     *
+     * @param cursor the cursor returned in the {@code Link} header of the previous page, empty for the first page.
+     * @param pageable the size and sort of the page, the page number is ignored.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of post summaries in body.
+     */
+    @GetMapping(value = "", params = { SUMMARY_VIEW, KeysetPaginationUtil.CURSOR_PARAM }, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<PostSummary>>> getAllPostSummariesAfter(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a keyset page of Post summaries");
+        Sort sort = KeysetPaginationUtil.checkSort(pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+        KeysetCursor after = KeysetPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        return Flux.defer(() -> postRepository.findAllSummariesAfter(after, pageable.getPageSize(), sort))
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"))
+            .collectList()
+            .map(summaries ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            summaries.size() < pageable.getPageSize()
+                                ? null
+                                : postRepository.cursorOf(summaries.get(summaries.size() - 1), sort)
+                        )
+                    )
+                    .body(summaries)
+            );
+    }
+
+    /**
+     * {@code GET  /posts/_search?q=} : search the posts whose title or content match the query.
+     *
+     * @param query the words to search.
+     * @param cursor the cursor returned in the {@code Link} header of the previous page, empty for the first page.
+     * @param pageable the size of the page, the hits are ordered by decreasing rank.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the summaries of the matching posts in body.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<PostSummary>>> searchPosts(
+        @RequestParam("q") String query,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to search Posts for query : {}", query);
+        if (query.isBlank()) {
+            throw new BadRequestAlertException("Empty query", ENTITY_NAME, "queryempty");
+        }
+        KeysetCursor after = KeysetPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        return Flux.defer(() -> postRepository.search(query, after, pageable.getPageSize()))
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"))
+            .collectList()
+            .map(hits ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            hits.size() < pageable.getPageSize() ? null : postRepository.searchCursorOf(hits.get(hits.size() - 1))
+                        )
+                    )
+                    .body(hits)
+            );
+    }
+
     /**
      * {@code GET  /posts/:id} : get the "id" post.
      *
@@ -210,6 +464,7 @@ public class PostResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the post, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<Post>> getPost(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Post : {}", id);
         Mono<Post> post = postRepository.findOneWithEagerRelationships(id);
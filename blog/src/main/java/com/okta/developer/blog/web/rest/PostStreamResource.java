@@ -0,0 +1,70 @@
+package com.okta.developer.blog.web.rest;
+
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.repository.PostChangeFeed;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller streaming the changes of the {@link com.okta.developer.blog.domain.Post}s as server-sent events.
+ * <p>
+ * It is not transactional, unlike {@link PostResource}, as a stream would hold its transaction and connection until the client leaves.
+ */
+@RestController
+@RequestMapping("/api/posts")
+public class PostStreamResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostStreamResource.class);
+
+    private final PostChangeFeed changeFeed;
+
+    private final Duration heartbeatInterval;
+
+    public PostStreamResource(PostChangeFeed changeFeed, ApplicationProperties applicationProperties) {
+        this.changeFeed = changeFeed;
+        this.heartbeatInterval = applicationProperties.getPostStream().getHeartbeatInterval();
+    }
+
+    /**
+     * {@code GET  /posts/stream} : stream the changes of the posts.
+     * <p>
+     * Each change is an event named after its type ({@code created}, {@code updated} or {@code deleted}), whose data is the summary of
+     * the post, or its id for a deletion. A {@code reset} event means that the changes missed since the {@code Last-Event-ID} cannot be
+     * replayed and the posts must be reloaded. Comments are sent as heartbeats while there is no change.
+     * <p>
+     * The changes made on every instance of the application are streamed, but only the instance which sent an event can replay the
+     * changes after it: a client reconnecting to another instance, e.g. behind a load balancer without sticky sessions, gets a
+     * {@code reset} event.
+     *
+     * @param lastEventId the id of the last event received, sent by the browsers when they reconnect.
+     * @return the {@link Flux} of the events.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamPosts(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        LOG.debug("REST request to stream the changes of the Posts after : {}", lastEventId);
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(heartbeatInterval)
+            .onBackpressureDrop()
+            .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        return changeFeed.changes(lastEventId).map(PostStreamResource::eventOf).mergeWith(heartbeats);
+    }
+
+    private static ServerSentEvent<Object> eventOf(PostChangeFeed.Change change) {
+        Object data = switch (change.type()) {
+            case CREATED, UPDATED -> change.post();
+            case DELETED -> Map.of("id", change.postId());
+            // the browsers ignore the events without data
+            case RESET -> Map.of();
+        };
+        return ServerSentEvent.builder(data).id(change.id()).event(change.type().name().toLowerCase(Locale.ROOT)).build();
+    }
+}
@@ -1,6 +1,12 @@
 package com.okta.developer.blog.web.rest;
 
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.config.ApplicationProperties.Counts.Mode;
+import com.okta.developer.blog.domain.Post;
 import com.okta.developer.blog.domain.Tag;
+import com.okta.developer.blog.repository.EntityCounter;
+import com.okta.developer.blog.repository.KeysetCursor;
+import com.okta.developer.blog.repository.PostRepository;
 import com.okta.developer.blog.repository.TagRepository;
 import com.okta.developer.blog.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
@@ -9,22 +15,24 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.ForwardedHeaderUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -39,13 +47,30 @@ public class TagResource {
 
     private static final String ENTITY_NAME = "blogTag";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("id", "name");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final TagRepository tagRepository;
 
-    public TagResource(TagRepository tagRepository) {
+    private final PostRepository postRepository;
+
+    private final EntityCounter entityCounter;
+
+    private final Mode countMode;
+
+    public TagResource(
+        TagRepository tagRepository,
+        PostRepository postRepository,
+        EntityCounter entityCounter,
+        ApplicationProperties applicationProperties
+    ) {
         this.tagRepository = tagRepository;
+        this.postRepository = postRepository;
+        this.entityCounter = entityCounter;
+        this.countMode = applicationProperties.getCounts().getEndpointMode("tags");
+        entityCounter.track(Tag.class, countMode);
     }
 
     /**
@@ -81,6 +106,7 @@ public class TagResource {
      * @param tag the tag to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tag,
      * or with status {@code 400 (Bad Request)} if the tag is not valid,
+     * or with status {@code 404 (Not Found)} if the tag is not found,
      * or with status {@code 500 (Internal Server Error)} if the tag couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -96,21 +122,13 @@ public class TagResource {
         }
 
         return tagRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return tagRepository
-                    .save(tag)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+            .update(tag)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -138,31 +156,13 @@ public class TagResource {
         }
 
         return tagRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Tag> result = tagRepository
-                    .findById(tag.getId())
-                    .map(existingTag -> {
-                        if (tag.getName() != null) {
-                            existingTag.setName(tag.getName());
-                        }
-
-                        return existingTag;
-                    })
-                    .flatMap(tagRepository::save);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .partialUpdate(tag)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(result ->
+                ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
@@ -173,26 +173,90 @@ public class TagResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<List<Tag>>> getAllTags(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         ServerHttpRequest request
     ) {
         LOG.debug("REST request to get a page of Tags");
-        return tagRepository
-            .count()
+        return entityCounter
+            .count(Tag.class, countMode)
             .zipWith(tagRepository.findAllBy(pageable).collectList())
             .map(countWithEntities ->
                 ResponseEntity.ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /tags} : get all the tags as a stream, read from the database as the client consumes them.
+     * @return the {@link Flux} of tags.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<Tag> getAllTagsAsStream() {
+        LOG.debug("REST request to get all Tags as a stream");
+        return tagRepository.streamAll();
+    }
+
+    /**
+     * {@code GET  /tags} : export all the tags as CSV, read from the database as the client consumes them.
+     * @param response a {@link ServerHttpResponse} response, whose content type and disposition are set.
+     * @return the {@link Flux} of the rows of the tags.
+     */
+    @GetMapping(value = "", produces = CsvExportUtil.TEXT_CSV_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<String> exportTags(ServerHttpResponse response) {
+        LOG.debug("REST request to export all Tags");
+        return CsvExportUtil.export(
+            response,
+            "tags.csv",
+            new String[] { "id", "name" },
+            tagRepository.streamAll().map(tag -> CsvExportUtil.row(tag.getId(), tag.getName()))
+        );
+    }
+
+    /**
+     * {@code GET  /tags?cursor=} : get a page of tags with keyset pagination.
+     *
+     * @param cursor the cursor returned in the {@code Link} header of the previous page, empty for the first page.
+     * @param pageable the size and sort of the page, the page number is ignored.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<Tag>>> getAllTagsAfter(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a keyset page of Tags");
+        Sort sort = KeysetPaginationUtil.checkSort(pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+        KeysetCursor after = KeysetPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        return Flux.defer(() -> tagRepository.findAllAfter(after, pageable.getPageSize(), sort))
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"))
+            .collectList()
+            .map(tags ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            tags.size() < pageable.getPageSize() ? null : tagRepository.cursorOf(tags.get(tags.size() - 1), sort)
+                        )
+                    )
+                    .body(tags)
+            );
+    }
+
     /**
      * {@code GET  /tags/:id} : get the "id" tag.
      *
@@ -200,12 +264,40 @@ public class TagResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tag, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<Tag>> getTag(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Tag : {}", id);
         Mono<Tag> tag = tagRepository.findById(id);
         return ResponseUtil.wrapOrNotFound(tag);
     }
 
+    /**
+     * {@code GET  /tags/:id/posts} : stream the posts of the "id" tag, ordered by id.
+     *
+     * @param id the id of the tag.
+     * @param after the id of the last post already received, to resume the stream after it.
+     * @param size the maximum number of posts to stream, all the posts of the tag if not set.
+     * @return the {@link Flux} of posts, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public Flux<Post> getPostsOfTag(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "after", required = false) Long after,
+        @RequestParam(name = "size", required = false) Integer size
+    ) {
+        LOG.debug("REST request to get the Posts of Tag : {}", id);
+        Flux<Post> posts = tagRepository
+            .existsById(id)
+            .flatMapMany(exists -> {
+                if (!exists) {
+                    return Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+                }
+                return postRepository.findAllByTag(id, after);
+            });
+        return size == null ? posts : posts.take(size);
+    }
+
     /**
      * {@code DELETE  /tags/:id} : delete the "id" tag.
      *
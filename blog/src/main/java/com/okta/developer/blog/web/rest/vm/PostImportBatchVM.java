@@ -0,0 +1,116 @@
+package com.okta.developer.blog.web.rest.vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View Model that reports the outcome of one batch of a bulk import of posts.
+ */
+public class PostImportBatchVM {
+
+    private long batch;
+
+    private long firstIndex;
+
+    private int received;
+
+    private List<Long> ids = new ArrayList<>();
+
+    private List<Rejection> rejected = new ArrayList<>();
+
+    private String error;
+
+    public long getBatch() {
+        return batch;
+    }
+
+    public void setBatch(long batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * The index in the imported stream of the first post of the batch.
+     */
+    public long getFirstIndex() {
+        return firstIndex;
+    }
+
+    public void setFirstIndex(long firstIndex) {
+        this.firstIndex = firstIndex;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return ids.size();
+    }
+
+    /**
+     * The ids of the inserted posts, in the order of the imported stream.
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Rejection> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<Rejection> rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * The cause of the failure of the batch, whose transaction was rolled back, or null if it was committed.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * A post of the batch which was not valid, and so not inserted.
+     */
+    public static class Rejection {
+
+        private long index;
+
+        private List<String> messages;
+
+        public Rejection() {}
+
+        public Rejection(long index, List<String> messages) {
+            this.index = index;
+            this.messages = messages;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public void setIndex(long index) {
+            this.index = index;
+        }
+
+        public List<String> getMessages() {
+            return messages;
+        }
+
+        public void setMessages(List<String> messages) {
+            this.messages = messages;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Rest layer visual models.
+ */
+package com.okta.developer.blog.web.rest.vm;
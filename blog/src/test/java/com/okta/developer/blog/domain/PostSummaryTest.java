@@ -0,0 +1,23 @@
+package com.okta.developer.blog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PostSummaryTest {
+
+    @Test
+    void excerptTest() {
+        assertThat(PostSummary.excerptOf(null)).isNull();
+        assertThat(PostSummary.excerptOf("short")).isEqualTo("short");
+
+        String content = "A".repeat(PostSummary.EXCERPT_MAX_LENGTH + 1);
+        assertThat(PostSummary.excerptOf(content)).hasSize(PostSummary.EXCERPT_MAX_LENGTH);
+    }
+
+    @Test
+    void excerptDoesNotSplitSurrogatePairs() {
+        String content = "A".repeat(PostSummary.EXCERPT_MAX_LENGTH - 1) + "😀";
+        assertThat(PostSummary.excerptOf(content)).isEqualTo("A".repeat(PostSummary.EXCERPT_MAX_LENGTH - 1));
+    }
+}
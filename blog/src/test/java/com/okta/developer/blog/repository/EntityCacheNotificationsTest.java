@@ -0,0 +1,104 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import com.okta.developer.blog.repository.PostChangeFeed.Type;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the payloads of the {@link EntityCacheNotifications}.
+ */
+class EntityCacheNotificationsTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Test
+    void payloadsJoinTheKeys() {
+        assertThat(EntityCacheNotifications.payloadsOf("a1", List.of("post:1", "blog:2"))).containsExactly("a1;post:1,blog:2");
+        assertThat(EntityCacheNotifications.payloadsOf("a1", List.of())).isEmpty();
+    }
+
+    @Test
+    void payloadsAreSplitUnderTheLimitOfPostgres() {
+        List<String> keys = IntStream.range(0, 2000).mapToObj(i -> "post:" + (1_000_000 + i)).toList();
+
+        List<String> payloads = EntityCacheNotifications.payloadsOf("a1", keys);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allMatch(payload -> payload.length() < 8000 && payload.startsWith("a1;"));
+        assertThat(payloads.stream().flatMap(payload -> EntityCacheNotifications.keysOf("b2", payload).stream())).containsExactlyElementsOf(
+            keys
+        );
+    }
+
+    @Test
+    void keysIgnoreTheEvictionsOfTheInstance() {
+        assertThat(EntityCacheNotifications.keysOf("b2", "a1;post:1,blog:2")).containsExactly("post:1", "blog:2");
+        assertThat(EntityCacheNotifications.keysOf("a1", "a1;post:1,blog:2")).isEmpty();
+        assertThat(EntityCacheNotifications.keysOf("a1", "post:1")).isEmpty();
+    }
+
+    @Test
+    void changesAreSentAsJson() throws Exception {
+        PostSummary post = PostSummary.of(new Post().id(1L).title("title").date(Instant.EPOCH).content("content"));
+        List<String> payloads = EntityCacheNotifications.payloadsOf(
+            objectMapper,
+            "a1",
+            List.of(new PostChangeFeed.Change(null, Type.UPDATED, 1L, post), new PostChangeFeed.Change(null, Type.DELETED, 2L, null))
+        );
+
+        assertThat(payloads).singleElement().satisfies(payload -> {
+            assertThat(payload).startsWith("a1;[{").endsWith("{\"type\":\"DELETED\",\"postId\":2}]");
+            assertThat(EntityCacheNotifications.changesOf(objectMapper, "b2", payload)).satisfiesExactly(
+                change -> {
+                    assertThat(change.type()).isEqualTo(Type.UPDATED);
+                    assertThat(change.postId()).isEqualTo(1L);
+                    assertThat(change.post().getTitle()).isEqualTo("title");
+                    assertThat(change.post().getDate()).isEqualTo(Instant.EPOCH);
+                    assertThat(change.post().getExcerpt()).isEqualTo("content");
+                },
+                change -> assertThat(change.type()).isEqualTo(Type.DELETED)
+            );
+            assertThat(EntityCacheNotifications.changesOf(objectMapper, "a1", payload)).isEmpty();
+        });
+        assertThat(EntityCacheNotifications.changesOf(objectMapper, "a1", "b2;garbage")).isEmpty();
+    }
+
+    @Test
+    void changesAreSplitUnderTheLimitOfPostgres() throws Exception {
+        List<PostChangeFeed.Change> changes = LongStream.range(0, 500)
+            .mapToObj(id -> new PostChangeFeed.Change(null, Type.CREATED, id, PostSummary.of(new Post().id(id).title("title " + id))))
+            .toList();
+
+        List<String> payloads = EntityCacheNotifications.payloadsOf(objectMapper, "a1", changes);
+
+        assertThat(payloads).hasSizeGreaterThan(1).hasSizeLessThan(changes.size()).allMatch(payload -> payload.length() < 8000);
+        assertThat(payloads.stream().flatMap(payload -> EntityCacheNotifications.changesOf(objectMapper, "b2", payload).stream()))
+            .extracting(PostChangeFeed.Change::postId)
+            .containsExactlyElementsOf(changes.stream().map(PostChangeFeed.Change::postId).toList());
+    }
+
+    @Test
+    void changesTooLargeForANotificationAreSentAsResets() throws Exception {
+        PostSummary post = PostSummary.of(new Post().id(1L).title("é".repeat(4000)));
+        List<String> payloads = EntityCacheNotifications.payloadsOf(
+            objectMapper,
+            "a1",
+            List.of(new PostChangeFeed.Change(null, Type.UPDATED, 1L, post))
+        );
+
+        assertThat(payloads).singleElement().satisfies(payload ->
+            assertThat(EntityCacheNotifications.changesOf(objectMapper, "b2", payload)).singleElement().satisfies(change -> {
+                assertThat(change.type()).isEqualTo(Type.RESET);
+                assertThat(change.post()).isNull();
+            })
+        );
+    }
+}
@@ -0,0 +1,152 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.domain.Blog;
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for the {@link EntityCache}.
+ */
+class EntityCacheTest {
+
+    private ApplicationProperties properties;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getLoadsOnce() {
+        EntityCache.Region<Post> region = cache().register(Post.class, "byId", this::loadPost);
+
+        region.get(1L).block();
+        region.get(1L).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(region.getStats().hitCount()).isEqualTo(1);
+        assertThat(region.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void getReturnsCopies() {
+        EntityCache.Region<Post> region = cache().register(Post.class, "byId", this::loadPost);
+
+        Post first = region.get(1L).block();
+        first.setTitle("modified");
+
+        assertThat(region.get(1L).block()).isNotSameAs(first).extracting(Post::getTitle).isEqualTo("title 1");
+    }
+
+    @Test
+    void getReturnsCopiesOfTheAssociations() {
+        EntityCache.Region<Post> region = cache().register(Post.class, "withTags", id ->
+            Mono.just(new Post().id(id).title("title " + id).blog(new Blog().id(2L).name("blog")).addTag(new Tag().id(3L).name("tag")))
+        );
+
+        Post first = region.get(1L).block();
+        first.getBlog().setName("modified");
+        first.getTags().iterator().next().setName("modified");
+        first.addTag(new Tag().id(4L));
+
+        Post second = region.get(1L).block();
+        assertThat(second.getBlog()).isNotSameAs(first.getBlog()).extracting(Blog::getName).isEqualTo("blog");
+        assertThat(second.getTags()).singleElement().extracting(Tag::getName).isEqualTo("tag");
+    }
+
+    @Test
+    void getDoesNotModifyTheCachedAssociations() {
+        Post post = new Post().id(2L);
+        Tag cached = new Tag().id(1L).addPost(post);
+        EntityCache.Region<Tag> region = cache().register(Tag.class, "byId", id -> Mono.just(cached));
+
+        Tag tag = region.get(1L).block();
+        tag.getPosts().iterator().next().setTitle("modified");
+
+        assertThat(tag.getPosts()).singleElement().isNotSameAs(post).extracting(Post::getTags).satisfies(tags ->
+            assertThat(tags).singleElement().isSameAs(tag)
+        );
+        assertThat(post.getTitle()).isNull();
+        assertThat(post.getTags()).singleElement().isSameAs(cached);
+    }
+
+    @Test
+    void getDoesNotCacheMissingEntities() {
+        EntityCache.Region<Post> region = cache().register(Post.class, "byId", id -> {
+            loads.incrementAndGet();
+            return Mono.empty();
+        });
+
+        assertThat(region.get(1L).block()).isNull();
+        assertThat(region.get(1L).block()).isNull();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictInvalidatesTheEntityAndFlushesTheEmbeddingRegions() {
+        EntityCache cache = cache();
+        EntityCache.Region<Post> posts = cache.register(Post.class, "byId", this::loadPost, Blog.class);
+        EntityCache.Region<Blog> blogs = cache.register(Blog.class, "byId", id -> Mono.just(new Blog().id(id)));
+        posts.get(1L).block();
+        posts.get(2L).block();
+        blogs.get(1L).block();
+
+        cache.evict(Post.class, 1L).block();
+        assertThat(posts.getSize()).isEqualTo(1);
+        assertThat(blogs.getSize()).isEqualTo(1);
+
+        cache.evict(Blog.class, 1L).block();
+        assertThat(posts.getSize()).isZero();
+        assertThat(blogs.getSize()).isZero();
+    }
+
+    @Test
+    void evictNowAppliesABatchOfKeys() {
+        EntityCache cache = cache();
+        EntityCache.Region<Post> posts = cache.register(Post.class, "byId", this::loadPost, Blog.class);
+        posts.get(1L).block();
+        posts.get(2L).block();
+        posts.get(3L).block();
+
+        cache.evictNow(List.of("post:1", "post:2", "post:x", "unknown"));
+        assertThat(posts.getSize()).isEqualTo(1);
+
+        cache.evictNow(List.of("blog:9"));
+        assertThat(posts.getSize()).isZero();
+    }
+
+    @Test
+    void getLoadsEveryTimeWhenDisabled() {
+        properties.getEntityCache().setEnabled(false);
+        EntityCache.Region<Post> region = cache().register(Post.class, "byId", this::loadPost);
+
+        region.get(1L).block();
+        region.get(1L).block();
+
+        assertThat(loads).hasValue(2);
+        assertThat(region.isEnabled()).isFalse();
+    }
+
+    private EntityCache cache() {
+        return new EntityCache(properties, new SimpleMeterRegistry());
+    }
+
+    private Mono<Post> loadPost(Long id) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return new Post().id(id).title("title " + id);
+        });
+    }
+}
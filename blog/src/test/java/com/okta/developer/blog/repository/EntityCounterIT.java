@@ -0,0 +1,66 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.blog.IntegrationTest;
+import com.okta.developer.blog.config.ApplicationProperties.Counts.Mode;
+import com.okta.developer.blog.domain.Tag;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Integration tests for the {@link EntityCounter}.
+ */
+@IntegrationTest
+class EntityCounterIT {
+
+    @Autowired
+    private EntityCounter entityCounter;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @Test
+    void testCountIsAdjustedBySavesAndDeletes() {
+        entityCounter.reconcile().block();
+        long count = tagRepository.count().block();
+        assertThat(entityCounter.count(Tag.class, Mode.EXACT).block()).contains(count);
+
+        Tag tag = tagRepository.save(new Tag().name("counted")).block();
+        assertThat(entityCounter.count(Tag.class, Mode.EXACT).block()).contains(count + 1);
+
+        tagRepository.deleteById(tag.getId()).block();
+        assertThat(entityCounter.count(Tag.class, Mode.EXACT).block()).contains(count);
+    }
+
+    @Test
+    void testCountIsNotAdjustedByRolledBackSaves() {
+        entityCounter.reconcile().block();
+        long count = tagRepository.count().block();
+
+        TransactionalOperator.create(transactionManager)
+            .execute(status -> tagRepository.save(new Tag().name("rolled back")).doOnNext(tag -> status.setRollbackOnly()))
+            .blockLast();
+
+        assertThat(entityCounter.count(Tag.class, Mode.EXACT).block()).contains(count);
+        assertThat(tagRepository.count().block()).isEqualTo(count);
+    }
+
+    @Test
+    void testEstimatedCount() {
+        assertThat(entityCounter.count(Tag.class, Mode.ESTIMATED).block()).hasValueSatisfying(estimate ->
+            assertThat(estimate).isNotNegative()
+        );
+    }
+
+    @Test
+    void testNoCount() {
+        assertThat(entityCounter.count(Tag.class, Mode.NONE).block()).isEqualTo(Optional.empty());
+    }
+}
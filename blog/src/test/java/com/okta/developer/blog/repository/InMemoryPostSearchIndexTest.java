@@ -0,0 +1,83 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link InMemoryPostSearchIndex}.
+ */
+class InMemoryPostSearchIndexTest {
+
+    private InMemoryPostSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryPostSearchIndex(null);
+        index.index(post(1L, "Reactive streams", "Backpressure with Reactor."));
+        index.index(post(2L, "Spring Boot", "A reactive web stack, with reactive repositories."));
+        index.index(post(3L, "Liquibase", "Database migrations."));
+    }
+
+    @Test
+    void searchRanksTitleAboveContent() {
+        assertThat(ids(index.search("reactive", null, 10).collectList().block())).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchMatchesAllTheWords() {
+        assertThat(ids(index.search("Reactive, backpressure!", null, 10).collectList().block())).containsExactly(1L);
+        assertThat(index.search("reactive migrations", null, 10).collectList().block()).isEmpty();
+        assertThat(index.search("unknown", null, 10).collectList().block()).isEmpty();
+        assertThat(index.search(" ,; ", null, 10).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void searchPaginatesWithCursor() {
+        index.index(post(4L, "Reactive", null));
+
+        List<PostSummary> first = index.search("reactive", null, 2).collectList().block();
+        assertThat(ids(first)).containsExactly(4L, 1L);
+        assertThat(first).allSatisfy(hit -> assertThat(hit.getRank()).isEqualTo(1.0f));
+
+        KeysetCursor cursor = PostSearchIndex.cursorOf(first.get(1));
+        assertThat(ids(index.search("reactive", cursor, 2).collectList().block())).containsExactly(2L);
+    }
+
+    @Test
+    void searchRejectsForeignCursor() {
+        assertThatIllegalArgumentException().isThrownBy(() -> index.search("reactive", new KeysetCursor(List.of("1")), 2));
+    }
+
+    @Test
+    void indexReplacesAndRemovesPosts() {
+        index.index(post(1L, "Imperative streams", null));
+        assertThat(ids(index.search("reactive", null, 10).collectList().block())).containsExactly(2L);
+        assertThat(ids(index.search("imperative", null, 10).collectList().block())).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("reactive", null, 10).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void loadDoesNotReplaceSavedPosts() {
+        index.index(post(1L, "Outdated", null), false);
+        assertThat(ids(index.search("reactive", null, 10).collectList().block())).containsExactly(1L, 2L);
+        assertThat(index.search("outdated", null, 10).collectList().block()).isEmpty();
+    }
+
+    private static Post post(Long id, String title, String content) {
+        return new Post().id(id).title(title).content(content).date(Instant.EPOCH);
+    }
+
+    private static List<Long> ids(List<PostSummary> hits) {
+        return Objects.requireNonNull(hits).stream().map(PostSummary::getId).toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for the {@link InstrumentedConnectionFactory}.
+ */
+class InstrumentedConnectionFactoryTest {
+
+    private SimpleMeterRegistry registry;
+    private InstrumentedConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        Connection connection = mock(Connection.class);
+        doReturn(Mono.just(true)).when(connection).validate(any());
+        doReturn(Mono.empty()).when(connection).close();
+        ConnectionFactory delegate = mock(ConnectionFactory.class);
+        doReturn(Mono.just(connection)).when(delegate).create();
+        registry = new SimpleMeterRegistry();
+        connectionFactory = new InstrumentedConnectionFactory(
+            ConnectionPoolConfiguration.builder(delegate).initialSize(0).maxSize(2),
+            Duration.ofMinutes(30),
+            "test",
+            1.0,
+            registry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.dispose();
+    }
+
+    @Test
+    void holdersAreTrackedUntilRelease() {
+        Connection connection = connectionFactory.create().block();
+
+        assertThat(connectionFactory.getHolders())
+            .singleElement()
+            .satisfies(holder -> {
+                assertThat(holder.thread()).isEqualTo(Thread.currentThread().getName());
+                assertThat(holder.callSite()).contains(InstrumentedConnectionFactoryTest.class.getName());
+            });
+        assertThat(registry.get("r2dbc.pool.acquire").tag("outcome", "success").timer().count()).isEqualTo(1);
+
+        Mono.from(connection.close()).block();
+
+        assertThat(connectionFactory.getHolders()).isEmpty();
+        assertThat(registry.get("r2dbc.pool.hold").timer().count()).isEqualTo(1);
+        assertThat(connectionFactory.getMetrics()).hasValueSatisfying(metrics -> assertThat(metrics.acquiredSize()).isZero());
+    }
+
+    @Test
+    void callSiteSkipsTheFramesOfTheLibraries() {
+        StackTraceElement[] stackTrace = {
+            new StackTraceElement(InstrumentedConnectionFactory.class.getName(), "create", null, 1),
+            new StackTraceElement("reactor.core.publisher.MonoDefer", "subscribe", null, 2),
+            new StackTraceElement("com.okta.developer.blog.repository.PostRepositoryInternalImpl", "findById", null, 3),
+            new StackTraceElement("org.springframework.r2dbc.core.DefaultDatabaseClient", "sql", null, 4),
+            new StackTraceElement("java.lang.Thread", "run", null, 5),
+        };
+
+        assertThat(InstrumentedConnectionFactory.callSite(stackTrace)).isEqualTo(
+            "com.okta.developer.blog.repository.PostRepositoryInternalImpl.findById(Unknown Source)"
+        );
+        assertThat(InstrumentedConnectionFactory.callSite(Arrays.copyOf(stackTrace, 2))).isEmpty();
+        assertThat(InstrumentedConnectionFactory.callSite(new StackTraceElement[] { stackTrace[3], stackTrace[4] })).isEqualTo(
+            "org.springframework.r2dbc.core.DefaultDatabaseClient.sql(Unknown Source)"
+        );
+    }
+}
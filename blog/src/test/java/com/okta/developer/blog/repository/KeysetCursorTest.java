@@ -0,0 +1,32 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link KeysetCursor} class.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode() {
+        KeysetCursor cursor = new KeysetCursor(List.of("1970-01-01T00:00:00Z", "a.b/c?d", "", "42"));
+        String token = cursor.encode();
+        assertThat(token).matches("[A-Za-z0-9_.-]*");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void testEmptyTokenIsTheFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+    }
+
+    @Test
+    void testMalformedToken() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
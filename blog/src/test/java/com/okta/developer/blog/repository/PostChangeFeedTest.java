@@ -0,0 +1,215 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.blog.config.ApplicationProperties;
+import com.okta.developer.blog.domain.Post;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for the {@link PostChangeFeed}.
+ */
+class PostChangeFeedTest {
+
+    private ApplicationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        properties.getPostStream().setReplaySize(3);
+        properties.getPostStream().setBufferSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void publishOutsideOfATransactionEmitsToTheSubscribers() {
+        PostChangeFeed feed = feed();
+        List<PostChangeFeed.Change> changes = new ArrayList<>();
+        Disposable subscription = feed.changes(null).subscribe(changes::add);
+
+        feed.publish(PostChangeFeed.Type.CREATED, 1L, new Post().id(1L).title("title")).block();
+        feed.publish(PostChangeFeed.Type.DELETED, 1L, null).block();
+        subscription.dispose();
+
+        assertThat(changes)
+            .extracting(PostChangeFeed.Change::type)
+            .containsExactly(PostChangeFeed.Type.CREATED, PostChangeFeed.Type.DELETED);
+        assertThat(changes.get(0).post().getTitle()).isEqualTo("title");
+        assertThat(changes.get(1).postId()).isEqualTo(1L);
+        assertThat(changes.get(1).post()).isNull();
+    }
+
+    @Test
+    void publishSendsTheChangesToTheOtherInstances() {
+        PostChangeFeed feed = feed();
+        List<PostChangeFeed.Change> sent = new ArrayList<>();
+        feed.publishChangesWith(changes -> Mono.fromRunnable(() -> sent.addAll(changes)));
+
+        feed.publish(PostChangeFeed.Type.CREATED, 1L, new Post().id(1L).title("title")).block();
+
+        assertThat(sent).singleElement().satisfies(change -> {
+            assertThat(change.type()).isEqualTo(PostChangeFeed.Type.CREATED);
+            assertThat(change.post().getTitle()).isEqualTo("title");
+        });
+    }
+
+    @Test
+    void publishInATransactionSendsItsChangesTogetherBeforeCommit() {
+        PostChangeFeed feed = feed();
+        List<List<PostChangeFeed.Change>> sent = new ArrayList<>();
+        List<PostChangeFeed.Change> received = new ArrayList<>();
+        feed.publishChangesWith(changes -> Mono.fromRunnable(() -> sent.add(changes)));
+        Disposable subscription = feed.changes(null).subscribe(received::add);
+
+        TransactionalOperator.create(new NoOpTransactionManager())
+            .transactional(
+                feed
+                    .publish(PostChangeFeed.Type.CREATED, 1L, new Post().id(1L))
+                    .then(feed.publish(PostChangeFeed.Type.DELETED, 2L, null))
+                    .then(Mono.fromRunnable(() -> assertThat(sent).isEmpty()))
+            )
+            .block();
+        subscription.dispose();
+
+        assertThat(sent).singleElement().satisfies(changes ->
+            assertThat(changes).extracting(PostChangeFeed.Change::postId).containsExactly(1L, 2L)
+        );
+        assertThat(received).extracting(PostChangeFeed.Change::postId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void receiveEmitsTheChangesOfTheOtherInstances() {
+        PostChangeFeed feed = feed();
+        List<PostChangeFeed.Change> changes = new ArrayList<>();
+        Disposable subscription = feed.changes(null).subscribe(changes::add);
+
+        feed.receive(List.of(new PostChangeFeed.Change("other-7", PostChangeFeed.Type.DELETED, 1L, null)));
+        subscription.dispose();
+
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.type()).isEqualTo(PostChangeFeed.Type.DELETED);
+            assertThat(change.id()).isNotEqualTo("other-7");
+            assertThat(replayed(feed, change.id())).isEmpty();
+        });
+    }
+
+    @Test
+    void changesReplaysTheChangesAfterTheLastEventId() {
+        PostChangeFeed feed = feed();
+        List<String> ids = publish(feed, 3);
+
+        assertThat(replayed(feed, ids.get(0))).extracting(PostChangeFeed.Change::id).containsExactly(ids.get(1), ids.get(2));
+        assertThat(replayed(feed, ids.get(2))).isEmpty();
+    }
+
+    @Test
+    void changesResetsWhenTheLastEventIdIsNoLongerInTheRing() {
+        PostChangeFeed feed = feed();
+        List<String> ids = publish(feed, 5);
+
+        assertThat(replayed(feed, ids.get(0))).singleElement().satisfies(change -> {
+            assertThat(change.type()).isEqualTo(PostChangeFeed.Type.RESET);
+            assertThat(change.id()).isEqualTo(ids.get(4));
+        });
+        // the ring holds the last 3 changes, the one before them is the oldest which can be resumed from
+        assertThat(replayed(feed, ids.get(1))).extracting(PostChangeFeed.Change::id).containsExactly(ids.get(2), ids.get(3), ids.get(4));
+    }
+
+    @Test
+    void changesResetsWhenTheLastEventIdIsOfAnotherInstance() {
+        PostChangeFeed feed = feed();
+        publish(feed, 1);
+
+        assertThat(replayed(feed, "00000000-1")).extracting(PostChangeFeed.Change::type).containsExactly(PostChangeFeed.Type.RESET);
+        assertThat(replayed(feed, "garbage")).extracting(PostChangeFeed.Change::type).containsExactly(PostChangeFeed.Type.RESET);
+    }
+
+    @Test
+    void slowSubscribersDropTheOldestChanges() {
+        PostChangeFeed feed = feed();
+        List<Long> received = new ArrayList<>();
+        BaseSubscriber<PostChangeFeed.Change> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // no demand until the changes are published
+            }
+
+            @Override
+            protected void hookOnNext(PostChangeFeed.Change change) {
+                received.add(change.postId());
+            }
+        };
+        feed.changes(null).subscribe(slow);
+
+        publish(feed, 4);
+        slow.request(4);
+        slow.dispose();
+
+        assertThat(received).containsExactly(3L, 4L);
+        assertThat(meterRegistry.get("post.stream.dropped").counter().count()).isEqualTo(2);
+    }
+
+    private PostChangeFeed feed() {
+        return new PostChangeFeed(properties, meterRegistry);
+    }
+
+    private static List<PostChangeFeed.Change> replayed(PostChangeFeed feed, String lastEventId) {
+        List<PostChangeFeed.Change> changes = new ArrayList<>();
+        feed.changes(lastEventId).subscribe(changes::add).dispose();
+        return changes;
+    }
+
+    private static List<String> publish(PostChangeFeed feed, int count) {
+        List<String> ids = new ArrayList<>();
+        Disposable subscription = feed.changes(null).subscribe(change -> ids.add(change.id()));
+        for (long id = 1; id <= count; id++) {
+            feed.publish(PostChangeFeed.Type.UPDATED, id, new Post().id(id)).block();
+        }
+        subscription.dispose();
+        return ids;
+    }
+
+    /**
+     * A transaction manager without a resource, so the synchronizations of the transactions run.
+     */
+    private static final class NoOpTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
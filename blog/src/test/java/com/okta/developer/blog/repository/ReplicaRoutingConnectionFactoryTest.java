@@ -0,0 +1,72 @@
+package com.okta.developer.blog.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.okta.developer.blog.repository.ReplicaRoutingConnectionFactory.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the routing of the {@link ReplicaRoutingConnectionFactory}.
+ */
+class ReplicaRoutingConnectionFactoryTest {
+
+    private ReplicaRoutingConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new ReplicaRoutingConnectionFactory(
+            mock(ConnectionFactory.class),
+            mock(ConnectionFactory.class),
+            Duration.ofSeconds(2),
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(5),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void readsOfTheRequestsGoToTheReplica() {
+        connectionFactory.updateLag(0.5);
+
+        assertThat(route(Target.REPLICA)).isEqualTo(Target.REPLICA);
+        assertThat(route(Target.PRIMARY)).isEqualTo(Target.PRIMARY);
+        // outside of a request, e.g. the loads of the entity cache
+        assertThat(route(null)).isEqualTo(Target.PRIMARY);
+    }
+
+    @Test
+    void readsGoToThePrimaryWhenTheReplicaLags() {
+        assertThat(route(Target.REPLICA)).isEqualTo(Target.PRIMARY);
+
+        connectionFactory.updateLag(0);
+        assertThat(connectionFactory.isReplicaAvailable()).isTrue();
+
+        connectionFactory.updateLag(3);
+        assertThat(connectionFactory.isReplicaAvailable()).isFalse();
+        assertThat(route(Target.REPLICA)).isEqualTo(Target.PRIMARY);
+    }
+
+    @Test
+    void usersWhoWroteAreSticky() {
+        assertThat(connectionFactory.isSticky("user")).isFalse();
+
+        connectionFactory.wrote("user");
+
+        assertThat(connectionFactory.isSticky("user")).isTrue();
+        assertThat(connectionFactory.isSticky("admin")).isFalse();
+    }
+
+    private Object route(Target target) {
+        return connectionFactory
+            .determineCurrentLookupKey()
+            .contextWrite(context ->
+                target != null ? context.putAll(ReplicaRoutingConnectionFactory.withTarget(target).readOnly()) : context
+            )
+            .block();
+    }
+}
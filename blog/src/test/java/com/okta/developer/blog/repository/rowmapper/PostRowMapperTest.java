@@ -0,0 +1,74 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.blog.config.DatabaseConfiguration;
+import com.okta.developer.blog.domain.Post;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link PostRowMapper} and its {@link RowMappingPlans}.
+ */
+class PostRowMapperTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 2, 7, 22, 6, 48);
+
+    private PostRowMapper postRowMapper;
+
+    @BeforeEach
+    void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(PostgresDialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        postRowMapper = new PostRowMapper(new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions)));
+    }
+
+    @Test
+    void testMapsRowsByIndexWithOnePlanPerResult() {
+        TestRow.Metadata metadata = postMetadata();
+
+        Post first = postRowMapper.apply(new TestRow(metadata, 1L, "first", "content", DATE, 2L), "e");
+        int columnLookups = metadata.getColumnLookups();
+        Post second = postRowMapper.apply(new TestRow(metadata, 3L, "second", null, null, null), "e");
+
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(first.getTitle()).isEqualTo("first");
+        assertThat(first.getContent()).isEqualTo("content");
+        assertThat(first.getDate()).isEqualTo(Instant.parse("2025-02-07T22:06:48Z"));
+        assertThat(first.getBlogId()).isEqualTo(2L);
+        assertThat(second.getId()).isEqualTo(3L);
+        assertThat(second.getDate()).isNull();
+        assertThat(metadata.getColumnLookups()).isEqualTo(columnLookups);
+        assertThat(metadata.getNameLookups()).isZero();
+    }
+
+    @Test
+    void testNewPlanForAnotherResult() {
+        TestRow.Metadata metadata = postMetadata();
+        postRowMapper.apply(new TestRow(metadata, 1L, "first", "content", DATE, 2L), "e");
+
+        TestRow.Metadata other = new TestRow.Metadata().column("p_id", Long.class).column("p_title", String.class);
+        Post post = postRowMapper.apply(new TestRow(other, 4L, "summary"), "p");
+
+        assertThat(post.getId()).isEqualTo(4L);
+        assertThat(post.getTitle()).isEqualTo("summary");
+        assertThat(post.getContent()).isNull();
+        assertThat(other.getColumnLookups()).isPositive();
+    }
+
+    private static TestRow.Metadata postMetadata() {
+        return new TestRow.Metadata()
+            .column("e_id", Long.class)
+            .column("e_title", String.class)
+            .column("e_content", String.class)
+            .column("e_date", LocalDateTime.class)
+            .column("e_blog_id", Long.class);
+    }
+}
@@ -0,0 +1,134 @@
+package com.okta.developer.blog.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link Row} backed by an array, which only decodes a column to the type of its value, like a driver without codec for the
+ * requested type would. The rows of a result share the same {@link Metadata}, which counts how it is used.
+ */
+public final class TestRow implements Row {
+
+    private final Metadata metadata;
+    private final Object[] values;
+
+    public TestRow(Metadata metadata, Object... values) {
+        this.metadata = metadata;
+        this.values = values;
+    }
+
+    @Override
+    public RowMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        Object value = values[index];
+        if (value == null || type == Object.class) {
+            return type.cast(value);
+        }
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("Cannot decode value of type " + value.getClass().getName() + " to " + type.getName());
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        metadata.nameLookups++;
+        return get(metadata.indexOf(name), type);
+    }
+
+    /**
+     * The metadata of a result.
+     */
+    public static final class Metadata implements RowMetadata {
+
+        private final List<Column> columns = new ArrayList<>();
+
+        int columnLookups;
+        int nameLookups;
+
+        public Metadata column(String name, Class<?> javaType) {
+            columns.add(new Column(name, javaType));
+            return this;
+        }
+
+        public Metadata copy() {
+            Metadata copy = new Metadata();
+            copy.columns.addAll(columns);
+            return copy;
+        }
+
+        public int getColumnLookups() {
+            return columnLookups;
+        }
+
+        public int getNameLookups() {
+            return nameLookups;
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new NoSuchElementException("Column " + name + " does not exist");
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            columnLookups++;
+            return columns;
+        }
+
+        @Override
+        public boolean contains(String columnName) {
+            return columns.stream().anyMatch(column -> column.getName().equalsIgnoreCase(columnName));
+        }
+    }
+
+    private record Column(String name, Class<?> javaType) implements ColumnMetadata {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        @Override
+        public Type getType() {
+            return new Type() {
+                @Override
+                public Class<?> getJavaType() {
+                    return javaType;
+                }
+
+                @Override
+                public String getName() {
+                    return javaType.getSimpleName();
+                }
+            };
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.okta.developer.blog.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.okta.developer.blog.IntegrationTest;
 import com.okta.developer.blog.config.Constants;
+import com.okta.developer.blog.domain.Authority;
 import com.okta.developer.blog.domain.User;
 import com.okta.developer.blog.repository.UserRepository;
 import com.okta.developer.blog.security.AuthoritiesConstants;
@@ -11,13 +13,20 @@ import com.okta.developer.blog.service.dto.AdminUserDTO;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
@@ -143,6 +152,101 @@ class UserServiceIT {
         assertThat(userDTO.getLangKey()).isEqualTo("en");
     }
 
+    @Test
+    void testSaveUserSynchronizesAuthorities() {
+        user.setAuthorities(authorities(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        User savedUser = userService.saveUser(user).block();
+
+        savedUser.setAuthorities(authorities(AuthoritiesConstants.USER, AuthoritiesConstants.ANONYMOUS));
+        userService.saveUser(savedUser).block();
+        userService.saveUser(savedUser).block();
+
+        assertThat(userRepository.findAuthorityNamesByUserId(savedUser.getId()).collectList().block()).containsExactlyInAnyOrder(
+            AuthoritiesConstants.USER,
+            AuthoritiesConstants.ANONYMOUS
+        );
+
+        savedUser.setAuthorities(new HashSet<>());
+        userService.saveUser(savedUser).block();
+
+        assertThat(userRepository.findAuthorityNamesByUserId(savedUser.getId()).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void testUpdateUserKeepsAuthorities() {
+        user.setAuthorities(authorities(AuthoritiesConstants.USER));
+        User savedUser = userService.saveUser(user).block();
+
+        userService
+            .updateUser("jane", DEFAULT_LASTNAME, DEFAULT_EMAIL, DEFAULT_LANGKEY, DEFAULT_IMAGEURL)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(DEFAULT_LOGIN, null)))
+            .block();
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).map(User::getFirstName).block()).isEqualTo("jane");
+        assertThat(userRepository.findAuthorityNamesByUserId(savedUser.getId()).collectList().block()).containsExactly(
+            AuthoritiesConstants.USER
+        );
+    }
+
+    @Test
+    void testSynchronizeExistingUserUpdatesDetailsAndAuthorities() {
+        user.setAuthorities(authorities(AuthoritiesConstants.USER));
+        User savedUser = userService.saveUser(user).block();
+
+        userDetails.put("family_name", "changed");
+        AdminUserDTO userDTO = userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+
+        assertThat(userDTO.getLastName()).isEqualTo("changed");
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).map(User::getLastName).block()).isEqualTo("changed");
+        assertThat(userRepository.findAuthorityNamesByUserId(savedUser.getId()).collectList().block()).containsExactly(
+            AuthoritiesConstants.ANONYMOUS
+        );
+    }
+
+    @Test
+    void testGetAllManagedUsersPageWithAuthorities() {
+        List<User> users = List.of(createPageUser("page_user_a"), createPageUser("page_user_b"), createPageUser("page_user_c"));
+        for (User pageUser : users) {
+            userRepository.create(pageUser).block();
+            userRepository.saveUserAuthority(pageUser.getId(), AuthoritiesConstants.USER).block();
+        }
+        userRepository.saveUserAuthority(users.get(2).getId(), AuthoritiesConstants.ADMIN).block();
+
+        List<AdminUserDTO> page = userService
+            .getAllManagedUsers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "login")))
+            .collectList()
+            .block();
+
+        assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly("page_user_c", "page_user_b");
+        assertThat(page.get(0).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(page.get(1).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testGetAllManagedUsersWithUnknownSort() {
+        assertThatThrownBy(() -> userService.getAllManagedUsers(PageRequest.of(0, 2, Sort.by("authorities"))).blockLast()).isInstanceOf(
+            IllegalArgumentException.class
+        );
+    }
+
+    private static Set<Authority> authorities(String... names) {
+        Set<Authority> authorities = new HashSet<>();
+        for (String name : names) {
+            authorities.add(new Authority().name(name));
+        }
+        return authorities;
+    }
+
+    private User createPageUser(String login) {
+        User pageUser = new User();
+        pageUser.setId(UUID.randomUUID().toString());
+        pageUser.setLogin(login);
+        pageUser.setActivated(true);
+        pageUser.setEmail(login + "@localhost");
+        pageUser.setLangKey(DEFAULT_LANGKEY);
+        return pageUser;
+    }
+
     private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
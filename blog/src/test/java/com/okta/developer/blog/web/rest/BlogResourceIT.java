@@ -343,7 +343,7 @@ class BlogResourceIT {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         blog.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, blog.getId())
@@ -351,7 +351,7 @@ class BlogResourceIT {
             .bodyValue(om.writeValueAsBytes(blog))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Blog in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
@@ -456,7 +456,7 @@ class BlogResourceIT {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         blog.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, blog.getId())
@@ -464,7 +464,7 @@ class BlogResourceIT {
             .bodyValue(om.writeValueAsBytes(blog))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Blog in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
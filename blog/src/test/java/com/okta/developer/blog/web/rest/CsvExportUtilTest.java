@@ -0,0 +1,45 @@
+package com.okta.developer.blog.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+/**
+ * Tests for the {@link CsvExportUtil} utility class.
+ */
+class CsvExportUtilTest {
+
+    @Test
+    void rowKeepsPlainValues() {
+        assertThat(CsvExportUtil.row(1L, "title", Instant.EPOCH)).isEqualTo("1,title,1970-01-01T00:00:00Z\r\n");
+    }
+
+    @Test
+    void rowWritesNullAsEmptyField() {
+        assertThat(CsvExportUtil.row(1L, null, "x")).isEqualTo("1,,x\r\n");
+    }
+
+    @Test
+    void rowQuotesSeparatorsAndLineBreaks() {
+        assertThat(CsvExportUtil.row("a,b", "line\nbreak", "cr\r")).isEqualTo("\"a,b\",\"line\nbreak\",\"cr\r\"\r\n");
+    }
+
+    @Test
+    void rowDoublesQuotes() {
+        assertThat(CsvExportUtil.row("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"\r\n");
+    }
+
+    @Test
+    void exportStartsWithHeader() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Flux<String> body = CsvExportUtil.export(response, "tags.csv", new String[] { "id", "name" }, Flux.just("1,a\r\n"));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).isEqualTo("attachment; filename=\"tags.csv\"");
+        assertThat(response.getHeaders().getContentType()).hasToString("text/csv;charset=UTF-8");
+        assertThat(body.collectList().block()).containsExactly("id,name\r\n", "1,a\r\n");
+    }
+}
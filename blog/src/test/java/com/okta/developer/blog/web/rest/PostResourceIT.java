@@ -11,12 +11,22 @@ import static org.springframework.security.test.web.reactive.server.SecurityMock
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.okta.developer.blog.IntegrationTest;
 import com.okta.developer.blog.domain.Post;
+import com.okta.developer.blog.domain.PostSummary;
+import com.okta.developer.blog.domain.Tag;
 import com.okta.developer.blog.repository.EntityManager;
 import com.okta.developer.blog.repository.PostRepository;
+import com.okta.developer.blog.repository.TagRepository;
+import com.okta.developer.blog.web.rest.vm.PostImportBatchVM;
+import java.net.URI;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +35,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -51,6 +62,8 @@ class PostResourceIT {
     private static final String ENTITY_API_URL = "/api/posts";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
+    private static final EntityManager.LinkTable POST_TAG_LINK = new EntityManager.LinkTable("rel_post__tag", "post_id", "tag_id");
+
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
 
@@ -60,6 +73,9 @@ class PostResourceIT {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private TagRepository tagRepository;
+
     @Mock
     private PostRepository postRepositoryMock;
 
@@ -119,6 +135,7 @@ class PostResourceIT {
             insertedPost = null;
         }
         deleteEntities(em);
+        TagResourceIT.deleteEntities(em);
     }
 
     @Test
@@ -205,6 +222,88 @@ class PostResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeTest);
     }
 
+    @Test
+    void importPosts() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        Tag tag = tagRepository.save(TagResourceIT.createEntity()).block();
+        String body = Stream.of(createEntity().addTag(tag), createEntity().title(null), createUpdatedEntity())
+            .map(p -> {
+                try {
+                    return om.writeValueAsString(p);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            })
+            .collect(Collectors.joining("\n"));
+
+        // Import the posts, the second one is not valid
+        var batches = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(PostImportBatchVM.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(batches).hasSize(1);
+        PostImportBatchVM batch = batches.get(0);
+        assertThat(batch.getReceived()).isEqualTo(3);
+        assertThat(batch.getError()).isNull();
+        assertThat(batch.getIds()).hasSize(2);
+        assertThat(batch.getRejected()).singleElement().satisfies(rejection -> assertThat(rejection.getIndex()).isEqualTo(1));
+
+        // Validate the Posts in the database
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 2);
+        Post first = postRepository.findById(batch.getIds().get(0)).block();
+        assertThat(first.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(first.getExcerpt()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(em.selectFromLinkTable(POST_TAG_LINK, first.getId()).collectList().block()).containsExactly(tag.getId());
+        assertThat(postRepository.findById(batch.getIds().get(1)).block().getTitle()).isEqualTo(UPDATED_TITLE);
+    }
+
+    @Test
+    void importPostsKeepsTheTagsOfEachPost() throws Exception {
+        Tag first = tagRepository.save(TagResourceIT.createEntity()).block();
+        Tag second = tagRepository.save(TagResourceIT.createEntity()).block();
+        Tag third = tagRepository.save(TagResourceIT.createEntity()).block();
+        List<List<Tag>> tags = List.of(List.of(first), List.of(second, third), List.of(), List.of(first, third), List.of(second));
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < tags.size(); i++) {
+            Post imported = createEntity().title("imported " + i);
+            tags.get(i).forEach(imported::addTag);
+            body.append(om.writeValueAsString(imported)).append('\n');
+        }
+
+        var batches = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body.toString())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(PostImportBatchVM.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(batches).singleElement().satisfies(batch -> assertThat(batch.getIds()).hasSize(tags.size()));
+        List<Long> ids = batches.get(0).getIds();
+        for (int i = 0; i < tags.size(); i++) {
+            assertThat(postRepository.findById(ids.get(i)).block().getTitle()).isEqualTo("imported " + i);
+            assertThat(em.selectFromLinkTable(POST_TAG_LINK, ids.get(i)).collectList().block()).containsExactlyInAnyOrderElementsOf(
+                tags.get(i).stream().map(Tag::getId).toList()
+            );
+        }
+    }
+
     @Test
     void getAllPosts() {
         // Initialize the database
@@ -231,6 +330,203 @@ class PostResourceIT {
             .value(hasItem(DEFAULT_DATE.toString()));
     }
 
+    @Test
+    void getAllPostsAsStream() {
+        // Initialize the database
+        insertedPost = postRepository.save(post).block();
+
+        var posts = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Post.class)
+            .getResponseBody()
+            .filter(p -> post.getId().equals(p.getId()))
+            .collectList()
+            .block();
+
+        assertThat(posts).singleElement().satisfies(p -> assertPostUpdatableFieldsEquals(post, p));
+    }
+
+    @Test
+    void exportPosts() {
+        // Initialize the database
+        insertedPost = postRepository.save(post).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.valueOf("text/csv"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.valueOf("text/csv"))
+            .expectHeader()
+            .valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts.csv\"")
+            .expectBody(String.class)
+            .value(csv ->
+                assertThat(csv)
+                    .startsWith("id,title,content,date,blogId\r\n")
+                    .contains(post.getId() + "," + DEFAULT_TITLE + "," + DEFAULT_CONTENT + "," + DEFAULT_DATE + ",\r\n")
+            );
+    }
+
+    @Test
+    void getAllPostSummaries() {
+        // Initialize the database
+        String content = "B".repeat(PostSummary.EXCERPT_MAX_LENGTH + 10);
+        insertedPost = postRepository.save(post.content(content)).block();
+
+        // Get the summaries of the postList
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?view=summary&sort=id,desc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(insertedPost.getId().intValue())
+            .jsonPath("$.[0].title")
+            .isEqualTo(DEFAULT_TITLE)
+            .jsonPath("$.[0].date")
+            .isEqualTo(DEFAULT_DATE.toString())
+            .jsonPath("$.[0].excerpt")
+            .isEqualTo(content.substring(0, PostSummary.EXCERPT_MAX_LENGTH))
+            .jsonPath("$.[0].content")
+            .doesNotExist();
+    }
+
+    @Test
+    void getAllPostsWithKeysetPagination() {
+        // Initialize the database
+        insertedPost = postRepository.save(post).block();
+        Post otherPost = postRepository.save(createEntity()).block();
+
+        // Get the first page of the postList
+        String link = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=1&sort=date,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(insertedPost.getId().intValue())
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("Link");
+        assertThat(link).contains("rel=\"next\"");
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+
+        // Follow the next link
+        webTestClient
+            .get()
+            .uri(URI.create(next))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(otherPost.getId().intValue());
+
+        postRepository.deleteById(otherPost.getId()).block();
+    }
+
+    @Test
+    void searchPosts() {
+        // Initialize the database
+        Post inTitle = postRepository.save(createEntity().title("Reactive streams").content("Backpressure")).block();
+        Post inContent = postRepository.save(createEntity().title("Spring Boot").content("A reactive web stack")).block();
+        postRepository.save(createEntity().title("Liquibase").content("Database migrations")).block();
+
+        // The title weighs more than the content
+        var firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/_search?q=reactive&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(PostSummary.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(PostSummary::getId).containsExactly(inTitle.getId());
+        assertThat(firstPage.getResponseBody().get(0).getRank()).isPositive();
+
+        String link = firstPage.getResponseHeaders().getFirst("Link");
+        assertThat(link).contains("rel=\"next\"");
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        webTestClient
+            .get()
+            .uri(URI.create(next))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(PostSummary.class)
+            .value(hits -> assertThat(hits).extracting(PostSummary::getId).containsExactly(inContent.getId()));
+    }
+
+    @Test
+    void searchPostsWithEmptyQuery() {
+        webTestClient.get().uri(ENTITY_API_URL + "/_search?q= ").accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getAllPostsWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=invalid&sort=date,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllPostsWithEagerLoadedTags() {
+        // Initialize the database
+        Tag tag = tagRepository.save(TagResourceIT.createEntity()).block();
+        insertedPost = postRepository.save(post.addTag(tag)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?eagerload=true&sort=id,desc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[?(@.id == " + insertedPost.getId() + ")].tags[*].id")
+            .value(hasItem(tag.getId().intValue()));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedPost.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.tags[*].id")
+            .value(hasItem(tag.getId().intValue()));
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllPostsWithEagerRelationshipsIsEnabled() {
         when(postRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(Flux.empty());
@@ -316,7 +612,7 @@ class PostResourceIT {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         post.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, post.getId())
@@ -324,7 +620,7 @@ class PostResourceIT {
             .bodyValue(om.writeValueAsBytes(post))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Post in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
@@ -424,12 +720,55 @@ class PostResourceIT {
         assertPostUpdatableFieldsEquals(partialUpdatedPost, getPersistedPost(partialUpdatedPost));
     }
 
+    @Test
+    void updateTagsOfPost() {
+        // Initialize the database
+        Tag tagA = tagRepository.save(TagResourceIT.createEntity()).block();
+        Tag tagB = tagRepository.save(TagResourceIT.createEntity()).block();
+        Tag tagC = tagRepository.save(TagResourceIT.createEntity()).block();
+        insertedPost = postRepository.save(post.addTag(tagA).addTag(tagB)).block();
+
+        // Replace tag A with tag C
+        insertedPost.setTags(new HashSet<>(Set.of(tagB, tagC)));
+        postRepository.save(insertedPost).block();
+
+        assertThat(em.selectFromLinkTable(POST_TAG_LINK, insertedPost.getId()).collectList().block()).containsExactlyInAnyOrder(
+            tagB.getId(),
+            tagC.getId()
+        );
+
+        // Saving the same tags does not change the links
+        assertThat(em.updateLinkTable(POST_TAG_LINK, insertedPost.getId(), Stream.of(tagB.getId(), tagC.getId())).block()).isZero();
+    }
+
+    @Test
+    void partialUpdatePostKeepsTags() throws Exception {
+        // Initialize the database
+        Tag tag = tagRepository.save(TagResourceIT.createEntity()).block();
+        insertedPost = postRepository.save(post.addTag(tag)).block();
+
+        Post partialUpdatedPost = new Post();
+        partialUpdatedPost.setId(post.getId());
+        partialUpdatedPost.title(UPDATED_TITLE);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedPost.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(om.writeValueAsBytes(partialUpdatedPost))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(em.selectFromLinkTable(POST_TAG_LINK, insertedPost.getId()).collectList().block()).containsExactly(tag.getId());
+    }
+
     @Test
     void patchNonExistingPost() throws Exception {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         post.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, post.getId())
@@ -437,7 +776,7 @@ class PostResourceIT {
             .bodyValue(om.writeValueAsBytes(post))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Post in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
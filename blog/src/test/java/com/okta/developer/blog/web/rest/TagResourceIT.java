@@ -9,8 +9,10 @@ import static org.springframework.security.test.web.reactive.server.SecurityMock
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.okta.developer.blog.IntegrationTest;
+import com.okta.developer.blog.domain.Post;
 import com.okta.developer.blog.domain.Tag;
 import com.okta.developer.blog.repository.EntityManager;
+import com.okta.developer.blog.repository.PostRepository;
 import com.okta.developer.blog.repository.TagRepository;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -19,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -46,6 +49,9 @@ class TagResourceIT {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private PostRepository postRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -96,6 +102,7 @@ class TagResourceIT {
 
     @AfterEach
     public void cleanup() {
+        PostResourceIT.deleteEntities(em);
         if (insertedTag != null) {
             tagRepository.delete(insertedTag).block();
             insertedTag = null;
@@ -189,6 +196,52 @@ class TagResourceIT {
             .value(hasItem(DEFAULT_NAME));
     }
 
+    @Test
+    void getAllTagsAsStream() {
+        // Initialize the database
+        insertedTag = tagRepository.save(tag).block();
+
+        var tags = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Tag.class)
+            .getResponseBody()
+            .filter(t -> tag.getId().equals(t.getId()))
+            .collectList()
+            .block();
+
+        assertThat(tags).singleElement().satisfies(t -> assertThat(t.getName()).isEqualTo(DEFAULT_NAME));
+    }
+
+    @Test
+    void exportTags() {
+        // Initialize the database
+        insertedTag = tagRepository.save(tag.name("a, \"b\"")).block();
+
+        var csv = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.valueOf("text/csv"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.valueOf("text/csv"))
+            .expectHeader()
+            .valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tags.csv\"")
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(csv).startsWith("id,name\r\n").contains(tag.getId() + ",\"a, \"\"b\"\"\"\r\n");
+    }
+
     @Test
     void getTag() {
         // Initialize the database
@@ -223,6 +276,58 @@ class TagResourceIT {
             .isNotFound();
     }
 
+    @Test
+    void getPostsOfTag() {
+        // Initialize the database
+        insertedTag = tagRepository.save(tag).block();
+        Post first = postRepository.save(PostResourceIT.createEntity().addTag(tag)).block();
+        Post second = postRepository.save(PostResourceIT.createEntity().addTag(tag)).block();
+        postRepository.save(PostResourceIT.createEntity()).block();
+
+        // Get all the posts of the tag
+        var posts = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "/posts", tag.getId())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Post.class)
+            .getResponseBody()
+            .map(Post::getId)
+            .collectList()
+            .block();
+        assertThat(posts).containsExactly(first.getId(), second.getId());
+
+        // Resume after the first post
+        var remaining = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "/posts?after={after}", tag.getId(), first.getId())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Post.class)
+            .getResponseBody()
+            .map(Post::getId)
+            .collectList()
+            .block();
+        assertThat(remaining).containsExactly(second.getId());
+    }
+
+    @Test
+    void getPostsOfNonExistingTag() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "/posts", Long.MAX_VALUE)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isNotFound();
+    }
+
     @Test
     void putExistingTag() throws Exception {
         // Initialize the database
@@ -253,7 +358,7 @@ class TagResourceIT {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         tag.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, tag.getId())
@@ -261,7 +366,7 @@ class TagResourceIT {
             .bodyValue(om.writeValueAsBytes(tag))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Tag in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
@@ -366,7 +471,7 @@ class TagResourceIT {
         long databaseSizeBeforeUpdate = getRepositoryCount();
         tag.setId(longCount.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // There is no entity with the ID, so the update finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, tag.getId())
@@ -374,7 +479,7 @@ class TagResourceIT {
             .bodyValue(om.writeValueAsBytes(tag))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Tag in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
@@ -1,5 +1,7 @@
 package com.okta.developer.gateway.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +12,214 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final AccountSync accountSync = new AccountSync();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final OidcKeys oidcKeys = new OidcKeys();
+
+    private final UserInfo userInfo = new UserInfo();
+
     // jhipster-needle-application-properties-property
 
+    public AccountSync getAccountSync() {
+        return accountSync;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public OidcKeys getOidcKeys() {
+        return oidcKeys;
+    }
+
+    public UserInfo getUserInfo() {
+        return userInfo;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    public static class AccountSync {
+
+        /**
+         * Maximum number of users whose synchronization with the identity provider is remembered.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Time after which a user is synchronized again, even if its claims did not change.
+         */
+        private Duration timeToLive = Duration.ofHours(1);
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class JwtCache {
+
+        /**
+         * Maximum number of validated bearer tokens kept, so their signature is not verified again.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Time before their expiration at which the tokens are evicted, the clock skew tolerated by the validation of the tokens.
+         */
+        private Duration clockSkew = Duration.ofSeconds(60);
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getClockSkew() {
+            return clockSkew;
+        }
+
+        public void setClockSkew(Duration clockSkew) {
+            this.clockSkew = clockSkew;
+        }
+    }
+
+    public static class UserInfo {
+
+        /**
+         * Maximum number of subjects whose user info is kept.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Time after which the user info of a subject is requested again.
+         */
+        private Duration timeToLive = Duration.ofHours(1);
+
+        /**
+         * Maximum number of connections to the user info endpoint.
+         */
+        private int maxConnections = 50;
+
+        /**
+         * Timeout of the connections to the user info endpoint.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Timeout of the responses of the user info endpoint, also the time waited for a connection of the pool.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+    }
+
+    public static class OidcKeys {
+
+        /**
+         * File of the last signing keys of the IdP, loaded at startup so the application does not wait for the IdP; none if unset.
+         */
+        private Path snapshotFile;
+
+        /**
+         * Interval of the background refreshes of the keys.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Minimum interval of the refreshes triggered by the tokens signed with an unknown key.
+         */
+        private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+        /**
+         * Timeout of the connections to the IdP and of its responses.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public Path getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getMinRefreshInterval() {
+            return minRefreshInterval;
+        }
+
+        public void setMinRefreshInterval(Duration minRefreshInterval) {
+            this.minRefreshInterval = minRefreshInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -4,24 +4,24 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.oauth2.core.oidc.StandardClaimNames.PREFERRED_USERNAME;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.okta.developer.gateway.security.AuthoritiesConstants;
 import com.okta.developer.gateway.security.SecurityUtils;
 import com.okta.developer.gateway.security.oauth2.AudienceValidator;
+import com.okta.developer.gateway.security.oauth2.CachingReactiveJwtDecoder;
+import com.okta.developer.gateway.security.oauth2.OidcKeySource;
+import com.okta.developer.gateway.security.oauth2.UserInfoEnricher;
 import com.okta.developer.gateway.web.filter.SpaWebFilter;
-import java.time.Duration;
-import java.util.Arrays;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
@@ -29,7 +29,6 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcReactiveOAuth2UserService;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
-import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
 import org.springframework.security.oauth2.client.userinfo.ReactiveOAuth2UserService;
 import org.springframework.security.oauth2.client.web.server.DefaultServerOAuth2AuthorizationRequestResolver;
@@ -52,6 +51,8 @@ import org.springframework.security.web.server.util.matcher.OrServerWebExchangeM
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.web.filter.reactive.CookieCsrfFilter;
 
@@ -66,14 +67,6 @@ public class SecurityConfiguration {
 
     private final ReactiveClientRegistrationRepository clientRegistrationRepository;
 
-    // See https://github.com/jhipster/generator-jhipster/issues/18868
-    // We don't use a distributed cache or the user selected cache implementation here on purpose
-    private final Cache<String, Mono<Jwt>> users = Caffeine.newBuilder()
-        .maximumSize(10_000)
-        .expireAfterWrite(Duration.ofHours(1))
-        .recordStats()
-        .build();
-
     public SecurityConfiguration(ReactiveClientRegistrationRepository clientRegistrationRepository, JHipsterProperties jHipsterProperties) {
         this.clientRegistrationRepository = clientRegistrationRepository;
         this.jHipsterProperties = jHipsterProperties;
@@ -206,75 +199,90 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    ReactiveJwtDecoder jwtDecoder(ReactiveClientRegistrationRepository registrations) {
-        Mono<ClientRegistration> clientRegistration = registrations.findByRegistrationId("oidc");
-
-        return clientRegistration
-            .map(oidc ->
-                createJwtDecoder(
-                    oidc.getProviderDetails().getIssuerUri(),
-                    oidc.getProviderDetails().getJwkSetUri(),
-                    oidc.getProviderDetails().getUserInfoEndpoint().getUri()
-                )
-            )
-            .block();
+    OidcKeySource oidcKeySource(ApplicationProperties applicationProperties, WebClient.Builder webClientBuilder) {
+        ApplicationProperties.OidcKeys oidcKeys = applicationProperties.getOidcKeys();
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) oidcKeys.getTimeout().toMillis())
+            .responseTimeout(oidcKeys.getTimeout());
+        return new OidcKeySource(
+            issuerUri,
+            webClientBuilder.clone().clientConnector(new ReactorClientHttpConnector(httpClient)).build(),
+            oidcKeys.getSnapshotFile(),
+            oidcKeys.getRefreshInterval(),
+            oidcKeys.getMinRefreshInterval()
+        );
     }
 
-    private ReactiveJwtDecoder createJwtDecoder(String issuerUri, String jwkSetUri, String userInfoUri) {
-        NimbusReactiveJwtDecoder jwtDecoder = new NimbusReactiveJwtDecoder(jwkSetUri);
+    @Bean
+    ReactiveJwtDecoder jwtDecoder(
+        ReactiveClientRegistrationRepository registrations,
+        OidcKeySource oidcKeySource,
+        ApplicationProperties applicationProperties,
+        WebClient.Builder webClientBuilder,
+        @Qualifier("userInfoConnectionProvider") ConnectionProvider userInfoConnectionProvider,
+        MeterRegistry meterRegistry
+    ) {
+        // the keys are fetched in the background, not during the startup
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withJwkSource(oidcKeySource::getKeys).build();
         OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(jHipsterProperties.getSecurity().getOauth2().getAudience());
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuerUri);
         OAuth2TokenValidator<Jwt> withAudience = new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator);
 
         jwtDecoder.setJwtValidator(withAudience);
 
-        return new ReactiveJwtDecoder() {
-            @Override
-            public Mono<Jwt> decode(String token) throws JwtException {
-                return jwtDecoder.decode(token).flatMap(jwt -> enrich(token, jwt));
-            }
+        // the signature of a token is verified once, the user info is looked up for the validated tokens
+        ApplicationProperties.JwtCache jwtCache = applicationProperties.getJwtCache();
+        ReactiveJwtDecoder cachingJwtDecoder = new CachingReactiveJwtDecoder(
+            jwtDecoder,
+            jwtCache.getCacheSize(),
+            jwtCache.getClockSkew(),
+            meterRegistry
+        );
 
-            private Mono<Jwt> enrich(String token, Jwt jwt) {
-                // Only look up user information if identity claims are missing
-                if (jwt.hasClaim("given_name") && jwt.hasClaim("family_name")) {
-                    return Mono.just(jwt);
-                }
-                // Get user info from `users` cache if present
-                return Optional.ofNullable(users.getIfPresent(jwt.getSubject())).orElseGet(() -> // Retrieve user info from OAuth provider if not already loaded
-                    WebClient.create()
-                        .get()
-                        .uri(userInfoUri)
-                        .headers(headers -> headers.setBearerAuth(token))
-                        .retrieve()
-                        .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                        .map(userInfo ->
-                            Jwt.withTokenValue(jwt.getTokenValue())
-                                .subject(jwt.getSubject())
-                                .audience(jwt.getAudience())
-                                .headers(headers -> headers.putAll(jwt.getHeaders()))
-                                .claims(claims -> {
-                                    String username = userInfo.get("preferred_username").toString();
-                                    // special handling for Auth0
-                                    if (userInfo.get("sub").toString().contains("|") && username.contains("@")) {
-                                        userInfo.put("email", username);
-                                    }
-                                    // Allow full name in a name claim - happens with Auth0
-                                    if (userInfo.get("name") != null) {
-                                        String[] name = userInfo.get("name").toString().split("\\s+");
-                                        if (name.length > 0) {
-                                            userInfo.put("given_name", name[0]);
-                                            userInfo.put("family_name", String.join(" ", Arrays.copyOfRange(name, 1, name.length)));
-                                        }
-                                    }
-                                    claims.putAll(userInfo);
-                                })
-                                .claims(claims -> claims.putAll(jwt.getClaims()))
-                                .build()
-                        )
-                        // Put user info into the `users` cache
-                        .doOnNext(newJwt -> users.put(jwt.getSubject(), Mono.just(newJwt)))
-                );
-            }
-        };
+        // the user info endpoint of the registration is looked up with the first token, without blocking
+        ApplicationProperties.UserInfo userInfo = applicationProperties.getUserInfo();
+        WebClient userInfoWebClient = userInfoWebClient(webClientBuilder, userInfoConnectionProvider, userInfo);
+        Mono<UserInfoEnricher> userInfoEnricher = registrations
+            .findByRegistrationId("oidc")
+            .map(oidc ->
+                new UserInfoEnricher(
+                    userInfoWebClient,
+                    oidc.getProviderDetails().getUserInfoEndpoint().getUri(),
+                    userInfo.getCacheSize(),
+                    userInfo.getTimeToLive(),
+                    meterRegistry
+                )
+            )
+            .cache();
+
+        return token ->
+            cachingJwtDecoder.decode(token).flatMap(jwt -> userInfoEnricher.flatMap(enricher -> enricher.enrich(token, jwt)));
+    }
+
+    /**
+     * The pool of connections of the user info endpoint, so a slow IdP does not hold the requests of the gateway. It is a bean so
+     * its connections are closed with the context.
+     */
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider userInfoConnectionProvider(ApplicationProperties applicationProperties) {
+        ApplicationProperties.UserInfo userInfo = applicationProperties.getUserInfo();
+        return ConnectionProvider.builder("userinfo")
+            .maxConnections(userInfo.getMaxConnections())
+            .pendingAcquireTimeout(userInfo.getResponseTimeout())
+            .build();
+    }
+
+    /**
+     * The client of the user info endpoint, with its own pool of connections and timeouts.
+     */
+    private static WebClient userInfoWebClient(
+        WebClient.Builder webClientBuilder,
+        ConnectionProvider connectionProvider,
+        ApplicationProperties.UserInfo userInfo
+    ) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) userInfo.getConnectTimeout().toMillis())
+            .responseTimeout(userInfo.getResponseTimeout());
+        return webClientBuilder.clone().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
     }
 }
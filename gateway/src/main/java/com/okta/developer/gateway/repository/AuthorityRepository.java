@@ -1,12 +1,52 @@
 package com.okta.developer.gateway.repository;
 
 import com.okta.developer.gateway.domain.Authority;
+import java.util.Collection;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data R2DBC repository for the Authority entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AuthorityRepository extends R2dbcRepository<Authority, String> {}
+public interface AuthorityRepository extends R2dbcRepository<Authority, String>, AuthorityRepositoryInternal {}
+
+interface AuthorityRepositoryInternal {
+    /**
+     * Inserts authorities with a single statement, ignoring the existing ones on Postgres.
+     *
+     * @param names the names of the authorities, not empty.
+     * @return a completed {@link Mono}.
+     */
+    Mono<Void> insertAll(Collection<String> names);
+}
+
+class AuthorityRepositoryInternalImpl implements AuthorityRepositoryInternal {
+
+    private final DatabaseClient db;
+    private final String onConflictDoNothing;
+
+    public AuthorityRepositoryInternalImpl(DatabaseClient db, R2dbcDialect dialect) {
+        this.db = db;
+        this.onConflictDoNothing = dialect instanceof PostgresDialect ? " ON CONFLICT DO NOTHING" : "";
+    }
+
+    @Override
+    public Mono<Void> insertAll(Collection<String> names) {
+        StringBuilder sql = new StringBuilder("INSERT INTO jhi_authority (name) VALUES ");
+        for (int i = 0; i < names.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:name").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.append(onConflictDoNothing).toString());
+        int i = 0;
+        for (String name : names) {
+            spec = spec.bind("name" + i++, name);
+        }
+        return spec.then();
+    }
+}
@@ -2,14 +2,18 @@ package com.okta.developer.gateway.repository;
 
 import com.okta.developer.gateway.domain.Authority;
 import com.okta.developer.gateway.domain.User;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.r2dbc.core.DatabaseClient;
@@ -40,6 +44,12 @@ public interface UserRepository extends R2dbcRepository<User, String>, UserRepos
 
     @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId")
     Mono<Void> deleteUserAuthorities(String userId);
+
+    @Query("SELECT authority_name FROM jhi_user_authority WHERE user_id = :userId")
+    Flux<String> findAuthorityNamesByUserId(String userId);
+
+    @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId AND authority_name NOT IN (:authorities)")
+    Mono<Void> deleteUserAuthoritiesNotIn(String userId, Collection<String> authorities);
 }
 
 interface UserRepositoryInternal {
@@ -47,19 +57,54 @@ interface UserRepositoryInternal {
 
     Mono<User> create(User user);
 
+    /**
+     * Inserts the authorities of a user with a single statement, ignoring the ones it already has on Postgres.
+     *
+     * @param userId the id of the user.
+     * @param authorities the names of the authorities, not empty.
+     * @return a completed {@link Mono}.
+     */
+    Mono<Void> saveUserAuthorities(String userId, Collection<String> authorities);
+
     Flux<User> findAllWithAuthorities(Pageable pageable);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+        "id",
+        "id",
+        "login",
+        "login",
+        "firstName",
+        "first_name",
+        "lastName",
+        "last_name",
+        "email",
+        "email",
+        "activated",
+        "activated",
+        "langKey",
+        "lang_key",
+        "imageUrl",
+        "image_url"
+    );
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
-
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    private final String onConflictDoNothing;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        R2dbcDialect dialect
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.onConflictDoNothing = dialect instanceof PostgresDialect ? " ON CONFLICT DO NOTHING" : "";
     }
 
     @Override
@@ -69,28 +114,19 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
-
-        return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+        StringBuilder sql = new StringBuilder("SELECT * FROM jhi_user u ORDER BY ").append(createOrderBy(pageable.getSort()));
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.toString());
+        if (pageable.isPaged()) {
+            spec = spec.bind("limit", pageable.getPageSize()).bind("offset", pageable.getOffset());
+        }
+        return spec
+            .map((row, metadata) -> r2dbcConverter.read(User.class, row, metadata))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .collectList()
+            .flatMapMany(this::fetchAuthorities);
     }
 
     @Override
@@ -98,6 +134,20 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
         return r2dbcEntityTemplate.insert(User.class).using(user).defaultIfEmpty(user);
     }
 
+    @Override
+    public Mono<Void> saveUserAuthorities(String userId, Collection<String> authorities) {
+        StringBuilder sql = new StringBuilder("INSERT INTO jhi_user_authority (user_id, authority_name) VALUES ");
+        for (int i = 0; i < authorities.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:userId, :authority").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.append(onConflictDoNothing).toString()).bind("userId", userId);
+        int i = 0;
+        for (String authority : authorities) {
+            spec = spec.bind("authority" + i++, authority);
+        }
+        return spec.then();
+    }
+
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
         return db
             .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
@@ -111,6 +161,42 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
     }
 
+    /**
+     * Create the order by clause, restricted to the columns of {@code jhi_user} and ending with the id so the pages are stable.
+     */
+    private static String createOrderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Users cannot be sorted by " + order.getProperty());
+            }
+            orderBy.append("u.").append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+        }
+        if (sort.getOrderFor("id") == null) {
+            return orderBy.append("u.id ASC").toString();
+        }
+        return orderBy.substring(0, orderBy.length() - 2);
+    }
+
+    private Flux<User> fetchAuthorities(List<User> users) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+        Map<String, User> usersById = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        return db
+            .sql("SELECT user_id, authority_name FROM jhi_user_authority WHERE user_id IN (:userIds)")
+            .bind("userIds", usersById.keySet())
+            .map((row, metadata) -> Tuples.of(row.get("user_id", String.class), row.get("authority_name", String.class)))
+            .all()
+            .doOnNext(t -> {
+                Authority authority = new Authority();
+                authority.setName(t.getT2());
+                usersById.get(t.getT1()).getAuthorities().add(authority);
+            })
+            .thenMany(Flux.fromIterable(users));
+    }
+
     private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
         user.setAuthorities(
             tuples
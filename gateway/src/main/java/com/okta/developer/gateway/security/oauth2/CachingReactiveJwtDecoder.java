@@ -0,0 +1,108 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveJwtDecoder} caching the tokens decoded and validated by its delegate, so the signature of a token is verified
+ * once, not on every request carrying it.
+ * <p>
+ * The tokens are keyed by their SHA-256 hash and expire at their {@code exp} claim minus the clock skew, before the validator of
+ * the delegate would reject them; the tokens without {@code exp} and the rejected ones are not cached. The cache is exposed as the
+ * {@code cache.*} metrics of the {@code jwt} cache, the decoding of the delegate as the {@code jwt.verification} timer.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final Duration clockSkew;
+
+    private final Cache<String, Jwt> tokens;
+
+    private final Timer verificationSuccess;
+
+    private final Timer verificationFailure;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, Duration clockSkew, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.clockSkew = clockSkew;
+        this.tokens = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new TokenExpiry()).recordStats().build();
+        this.verificationSuccess = verificationTimer("success", registry);
+        this.verificationFailure = verificationTimer("failure", registry);
+        CaffeineCacheMetrics.monitor(registry, tokens, "jwt");
+    }
+
+    private static Timer verificationTimer(String outcome, MeterRegistry registry) {
+        return Timer.builder("jwt.verification")
+            .description("Time taken to decode, verify and validate the tokens missing from the cache")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        return Mono.defer(() -> {
+            String key = hash(token);
+            Jwt cached = tokens.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long start = System.nanoTime();
+            return delegate
+                .decode(token)
+                .doOnNext(jwt -> {
+                    verificationSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                    Instant expiresAt = expiresAt(jwt);
+                    if (expiresAt != null && Instant.now().isBefore(expiresAt)) {
+                        tokens.put(key, jwt);
+                    }
+                })
+                .doOnError(e -> verificationFailure.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Instant expiresAt(Jwt jwt) {
+        return jwt.getExpiresAt() != null ? jwt.getExpiresAt().minus(clockSkew) : null;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class TokenExpiry implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            return Math.max(Duration.between(Instant.now(), expiresAt(jwt)).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jwt.SignedJWT;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The signing keys of the IdP, for {@link org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder#withJwkSource}.
+ * <p>
+ * The keys are loaded from the snapshot file at startup, then refreshed in the background from the JWK set of the OIDC metadata
+ * of the issuer, and saved to the snapshot file, so the startup does not wait for the IdP. A token signed with an unknown key
+ * refreshes the keys at once, as the IdP may have rotated them: the concurrent requests share a single refresh, and the unknown
+ * keys refresh them at most once per minimum refresh interval, so forged tokens cannot flood the IdP. Nothing blocks: the
+ * requests arriving before the first keys wait for them.
+ */
+public class OidcKeySource implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OidcKeySource.class);
+
+    private final String issuerUri;
+    private final WebClient webClient;
+    private final Path snapshotFile;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final AtomicReference<CompletableFuture<JWKSet>> pendingRefresh = new AtomicReference<>();
+    private volatile JWKSet keys;
+    private volatile long refreshedAt;
+    private Disposable refreshes;
+
+    /**
+     * Create the key source.
+     * @param issuerUri the issuer of the tokens.
+     * @param webClient the client of the OIDC metadata and of the JWK set.
+     * @param snapshotFile the file of the last keys, {@code null} for none.
+     * @param refreshInterval the interval of the background refreshes.
+     * @param minRefreshInterval the minimum interval of the refreshes triggered by the unknown keys.
+     */
+    public OidcKeySource(String issuerUri, WebClient webClient, Path snapshotFile, Duration refreshInterval, Duration minRefreshInterval) {
+        this.issuerUri = issuerUri;
+        this.webClient = webClient;
+        this.snapshotFile = snapshotFile;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.refreshedAt = System.nanoTime() - minRefreshInterval.toNanos();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        loadSnapshot();
+        refreshes = Flux.interval(Duration.ZERO, refreshInterval)
+            .onBackpressureDrop()
+            .concatMap(
+                tick ->
+                    refresh()
+                        .doOnError(e -> LOG.warn("Could not refresh the keys of {}: {}", issuerUri, e.toString()))
+                        .onErrorComplete(),
+                1
+            )
+            .subscribe();
+    }
+
+    /**
+     * @param jwt the token.
+     * @return the keys matching the header of the token, refreshed if none matches.
+     */
+    public Flux<JWK> getKeys(SignedJWT jwt) {
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(jwt.getHeader());
+        if (matcher == null) {
+            return Flux.empty();
+        }
+        JWKSelector selector = new JWKSelector(matcher);
+        JWKSet current = keys;
+        Mono<List<JWK>> matches;
+        if (current == null) {
+            matches = refresh().map(selector::select);
+        } else {
+            List<JWK> known = selector.select(current);
+            matches = known.isEmpty() ? refreshForUnknownKey(current).map(selector::select) : Mono.just(known);
+        }
+        return matches.flatMapMany(Flux::fromIterable);
+    }
+
+    private Mono<JWKSet> refreshForUnknownKey(JWKSet current) {
+        if (pendingRefresh.get() == null && System.nanoTime() - refreshedAt < minRefreshInterval.toNanos()) {
+            return Mono.just(current);
+        }
+        LOG.debug("Refreshing the keys of {} for an unknown key", issuerUri);
+        return refresh()
+            .doOnError(e -> LOG.warn("Could not refresh the keys of {}: {}", issuerUri, e.toString()))
+            .onErrorReturn(current);
+    }
+
+    /**
+     * @return the keys of the issuer, from the refresh in progress if any, else from a new one.
+     */
+    Mono<JWKSet> refresh() {
+        return Mono.defer(() -> {
+            CompletableFuture<JWKSet> pending;
+            do {
+                pending = pendingRefresh.get();
+                if (pending == null) {
+                    CompletableFuture<JWKSet> refresh = new CompletableFuture<>();
+                    if (pendingRefresh.compareAndSet(null, refresh)) {
+                        fetch()
+                            .subscribe(
+                                fetched -> {
+                                    keys = fetched;
+                                    refreshedAt = System.nanoTime();
+                                    pendingRefresh.set(null);
+                                    refresh.complete(fetched);
+                                },
+                                e -> {
+                                    pendingRefresh.set(null);
+                                    refresh.completeExceptionally(e);
+                                }
+                            );
+                        pending = refresh;
+                    }
+                }
+            } while (pending == null);
+            // the refresh is shared, it is not cancelled with a request
+            return Mono.fromFuture(pending, true);
+        });
+    }
+
+    private Mono<JWKSet> fetch() {
+        String metadataUri = (issuerUri.endsWith("/") ? issuerUri : issuerUri + "/") + ".well-known/openid-configuration";
+        return webClient
+            .get()
+            .uri(URI.create(metadataUri))
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+            .flatMap(metadata -> {
+                if (!issuerUri.equals(metadata.get("issuer"))) {
+                    return Mono.error(new IllegalStateException("The issuer of the metadata is not " + issuerUri));
+                }
+                String jwksUri = (String) metadata.get("jwks_uri");
+                return webClient
+                    .get()
+                    .uri(URI.create(jwksUri))
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .<JWKSet>handle((body, sink) -> {
+                        try {
+                            sink.next(JWKSet.parse(body));
+                        } catch (ParseException e) {
+                            sink.error(new IllegalStateException("Invalid JWK set at " + jwksUri, e));
+                        }
+                    })
+                    .flatMap(fetched -> saveSnapshot(jwksUri, fetched).thenReturn(fetched));
+            })
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException("No keys for " + issuerUri)));
+    }
+
+    void loadSnapshot() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+        try {
+            Map<String, Object> snapshot = JSONObjectUtils.parse(Files.readString(snapshotFile));
+            if (issuerUri.equals(snapshot.get("issuer"))) {
+                keys = JWKSet.parse(snapshot);
+                LOG.info("Loaded {} keys of {} from {}", keys.getKeys().size(), issuerUri, snapshotFile);
+            }
+        } catch (IOException | ParseException e) {
+            LOG.warn("Could not load the keys of {} from {}: {}", issuerUri, snapshotFile, e.toString());
+        }
+    }
+
+    private Mono<Void> saveSnapshot(String jwksUri, JWKSet fetched) {
+        if (snapshotFile == null) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> {
+            Map<String, Object> snapshot = fetched.toJSONObject(true);
+            snapshot.put("issuer", issuerUri);
+            snapshot.put("jwks_uri", jwksUri);
+            try {
+                Path directory = snapshotFile.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                // written to a temporary file first, so a crash cannot leave a truncated snapshot
+                Path temporary = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+                Files.writeString(temporary, JSONObjectUtils.toJSONString(snapshot), StandardCharsets.UTF_8);
+                Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOG.warn("Could not save the keys of {} to {}: {}", issuerUri, snapshotFile, e.toString());
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+}
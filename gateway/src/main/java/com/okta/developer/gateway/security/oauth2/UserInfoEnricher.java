@@ -0,0 +1,93 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds the claims of the user info endpoint to the access tokens missing the identity claims, e.g. the access tokens of Auth0.
+ * <p>
+ * The user info is cached by subject, as a value: the concurrent requests of a subject missing from the cache share a single
+ * request to the user info endpoint, a failed one is not cached. The cache is exposed as the {@code cache.*} metrics of the
+ * {@code userInfo} cache.
+ */
+public class UserInfoEnricher {
+
+    private final WebClient webClient;
+
+    private final String userInfoUri;
+
+    // See https://github.com/jhipster/generator-jhipster/issues/18868
+    // We don't use a distributed cache or the user selected cache implementation here on purpose
+    private final AsyncCache<String, Map<String, Object>> users;
+
+    public UserInfoEnricher(WebClient webClient, String userInfoUri, long maximumSize, Duration timeToLive, MeterRegistry registry) {
+        this.webClient = webClient;
+        this.userInfoUri = userInfoUri;
+        this.users = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(registry, users, "userInfo");
+    }
+
+    /**
+     * @param token the access token, sent to the user info endpoint.
+     * @param jwt the decoded access token.
+     * @return the decoded access token, with the claims of the user info if its identity claims are missing.
+     */
+    public Mono<Jwt> enrich(String token, Jwt jwt) {
+        // Only look up user information if identity claims are missing
+        if (jwt.hasClaim("given_name") && jwt.hasClaim("family_name")) {
+            return Mono.just(jwt);
+        }
+        return Mono.deferContextual(context -> {
+            CompletableFuture<Map<String, Object>> userInfo = users.get(jwt.getSubject(), (subject, executor) ->
+                fetchUserInfo(token).contextWrite(context).toFuture()
+            );
+            // the request is not cancelled with the one which started it, the other requests of the subject may wait for it; a
+            // failed one is removed before the error is signalled, so the next request retries it
+            return Mono.fromFuture(userInfo, true).doOnError(e -> users.asMap().remove(jwt.getSubject(), userInfo));
+        }).map(userInfo ->
+            Jwt.withTokenValue(jwt.getTokenValue())
+                .subject(jwt.getSubject())
+                .audience(jwt.getAudience())
+                .headers(headers -> headers.putAll(jwt.getHeaders()))
+                .claims(claims -> claims.putAll(userInfo))
+                .claims(claims -> claims.putAll(jwt.getClaims()))
+                .build()
+        );
+    }
+
+    private Mono<Map<String, Object>> fetchUserInfo(String token) {
+        return webClient
+            .get()
+            .uri(userInfoUri)
+            .headers(headers -> headers.setBearerAuth(token))
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+            .map(userInfo -> {
+                String username = userInfo.get("preferred_username").toString();
+                // special handling for Auth0
+                if (userInfo.get("sub").toString().contains("|") && username.contains("@")) {
+                    userInfo.put("email", username);
+                }
+                // Allow full name in a name claim - happens with Auth0
+                if (userInfo.get("name") != null) {
+                    String[] name = userInfo.get("name").toString().split("\\s+");
+                    if (name.length > 0) {
+                        userInfo.put("given_name", name[0]);
+                        userInfo.put("family_name", String.join(" ", Arrays.copyOfRange(name, 1, name.length)));
+                    }
+                }
+                return Collections.unmodifiableMap(userInfo);
+            });
+    }
+}
@@ -1,5 +1,8 @@
 package com.okta.developer.gateway.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.okta.developer.gateway.config.ApplicationProperties;
 import com.okta.developer.gateway.config.Constants;
 import com.okta.developer.gateway.domain.Authority;
 import com.okta.developer.gateway.domain.User;
@@ -19,7 +22,11 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -35,9 +42,32 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository) {
+    private final KnownAuthorities knownAuthorities;
+
+    private final TransactionalOperator syncTransaction;
+
+    // the users synchronized with the IdP, by subject and version of their claims; a pending synchronization is shared by the
+    // concurrent requests of the same user, a failed one is removed so the next request retries it
+    private final AsyncCache<SyncKey, User> syncedUsers;
+
+    public UserService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        KnownAuthorities knownAuthorities,
+        ReactiveTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
+        this.knownAuthorities = knownAuthorities;
+        this.syncTransaction = TransactionalOperator.create(
+            transactionManager,
+            new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+        );
+        this.syncedUsers = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getAccountSync().getCacheSize())
+            .expireAfterWrite(applicationProperties.getAccountSync().getTimeToLive())
+            .buildAsync();
     }
 
     /**
@@ -53,7 +83,8 @@ public class UserService {
     @Transactional
     public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
         return SecurityUtils.getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
+            // with its authorities, which are saved with it
+            .flatMap(userRepository::findOneWithAuthoritiesByLogin)
             .flatMap(user -> {
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
@@ -73,8 +104,24 @@ public class UserService {
         return saveUser(user, false);
     }
 
+    /**
+     * Saves a user and its authorities: the authorities it has in the database and not in {@link User#getAuthorities()} are
+     * deleted, the missing ones inserted, each with a single statement.
+     *
+     * @param user the user.
+     * @param forceCreate whether the user is inserted, although it has an id.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user, boolean forceCreate) {
+        return saveUser(
+            user,
+            forceCreate,
+            forceCreate ? Mono.just(Set.of()) : userRepository.findAuthorityNamesByUserId(user.getId()).collect(Collectors.toSet())
+        );
+    }
+
+    private Mono<User> saveUser(User user, boolean forceCreate, Mono<Set<String>> currentAuthorities) {
         return SecurityUtils.getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
             .flatMap(login -> {
@@ -90,14 +137,26 @@ public class UserService {
                 } else {
                     persistedUser = userRepository.save(user);
                 }
+                Set<String> authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
                 return persistedUser.flatMap(savedUser ->
-                    Flux.fromIterable(user.getAuthorities())
-                        .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
+                    currentAuthorities
+                        .flatMap(current -> saveUserAuthorities(savedUser.getId(), authorities, current))
                         .then(Mono.just(savedUser))
                 );
             });
     }
 
+    private Mono<Void> saveUserAuthorities(String userId, Set<String> authorities, Set<String> existing) {
+        Mono<Void> deleted = Mono.empty();
+        if (!authorities.containsAll(existing)) {
+            deleted = authorities.isEmpty()
+                ? userRepository.deleteUserAuthorities(userId)
+                : userRepository.deleteUserAuthoritiesNotIn(userId, authorities);
+        }
+        List<String> missing = authorities.stream().filter(authority -> !existing.contains(authority)).toList();
+        return missing.isEmpty() ? deleted : deleted.then(userRepository.saveUserAuthorities(userId, missing));
+    }
+
     @Transactional(readOnly = true)
     public Flux<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
         return userRepository.findAllWithAuthorities(pageable).map(AdminUserDTO::new);
@@ -129,57 +188,80 @@ public class UserService {
 
     private Mono<User> syncUserWithIdP(Map<String, Object> details, User user) {
         // save authorities in to sync user roles/groups between IdP and JHipster's local database
-        Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).toList();
+        Set<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
 
-        return getAuthorities()
-            .collectList()
-            .flatMapMany(dbAuthorities -> {
-                List<Authority> authoritiesToSave = userAuthorities
-                    .stream()
-                    .filter(authority -> !dbAuthorities.contains(authority))
-                    .map(authority -> {
-                        Authority authorityToSave = new Authority();
-                        authorityToSave.setName(authority);
-                        return authorityToSave;
-                    })
-                    .toList();
-                return Flux.fromIterable(authoritiesToSave);
-            })
-            .doOnNext(authority -> LOG.debug("Saving authority '{}' in local database", authority))
-            .flatMap(authorityRepository::save)
-            .then(userRepository.findOneByLogin(user.getLogin()))
-            .switchIfEmpty(saveUser(user, true))
+        return knownAuthorities
+            .saveAll(userAuthorities)
+            // the existing user is read once, with its authorities, which are synchronized with a single diff
+            .then(userRepository.findOneWithAuthoritiesByLogin(user.getLogin()))
             .flatMap(existingUser -> {
-                // if IdP sends last updated information, use it to determine if an update should happen
-                if (details.get("updated_at") != null) {
-                    Instant dbModifiedDate = existingUser.getLastModifiedDate();
-                    Instant idpModifiedDate;
-                    if (details.get("updated_at") instanceof Instant) {
-                        idpModifiedDate = (Instant) details.get("updated_at");
-                    } else {
-                        idpModifiedDate = Instant.ofEpochSecond((Integer) details.get("updated_at"));
-                    }
-                    if (idpModifiedDate.isAfter(dbModifiedDate)) {
-                        LOG.debug("Updating user '{}' in local database", user.getLogin());
-                        return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
-                    }
-                } else {
-                    LOG.debug("Updating user '{}' in local database", user.getLogin());
-                    return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
+                Set<String> existingAuthorities = existingUser
+                    .getAuthorities()
+                    .stream()
+                    .map(Authority::getName)
+                    .collect(Collectors.toSet());
+                if (!isUpdatedByIdP(details, existingUser)) {
+                    return saveUserAuthorities(existingUser.getId(), userAuthorities, existingAuthorities).thenReturn(existingUser);
                 }
-                return Mono.empty();
+                LOG.debug("Updating user '{}' in local database", user.getLogin());
+                existingUser.setFirstName(user.getFirstName());
+                existingUser.setLastName(user.getLastName());
+                if (user.getEmail() != null) {
+                    existingUser.setEmail(user.getEmail().toLowerCase());
+                }
+                existingUser.setLangKey(user.getLangKey());
+                existingUser.setImageUrl(user.getImageUrl());
+                existingUser.setAuthorities(user.getAuthorities());
+                return saveUser(existingUser, false, Mono.just(existingAuthorities));
             })
+            // a new user is saved with its authorities
+            .switchIfEmpty(Mono.defer(() -> saveUser(user, true)))
             .thenReturn(user);
     }
 
+    /**
+     * @return whether the user was updated in the IdP since it was saved, always if the IdP does not send when it was updated.
+     */
+    private static boolean isUpdatedByIdP(Map<String, Object> details, User existingUser) {
+        // if IdP sends last updated information, use it to determine if an update should happen
+        if (details.get("updated_at") == null) {
+            return true;
+        }
+        Instant dbModifiedDate = existingUser.getLastModifiedDate();
+        Instant idpModifiedDate;
+        if (details.get("updated_at") instanceof Instant) {
+            idpModifiedDate = (Instant) details.get("updated_at");
+        } else {
+            idpModifiedDate = Instant.ofEpochSecond((Integer) details.get("updated_at"));
+        }
+        return idpModifiedDate.isAfter(dbModifiedDate);
+    }
+
+    /**
+     * Synchronizes the user with the IdP once per version of its claims: the {@code updated_at} claim if the IdP sends it, else
+     * the {@code iat} claim, so once per token. The database is not touched while the version and the claims are unchanged.
+     */
+    private Mono<User> syncUserWithIdPOnce(Map<String, Object> details, User user) {
+        SyncKey key = SyncKey.of(details, user);
+        // the synchronization is not cancelled with the request which started it, the other requests may wait for it
+        return Mono.deferContextual(context ->
+            Mono.fromFuture(
+                syncedUsers.get(key, (k, executor) ->
+                    syncUserWithIdP(details, user).as(syncTransaction::transactional).contextWrite(context).toFuture()
+                ),
+                true
+            )
+        ).thenReturn(user);
+    }
+
     /**
      * Returns the user from an OAuth 2.0 login or resource server with JWT.
-     * Synchronizes the user in the local repository.
+     * Synchronizes the user in the local repository, in its own transaction, unless it was already synchronized with the same
+     * claims.
      *
      * @param authToken the authentication token.
      * @return the user from the authentication.
      */
-    @Transactional
     public Mono<AdminUserDTO> getUserFromAuthentication(AbstractAuthenticationToken authToken) {
         Map<String, Object> attributes;
         if (authToken instanceof OAuth2AuthenticationToken) {
@@ -203,7 +285,7 @@ public class UserService {
                 .collect(Collectors.toSet())
         );
 
-        return syncUserWithIdP(attributes, user).flatMap(u -> Mono.just(new AdminUserDTO(u)));
+        return syncUserWithIdPOnce(attributes, user).flatMap(u -> Mono.just(new AdminUserDTO(u)));
     }
 
     private static User getUser(Map<String, Object> details) {
@@ -266,4 +348,33 @@ public class UserService {
         user.setActivated(activated);
         return user;
     }
+
+    private record SyncKey(
+        String id,
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String langKey,
+        String imageUrl,
+        boolean activated,
+        Set<String> authorities,
+        Object version
+    ) {
+        static SyncKey of(Map<String, Object> details, User user) {
+            Object version = details.get("updated_at") != null ? details.get("updated_at") : details.get("iat");
+            return new SyncKey(
+                user.getId(),
+                user.getLogin(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getLangKey(),
+                user.getImageUrl(),
+                user.isActivated(),
+                user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet()),
+                version
+            );
+        }
+    }
 }
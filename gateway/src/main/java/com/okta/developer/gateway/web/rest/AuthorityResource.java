@@ -2,6 +2,7 @@ package com.okta.developer.gateway.web.rest;
 
 import com.okta.developer.gateway.domain.Authority;
 import com.okta.developer.gateway.repository.AuthorityRepository;
+import com.okta.developer.gateway.service.KnownAuthorities;
 import com.okta.developer.gateway.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import java.net.URI;
@@ -37,8 +38,11 @@ public class AuthorityResource {
 
     private final AuthorityRepository authorityRepository;
 
-    public AuthorityResource(AuthorityRepository authorityRepository) {
+    private final KnownAuthorities knownAuthorities;
+
+    public AuthorityResource(AuthorityRepository authorityRepository, KnownAuthorities knownAuthorities) {
         this.authorityRepository = authorityRepository;
+        this.knownAuthorities = knownAuthorities;
     }
 
     /**
@@ -60,6 +64,7 @@ public class AuthorityResource {
                 }
                 return authorityRepository
                     .save(authority)
+                    .doOnSuccess(result -> knownAuthorities.evict())
                     .map(result -> {
                         try {
                             return ResponseEntity.created(new URI("/api/authorities/" + result.getName()))
@@ -121,6 +126,7 @@ public class AuthorityResource {
         LOG.debug("REST request to delete Authority : {}", id);
         return authorityRepository
             .deleteById(id)
+            .doOnSuccess(result -> knownAuthorities.evict())
             .then(
                 Mono.just(
                     ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build()
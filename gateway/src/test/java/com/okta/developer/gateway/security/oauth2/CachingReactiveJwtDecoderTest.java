@@ -0,0 +1,96 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link CachingReactiveJwtDecoder}.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private ReactiveJwtDecoder delegate;
+
+    private SimpleMeterRegistry registry;
+
+    private CachingReactiveJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ReactiveJwtDecoder.class);
+        registry = new SimpleMeterRegistry();
+        decoder = new CachingReactiveJwtDecoder(delegate, 100, CLOCK_SKEW, registry);
+    }
+
+    @Test
+    void testTokenIsVerifiedOnce() {
+        Jwt jwt = jwt("token", Instant.now().plus(Duration.ofMinutes(5)));
+        when(delegate.decode("token")).thenReturn(Mono.just(jwt));
+
+        assertThat(decoder.decode("token").block()).isSameAs(jwt);
+        assertThat(decoder.decode("token").block()).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("token");
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.verification").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTokensAreCachedSeparately() {
+        when(delegate.decode("first")).thenReturn(Mono.just(jwt("first", Instant.now().plus(Duration.ofMinutes(5)))));
+        when(delegate.decode("second")).thenReturn(Mono.just(jwt("second", Instant.now().plus(Duration.ofMinutes(5)))));
+
+        assertThat(decoder.decode("first").block().getTokenValue()).isEqualTo("first");
+        assertThat(decoder.decode("second").block().getTokenValue()).isEqualTo("second");
+        assertThat(decoder.decode("first").block().getTokenValue()).isEqualTo("first");
+
+        verify(delegate, times(1)).decode("first");
+        verify(delegate, times(1)).decode("second");
+    }
+
+    @Test
+    void testTokenExpiringWithinClockSkewIsNotCached() {
+        Jwt jwt = jwt("token", Instant.now().plus(CLOCK_SKEW).minusSeconds(1));
+        when(delegate.decode("token")).thenReturn(Mono.just(jwt));
+
+        decoder.decode("token").block();
+        decoder.decode("token").block();
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void testRejectedTokenIsNotCached() {
+        when(delegate.decode("token")).thenReturn(Mono.error(new BadJwtException("invalid signature")));
+
+        assertThatThrownBy(() -> decoder.decode("token").block()).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("token").block()).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("token");
+        assertThat(registry.get("jwt.verification").tag("outcome", "failure").timer().count()).isEqualTo(2);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("user")
+            .issuedAt(expiresAt.minus(Duration.ofHours(1)))
+            .expiresAt(expiresAt)
+            .build();
+    }
+}
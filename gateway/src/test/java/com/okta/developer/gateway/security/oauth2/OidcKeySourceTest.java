@@ -0,0 +1,186 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link OidcKeySource}.
+ */
+class OidcKeySourceTest {
+
+    private static final String ISSUER = "http://localhost/realms/jhipster";
+
+    // generating RSA keys is slow, they are shared by the tests
+    private static RSAKey firstKey;
+
+    private static RSAKey secondKey;
+
+    private static RSAKey forgedKey;
+
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    private volatile JWKSet published;
+
+    private volatile boolean available;
+
+    private WebClient webClient;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        firstKey = generateKey("first");
+        secondKey = generateKey("second");
+        forgedKey = generateKey("forged");
+    }
+
+    @BeforeEach
+    void setUp() {
+        available = true;
+        webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                if (!available) {
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                }
+                String body;
+                if (request.url().getPath().endsWith("/.well-known/openid-configuration")) {
+                    body = "{\"issuer\":\"" + ISSUER + "\",\"jwks_uri\":\"" + ISSUER + "/protocol/openid-connect/certs\"}";
+                } else {
+                    jwksRequests.incrementAndGet();
+                    body = published.toString(true);
+                }
+                ClientResponse response = ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build();
+                return Mono.delay(Duration.ofMillis(50)).thenReturn(response);
+            })
+            .build();
+    }
+
+    @Test
+    void testTokenIsDecodedWithFetchedKeys() throws Exception {
+        published = new JWKSet(firstKey);
+        OidcKeySource keySource = new OidcKeySource(ISSUER, webClient, null, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+        Jwt jwt = decoder(keySource).decode(sign(firstKey)).block();
+
+        assertThat(jwt.getSubject()).isEqualTo("user");
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    @Test
+    void testKeysAreLoadedFromSnapshot() throws Exception {
+        published = new JWKSet(firstKey);
+        Path snapshot = directory.resolve("oidc-keys.json");
+        new OidcKeySource(ISSUER, webClient, snapshot, Duration.ofMinutes(5), Duration.ofSeconds(30)).refresh().block();
+
+        available = false;
+        OidcKeySource keySource = new OidcKeySource(ISSUER, webClient, snapshot, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        keySource.loadSnapshot();
+
+        assertThat(decoder(keySource).decode(sign(firstKey)).block().getSubject()).isEqualTo("user");
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    @Test
+    void testSnapshotOfOtherIssuerIsIgnored() throws Exception {
+        published = new JWKSet(firstKey);
+        Path snapshot = directory.resolve("oidc-keys.json");
+        new OidcKeySource(ISSUER, webClient, snapshot, Duration.ofMinutes(5), Duration.ofSeconds(30)).refresh().block();
+
+        available = false;
+        OidcKeySource keySource = new OidcKeySource(
+            "http://localhost/realms/other",
+            webClient,
+            snapshot,
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30)
+        );
+        keySource.loadSnapshot();
+
+        SignedJWT jwt = SignedJWT.parse(sign(firstKey));
+        assertThatThrownBy(() -> keySource.getKeys(jwt).blockLast()).isInstanceOf(WebClientResponseException.class);
+    }
+
+    @Test
+    void testUnknownKeyRefreshesKeysOnce() throws Exception {
+        published = new JWKSet(firstKey);
+        OidcKeySource keySource = new OidcKeySource(ISSUER, webClient, null, Duration.ofMinutes(5), Duration.ZERO);
+        keySource.refresh().block();
+
+        published = new JWKSet(List.of(firstKey, secondKey));
+        String token = sign(secondKey);
+        NimbusReactiveJwtDecoder decoder = decoder(keySource);
+        List<Jwt> jwts = Flux.range(0, 8).flatMap(i -> decoder.decode(token)).collectList().block();
+
+        assertThat(jwts).hasSize(8);
+        assertThat(jwksRequests).hasValue(2);
+    }
+
+    @Test
+    void testUnknownKeysRefreshKeysOncePerMinimumInterval() throws Exception {
+        published = new JWKSet(firstKey);
+        OidcKeySource keySource = new OidcKeySource(ISSUER, webClient, null, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        keySource.refresh().block();
+
+        String forged = sign(forgedKey);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> decoder(keySource).decode(forged).block()).isInstanceOf(JwtException.class);
+        }
+
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    private static NimbusReactiveJwtDecoder decoder(OidcKeySource keySource) {
+        return NimbusReactiveJwtDecoder.withJwkSource(keySource::getKeys).build();
+    }
+
+    private static RSAKey generateKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+
+    private static String sign(RSAKey key) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(ISSUER)
+            .subject("user")
+            .issueTime(new Date())
+            .expirationTime(Date.from(Instant.now().plus(Duration.ofMinutes(5))))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
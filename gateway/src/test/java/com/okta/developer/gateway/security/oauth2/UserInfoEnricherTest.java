@@ -0,0 +1,111 @@
+package com.okta.developer.gateway.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link UserInfoEnricher}.
+ */
+class UserInfoEnricherTest {
+
+    private static final String USER_INFO = "{\"sub\":\"auth0|1\",\"preferred_username\":\"jane@example.com\",\"name\":\"Jane Doe\"}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpStatus status;
+
+    private SimpleMeterRegistry registry;
+
+    private UserInfoEnricher enricher;
+
+    @BeforeEach
+    void setUp() {
+        status = HttpStatus.OK;
+        registry = new SimpleMeterRegistry();
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(50)).thenReturn(
+                    ClientResponse.create(status).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(USER_INFO).build()
+                );
+            })
+            .build();
+        enricher = new UserInfoEnricher(webClient, "http://localhost/userinfo", 100, Duration.ofHours(1), registry);
+    }
+
+    @Test
+    void testTokenWithIdentityClaimsIsNotEnriched() {
+        Jwt jwt = jwt("token").claim("given_name", "Jane").claim("family_name", "Doe").build();
+
+        assertThat(enricher.enrich("token", jwt).block()).isSameAs(jwt);
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    void testTokenIsEnrichedWithUserInfo() {
+        Jwt enriched = enricher.enrich("token", jwt("token").build()).block();
+
+        assertThat(enriched.getTokenValue()).isEqualTo("token");
+        assertThat(enriched.getClaimAsString("given_name")).isEqualTo("Jane");
+        assertThat(enriched.getClaimAsString("family_name")).isEqualTo("Doe");
+        assertThat(enriched.getClaimAsString("email")).isEqualTo("jane@example.com");
+        assertThat(enriched.getSubject()).isEqualTo("auth0|1");
+    }
+
+    @Test
+    void testConcurrentRequestsOfSubjectShareOneLookup() {
+        List<Jwt> enriched = Flux.range(0, 8)
+            .flatMap(i -> enricher.enrich("token" + i, jwt("token" + i).build()))
+            .collectList()
+            .block();
+
+        assertThat(requests).hasValue(1);
+        // the user info is cached, not the token of the first request
+        assertThat(enriched).extracting(Jwt::getTokenValue).containsExactlyInAnyOrder(
+            "token0",
+            "token1",
+            "token2",
+            "token3",
+            "token4",
+            "token5",
+            "token6",
+            "token7"
+        );
+        assertThat(registry.get("cache.gets").tag("cache", "userInfo").tag("result", "hit").functionCounter().count()).isEqualTo(7);
+    }
+
+    @Test
+    void testFailedLookupIsRetried() {
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+        assertThatThrownBy(() -> enricher.enrich("token", jwt("token").build()).block()).isInstanceOf(WebClientResponseException.class);
+
+        status = HttpStatus.OK;
+        assertThat(enricher.enrich("token", jwt("token").build()).block().getClaimAsString("given_name")).isEqualTo("Jane");
+        assertThat(requests).hasValue(2);
+    }
+
+    private static Jwt.Builder jwt(String token) {
+        return Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("auth0|1")
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plus(Duration.ofMinutes(5)));
+    }
+}
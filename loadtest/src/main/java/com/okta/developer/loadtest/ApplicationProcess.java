@@ -0,0 +1,103 @@
+package com.okta.developer.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An application started from its executable jar, in its own JVM, with its log in the report directory.
+ * <p>
+ * The gateway and the blog are not started in the JVM of the load test: their auto-configurations and their
+ * {@code spring.application.name} would clash on the same class path, and a separate JVM keeps the garbage collection and the
+ * threads of the load test out of their latencies.
+ */
+class ApplicationProcess implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationProcess.class);
+
+    private final String name;
+    private final int port;
+    private final Path log;
+    private final Process process;
+
+    private ApplicationProcess(String name, int port, Path log, Process process) {
+        this.name = name;
+        this.port = port;
+        this.log = log;
+        this.process = process;
+    }
+
+    /**
+     * @param name the name of the application, also the name of its log.
+     * @param jar the executable jar.
+     * @param port the port of the application.
+     * @param jvmArgs the arguments of the JVM.
+     * @param args the arguments of the application, e.g. {@code --spring.profiles.active=prod}.
+     * @param reportDir the directory of the log.
+     * @return the started application, not yet ready.
+     */
+    static ApplicationProcess start(String name, Path jar, int port, List<String> jvmArgs, List<String> args, Path reportDir)
+        throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Missing jar of the " + name + " " + jar.toAbsolutePath() + ", package it first");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.addAll(args);
+        Path log = reportDir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        LOG.info("Started the {} on port {}, logging to {}", name, port, log);
+        return new ApplicationProcess(name, port, log, process);
+    }
+
+    /**
+     * Waits until the readiness probe of the application succeeds.
+     *
+     * @param timeout the maximum time to wait.
+     */
+    void awaitReady(Duration timeout) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/management/health/readiness"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The " + name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    LOG.info("The {} is ready", name);
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("The " + name + " is not ready after " + timeout + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+        LOG.info("Stopped the {}", name);
+    }
+}
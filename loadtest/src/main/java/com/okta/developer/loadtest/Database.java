@@ -0,0 +1,115 @@
+package com.okta.developer.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * The Postgres server of the gateway and the blog: an existing server, or a container started with Testcontainers.
+ * <p>
+ * The databases {@code gateway} and {@code blog} are created when they do not exist, Liquibase creates their tables when the
+ * applications start.
+ */
+class Database implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Database.class);
+
+    static final String IMAGE = "postgres:17.2";
+    static final List<String> DATABASES = List.of("gateway", "blog");
+
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final PostgreSQLContainer<?> container;
+
+    private Database(String host, int port, String username, String password, PostgreSQLContainer<?> container) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.container = container;
+    }
+
+    static Database start(LoadTestProperties properties) throws SQLException {
+        Database database;
+        String host = properties.get("database.host", "");
+        if (host.isEmpty()) {
+            PostgreSQLContainer<?> container = new PostgreSQLContainer<>(IMAGE)
+                .withDatabaseName("postgres")
+                .withUsername(properties.get("database.username"))
+                .withPassword(properties.get("database.password"));
+            container.start();
+            LOG.info("Started {} on port {}", IMAGE, container.getFirstMappedPort());
+            database = new Database(
+                container.getHost(),
+                container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                container.getUsername(),
+                container.getPassword(),
+                container
+            );
+        } else {
+            database = new Database(
+                host,
+                properties.getInt("database.port"),
+                properties.get("database.username"),
+                properties.get("database.password"),
+                null
+            );
+        }
+        database.createDatabases();
+        return database;
+    }
+
+    private void createDatabases() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl("postgres"), username, password)) {
+            for (String name : DATABASES) {
+                try (PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+                    exists.setString(1, name);
+                    try (ResultSet resultSet = exists.executeQuery()) {
+                        if (resultSet.next()) {
+                            continue;
+                        }
+                    }
+                }
+                try (Statement create = connection.createStatement()) {
+                    create.execute("CREATE DATABASE " + name);
+                }
+                LOG.info("Created the database {}", name);
+            }
+        }
+    }
+
+    /**
+     * @param database the name of the database.
+     * @return the arguments of the connection of an application to the database, with R2DBC and Liquibase.
+     */
+    List<String> arguments(String database) {
+        return List.of(
+            "--spring.r2dbc.url=r2dbc:postgresql://" + host + ":" + port + "/" + database,
+            "--spring.r2dbc.username=" + username,
+            "--spring.r2dbc.password=" + password,
+            "--spring.liquibase.url=" + jdbcUrl(database),
+            "--spring.liquibase.user=" + username,
+            "--spring.liquibase.password=" + password
+        );
+    }
+
+    private String jdbcUrl(String database) {
+        return "jdbc:postgresql://" + host + ":" + port + "/" + database;
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
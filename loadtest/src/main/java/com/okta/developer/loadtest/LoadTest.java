@@ -0,0 +1,118 @@
+package com.okta.developer.loadtest;
+
+import com.okta.developer.loadtest.OpenModelDriver.Arrivals;
+import com.okta.developer.loadtest.OpenModelDriver.RouteStatistics;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the gateway and the blog on a single machine, without Keycloak, Consul or a shared Postgres server.
+ * <p>
+ * It starts an {@link OidcStub} with the issuer of Keycloak, a Postgres server, then the blog and the gateway from their jars, the
+ * gateway with a static discovery client instead of Consul. Then it drives the scenarios with an {@link OpenModelDriver} and writes
+ * the latencies of each route to the {@link Report}. See {@code loadtest.properties} for the properties.
+ */
+public class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestProperties properties = LoadTestProperties.load(args);
+        Duration warmup = properties.getDuration("warmup");
+        Duration duration = properties.getDuration("duration");
+        Path reportDir = properties.getPath("report-dir");
+        try (OidcStub oidc = OidcStub.start(properties.getInt("oidc.port")); Report report = new Report(reportDir)) {
+            String target;
+            List<AutoCloseable> resources = new ArrayList<>();
+            try {
+                if (properties.getBoolean("start-apps")) {
+                    target = startApplications(properties, oidc, reportDir, resources);
+                } else {
+                    target = properties.get("target");
+                }
+                Duration timeToLive = warmup.plus(duration).plusMinutes(10);
+                List<String> tokens = new ArrayList<>();
+                for (int user = 1; user <= properties.getInt("users"); user++) {
+                    tokens.add(oidc.mint("loadtest" + user, List.of("ROLE_USER"), timeToLive));
+                }
+                Map<Scenario, Double> rates = new EnumMap<>(Scenario.class);
+                for (Scenario scenario : Scenario.values()) {
+                    rates.put(scenario, properties.getRate(scenario));
+                }
+                OpenModelDriver driver = new OpenModelDriver(
+                    target,
+                    tokens,
+                    rates,
+                    Arrivals.valueOf(properties.get("arrivals").toUpperCase(Locale.ROOT)),
+                    properties.getInt("max-in-flight")
+                );
+                if (rates.get(Scenario.READ_POST) > 0) {
+                    driver.seed();
+                }
+                Map<Scenario, RouteStatistics> statistics = driver.run(warmup, duration, report);
+                report.write(statistics, duration);
+                LOG.info("Created {} posts, the report is in {}", driver.getCreatedPosts(), reportDir.toAbsolutePath());
+            } finally {
+                for (int i = resources.size() - 1; i >= 0; i--) {
+                    resources.get(i).close();
+                }
+            }
+        }
+        // the threads of Testcontainers and Reactor Netty would keep the JVM running
+        System.exit(0);
+    }
+
+    private static String startApplications(LoadTestProperties properties, OidcStub oidc, Path reportDir, List<AutoCloseable> resources)
+        throws Exception {
+        Database database = Database.start(properties);
+        resources.add(database);
+        String profile = properties.get("profile");
+        int blogPort = properties.getInt("blog.port");
+        int gatewayPort = properties.getInt("gateway.port");
+        List<String> jvmArgs = properties.getList("jvm-args");
+
+        List<String> blogArgs = new ArrayList<>(commonArguments(profile, oidc));
+        blogArgs.addAll(database.arguments("blog"));
+        ApplicationProcess blog = ApplicationProcess.start("blog", properties.getPath("blog.jar"), blogPort, jvmArgs, blogArgs, reportDir);
+        resources.add(blog);
+
+        List<String> gatewayArgs = new ArrayList<>(commonArguments(profile, oidc));
+        gatewayArgs.addAll(database.arguments("gateway"));
+        gatewayArgs.add("--spring.cloud.discovery.client.simple.instances.blog[0].uri=http://localhost:" + blogPort);
+        ApplicationProcess gateway = ApplicationProcess.start(
+            "gateway",
+            properties.getPath("gateway.jar"),
+            gatewayPort,
+            jvmArgs,
+            gatewayArgs,
+            reportDir
+        );
+        resources.add(gateway);
+
+        Duration timeout = properties.getDuration("startup-timeout");
+        blog.awaitReady(timeout);
+        gateway.awaitReady(timeout);
+        return "http://localhost:" + gatewayPort;
+    }
+
+    private static List<String> commonArguments(String profile, OidcStub oidc) {
+        return List.of(
+            "--spring.profiles.active=" + profile,
+            // Consul is replaced by the static discovery client, its configuration by these arguments
+            "--spring.cloud.consul.enabled=false",
+            "--spring.cloud.consul.config.enabled=false",
+            "--spring.cloud.consul.discovery.enabled=false",
+            "--spring.docker.compose.enabled=false",
+            "--spring.security.oauth2.client.provider.oidc.issuer-uri=" + oidc.getIssuer(),
+            "--spring.liquibase.contexts=" + profile + ",faker",
+            "--management.tracing.enabled=false"
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.okta.developer.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Properties of the load test.
+ * <p>
+ * The defaults are read from {@code loadtest.properties}, then overridden by the system properties starting with
+ * {@code loadtest.}, then by the {@code key=value} arguments.
+ */
+public class LoadTestProperties {
+
+    private static final String PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    LoadTestProperties(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static LoadTestProperties load(String... args) {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestProperties.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.getProperties()
+            .stringPropertyNames()
+            .stream()
+            .filter(name -> name.startsWith(PREFIX))
+            .forEach(name -> properties.setProperty(name, System.getProperty(name)));
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid argument, expected key=value: " + arg);
+            }
+            String name = arg.substring(0, separator);
+            properties.setProperty(name.startsWith(PREFIX) ? name : PREFIX + name, arg.substring(separator + 1));
+        }
+        return new LoadTestProperties(properties);
+    }
+
+    public String get(String name) {
+        String value = properties.getProperty(PREFIX + name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing property: " + PREFIX + name);
+        }
+        return value.trim();
+    }
+
+    public String get(String name, String defaultValue) {
+        String value = properties.getProperty(PREFIX + name);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public int getInt(String name) {
+        return Integer.parseInt(get(name));
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = get(name, null);
+        return value == null || value.isEmpty() ? defaultValue : Double.parseDouble(value);
+    }
+
+    public boolean getBoolean(String name) {
+        return Boolean.parseBoolean(get(name));
+    }
+
+    public Duration getDuration(String name) {
+        return Duration.parse(get(name));
+    }
+
+    public Path getPath(String name) {
+        return Path.of(get(name));
+    }
+
+    public List<String> getList(String name) {
+        String value = get(name, "");
+        return value.isEmpty() ? List.of() : Arrays.asList(value.split("\\s+"));
+    }
+
+    /**
+     * @param scenario the scenario.
+     * @return the rate of the requests of the scenario, per second, {@code 0} if it is disabled.
+     */
+    public double getRate(Scenario scenario) {
+        return getDouble("scenario." + scenario.getName() + ".rate", 0);
+    }
+}
@@ -0,0 +1,246 @@
+package com.okta.developer.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * An OpenID Connect provider which replaces Keycloak in the load test, with the same issuer, {@code <base>/realms/jhipster}.
+ * <p>
+ * It serves the discovery document, the JSON Web Key Set, the user info and a token endpoint, which issues the tokens of the
+ * password and client credentials grants without checking any password. The access tokens are RS256 JWTs with the audiences
+ * accepted by the {@code AudienceValidator} of the gateway and the blog, and with all the identity claims, so neither looks up the
+ * user info. There is no interactive login: the load test sends its tokens as bearer tokens.
+ */
+public class OidcStub implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OidcStub.class);
+
+    public static final String REALM_PATH = "/realms/jhipster";
+    public static final List<String> AUDIENCE = List.of("account", "api://default");
+    public static final String CLIENT_ID = "web_app";
+
+    private static final String OPENID_CONNECT_PATH = REALM_PATH + "/protocol/openid-connect";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RSAKey key;
+    private final JWSSigner signer;
+    private final JWSVerifier verifier;
+    private final DisposableServer server;
+
+    private OidcStub(int port) {
+        try {
+            key = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+            signer = new RSASSASigner(key);
+            verifier = new RSASSAVerifier(key.toRSAPublicKey());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not generate the signing key", e);
+        }
+        server = HttpServer.create()
+            .host("localhost")
+            .port(port)
+            .route(routes ->
+                routes
+                    .get(REALM_PATH + "/.well-known/openid-configuration", (request, response) -> json(response, configuration()))
+                    .get(OPENID_CONNECT_PATH + "/certs", (request, response) -> json(response, jwkSet()))
+                    .get(OPENID_CONNECT_PATH + "/userinfo", this::userInfo)
+                    .post(OPENID_CONNECT_PATH + "/userinfo", this::userInfo)
+                    .post(OPENID_CONNECT_PATH + "/token", this::token)
+                    .get(OPENID_CONNECT_PATH + "/auth", (request, response) ->
+                        response.status(HttpResponseStatus.NOT_IMPLEMENTED).sendString(Mono.just("There is no interactive login"))
+                    )
+                    .get(OPENID_CONNECT_PATH + "/logout", (request, response) -> response.status(HttpResponseStatus.NO_CONTENT).send())
+            )
+            .bindNow();
+        LOG.info("OIDC provider started with the issuer {}", getIssuer());
+    }
+
+    /**
+     * @param port the port, {@code 0} for any free port.
+     * @return the started provider.
+     */
+    public static OidcStub start(int port) {
+        return new OidcStub(port);
+    }
+
+    public String getIssuer() {
+        return "http://localhost:" + server.port() + REALM_PATH;
+    }
+
+    public String getJwkSetUri() {
+        return "http://localhost:" + server.port() + OPENID_CONNECT_PATH + "/certs";
+    }
+
+    /**
+     * Issues a signed access token.
+     *
+     * @param username the {@code preferred_username} of the user.
+     * @param authorities the authorities of the user, e.g. {@code ROLE_USER}, in the {@code groups} and {@code roles} claims.
+     * @param timeToLive the time to live of the token.
+     * @return the serialized token.
+     */
+    public String mint(String username, List<String> authorities, Duration timeToLive) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(getIssuer())
+            .subject(UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)).toString())
+            .audience(AUDIENCE)
+            .issueTime(Date.from(now))
+            .notBeforeTime(Date.from(now))
+            .expirationTime(Date.from(now.plus(timeToLive)))
+            .jwtID(UUID.randomUUID().toString())
+            .claim("typ", "Bearer")
+            .claim("azp", CLIENT_ID)
+            .claim("scope", "openid profile email")
+            .claim("preferred_username", username)
+            .claim("name", username + " Load")
+            .claim("given_name", username)
+            .claim("family_name", "Load")
+            .claim("email", username + "@localhost")
+            .claim("email_verified", true)
+            .claim("locale", "en")
+            .claim("groups", authorities)
+            .claim("roles", authorities)
+            .build();
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build();
+        SignedJWT jwt = new SignedJWT(header, claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign the token", e);
+        }
+        return jwt.serialize();
+    }
+
+    private Map<String, Object> jwkSet() {
+        return new JWKSet(key.toPublicJWK()).toJSONObject();
+    }
+
+    private Map<String, Object> configuration() {
+        String base = "http://localhost:" + server.port() + OPENID_CONNECT_PATH;
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("issuer", getIssuer());
+        configuration.put("authorization_endpoint", base + "/auth");
+        configuration.put("token_endpoint", base + "/token");
+        configuration.put("userinfo_endpoint", base + "/userinfo");
+        configuration.put("jwks_uri", getJwkSetUri());
+        configuration.put("end_session_endpoint", base + "/logout");
+        configuration.put("grant_types_supported", List.of("authorization_code", "password", "client_credentials"));
+        configuration.put("response_types_supported", List.of("code"));
+        configuration.put("subject_types_supported", List.of("public"));
+        configuration.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        configuration.put("token_endpoint_auth_methods_supported", List.of("client_secret_basic", "client_secret_post"));
+        configuration.put("scopes_supported", List.of("openid", "profile", "email", "offline_access"));
+        return configuration;
+    }
+
+    private Publisher<Void> userInfo(HttpServerRequest request, HttpServerResponse response) {
+        String authorization = request.requestHeaders().get(HttpHeaderNames.AUTHORIZATION, "");
+        if (!authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return response.status(HttpResponseStatus.UNAUTHORIZED).send();
+        }
+        try {
+            SignedJWT jwt = SignedJWT.parse(authorization.substring(7).trim());
+            Date expiration = jwt.getJWTClaimsSet().getExpirationTime();
+            if (!jwt.verify(verifier) || expiration == null || expiration.before(new Date())) {
+                return response.status(HttpResponseStatus.UNAUTHORIZED).send();
+            }
+            Map<String, Object> claims = jwt.getJWTClaimsSet().getClaims();
+            Map<String, Object> userInfo = new LinkedHashMap<>();
+            for (String name : List.of("sub", "preferred_username", "name", "given_name", "family_name", "email", "email_verified")) {
+                userInfo.put(name, claims.get(name));
+            }
+            userInfo.put("groups", claims.get("groups"));
+            return json(response, userInfo);
+        } catch (ParseException | JOSEException e) {
+            return response.status(HttpResponseStatus.UNAUTHORIZED).send();
+        }
+    }
+
+    private Publisher<Void> token(HttpServerRequest request, HttpServerResponse response) {
+        return request
+            .receive()
+            .aggregate()
+            .asString(StandardCharsets.UTF_8)
+            .defaultIfEmpty("")
+            .flatMap(body -> {
+                Map<String, List<String>> form = new QueryStringDecoder(body, false).parameters();
+                String grantType = first(form, "grant_type");
+                String username;
+                if ("password".equals(grantType)) {
+                    username = first(form, "username");
+                } else if ("client_credentials".equals(grantType)) {
+                    username = "service-account-" + (form.containsKey("client_id") ? first(form, "client_id") : CLIENT_ID);
+                } else {
+                    username = null;
+                }
+                if (username == null) {
+                    return Mono.from(json(response.status(HttpResponseStatus.BAD_REQUEST), Map.of("error", "unsupported_grant_type")));
+                }
+                Duration timeToLive = Duration.ofHours(1);
+                String token = mint(username, List.of("ROLE_USER"), timeToLive);
+                Map<String, Object> tokens = new LinkedHashMap<>();
+                tokens.put("access_token", token);
+                tokens.put("id_token", token);
+                tokens.put("token_type", "Bearer");
+                tokens.put("expires_in", timeToLive.toSeconds());
+                tokens.put("scope", "openid profile email");
+                return Mono.from(json(response, tokens));
+            });
+    }
+
+    private static String first(Map<String, List<String>> form, String name) {
+        List<String> values = form.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private Publisher<Void> json(HttpServerResponse response, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return response
+                .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                .header(HttpHeaderNames.CACHE_CONTROL, "no-store")
+                .sendByteArray(Mono.just(json));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,377 @@
+package com.okta.developer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.ByteBufMono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Drives the scenarios with an open model: the requests of each scenario arrive at its rate, with constant or exponential
+ * (Poisson) inter-arrival times, whether or not the previous requests have completed, as the requests of independent users do.
+ * <p>
+ * Each scenario has its own arrival thread, which only sends its requests, without blocking. The latency of a request is measured
+ * from its intended start, not from its actual start, so a stalled driver or a saturated connection pool is accounted for instead
+ * of hidden (coordinated omission). The requests beyond the maximum in flight are not sent but counted as dropped, which bounds the
+ * memory of the driver when the applications cannot keep up.
+ */
+public class OpenModelDriver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenModelDriver.class);
+
+    /** The highest latency recorded, in microseconds; a longer latency is recorded as this one. */
+    public static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toMicros(5);
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    public enum Arrivals {
+        POISSON,
+        CONSTANT,
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final List<String> tokens;
+    private final Map<Scenario, Double> rates;
+    private final Arrivals arrivals;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Map<Scenario, RouteStatistics> statistics = new EnumMap<>(Scenario.class);
+    private final PostIds postIds = new PostIds();
+    private final AtomicLong createdPosts = new AtomicLong();
+
+    /**
+     * @param target the base URL of the gateway.
+     * @param tokens the access tokens of the users, one picked at random for each request.
+     * @param rates the rate of each scenario, per second.
+     * @param arrivals the distribution of the inter-arrival times.
+     * @param maxInFlight the maximum number of requests in flight.
+     */
+    public OpenModelDriver(String target, List<String> tokens, Map<Scenario, Double> rates, Arrivals arrivals, int maxInFlight) {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("At least one token is required");
+        }
+        this.tokens = List.copyOf(tokens);
+        this.rates = rates;
+        this.arrivals = arrivals;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        // the gateway checks the CSRF token of the requests which change the state, even with a bearer token
+        String csrfToken = UUID.randomUUID().toString();
+        this.client = HttpClient.create(
+            ConnectionProvider.builder("loadtest").maxConnections(maxInFlight).pendingAcquireMaxCount(-1).build()
+        )
+            .baseUrl(target)
+            .responseTimeout(RESPONSE_TIMEOUT)
+            .headers(headers -> headers.set(HttpHeaderNames.COOKIE, "XSRF-TOKEN=" + csrfToken).set("X-XSRF-TOKEN", csrfToken));
+        for (Scenario scenario : Scenario.values()) {
+            statistics.put(scenario, new RouteStatistics());
+        }
+    }
+
+    /**
+     * Reads the ids of the first existing posts, which {@link Scenario#READ_POST} reads before the posts created by the load test.
+     *
+     * @return the number of ids read.
+     */
+    public int seed() {
+        byte[] body = authorized(tokens.get(0))
+            .get()
+            .uri("/services/blog/api/posts?page=0&size=100&sort=id,asc")
+            .responseSingle((response, content) ->
+                response.status().code() == 200
+                    ? content.asByteArray()
+                    : Mono.error(new IllegalStateException("Could not read the posts: " + response.status()))
+            )
+            .block(RESPONSE_TIMEOUT);
+        int count = 0;
+        try {
+            for (JsonNode post : objectMapper.readTree(body)) {
+                postIds.add(post.get("id").asLong());
+                count++;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not read the ids of the posts", e);
+        }
+        LOG.info("Read the ids of {} posts", count);
+        return count;
+    }
+
+    /**
+     * Runs the scenarios, then waits for the requests in flight.
+     *
+     * @param warmup the duration of the warmup, whose requests are sent but not measured.
+     * @param duration the duration of the measurement.
+     * @param report the report of the interval histograms, every second.
+     * @return the statistics of each scenario.
+     */
+    public Map<Scenario, RouteStatistics> run(Duration warmup, Duration duration, Report report) throws InterruptedException {
+        long start = System.nanoTime();
+        long measured = start + warmup.toNanos();
+        long end = measured + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            double rate = rates.getOrDefault(scenario, 0.0);
+            if (rate > 0) {
+                Thread thread = new Thread(() -> arrive(scenario, rate, start, measured, end), "arrivals-" + scenario.getName());
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> reportIntervals(report), 1, 1, TimeUnit.SECONDS);
+        LOG.info("Warming up for {}, then measuring for {}", warmup, duration);
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!inFlight.tryAcquire(maxInFlight, RESPONSE_TIMEOUT.toSeconds() + 1, TimeUnit.SECONDS)) {
+            LOG.warn("{} requests still in flight", maxInFlight - inFlight.availablePermits());
+        } else {
+            inFlight.release(maxInFlight);
+        }
+        reporter.shutdown();
+        reporter.awaitTermination(10, TimeUnit.SECONDS);
+        reportIntervals(report);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of each scenario, updated while it runs.
+     */
+    public Map<Scenario, RouteStatistics> getStatistics() {
+        return statistics;
+    }
+
+    public long getCreatedPosts() {
+        return createdPosts.get();
+    }
+
+    private void arrive(Scenario scenario, double rate, long start, long measured, long end) {
+        RouteStatistics routeStatistics = statistics.get(scenario);
+        double meanInterval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long next = start;
+        while (next < end) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+            // a late arrival is sent at once and its latency includes its delay, the schedule is never shifted
+            send(scenario, next, next >= measured, routeStatistics);
+            next += interArrival(meanInterval);
+        }
+    }
+
+    private long interArrival(double meanInterval) {
+        return switch (arrivals) {
+            case POISSON -> (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanInterval);
+            case CONSTANT -> (long) meanInterval;
+        };
+    }
+
+    private void send(Scenario scenario, long intendedStart, boolean measured, RouteStatistics routeStatistics) {
+        if (measured) {
+            routeStatistics.arrivals.increment();
+        }
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                routeStatistics.dropped.increment();
+            }
+            return;
+        }
+        String token = tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+        request(scenario, authorized(token))
+            .onErrorResume(e -> Mono.just(e.getClass().getSimpleName()))
+            .subscribe(error -> {
+                if (measured) {
+                    routeStatistics.record(System.nanoTime() - intendedStart, error);
+                }
+                // released once recorded, so the last interval of the run has all the requests
+                inFlight.release();
+            });
+    }
+
+    /**
+     * @return the error of the request, empty if it succeeded.
+     */
+    private Mono<String> request(Scenario scenario, HttpClient client) {
+        return switch (scenario) {
+            case BROWSE_POSTS -> client
+                .get()
+                .uri("/services/blog/api/posts?page=" + page() + "&size=20")
+                .responseSingle(OpenModelDriver::error);
+            case READ_POST -> client.get().uri("/services/blog/api/posts/" + postIds.pick()).responseSingle(OpenModelDriver::error);
+            case CREATE_POST -> client
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON))
+                .post()
+                .uri("/services/blog/api/posts")
+                .send(ByteBufFlux.fromString(Mono.fromSupplier(this::newPost)))
+                .responseSingle((response, content) -> {
+                    String location = response.responseHeaders().get(HttpHeaderNames.LOCATION);
+                    if (response.status().code() == 201 && location != null) {
+                        postIds.add(Long.parseLong(location.substring(location.lastIndexOf('/') + 1)));
+                    }
+                    return error(response, content);
+                });
+            case ACCOUNT -> client.get().uri("/api/account").responseSingle(OpenModelDriver::error);
+        };
+    }
+
+    private static Mono<String> error(HttpClientResponse response, ByteBufMono content) {
+        int status = response.status().code();
+        return content.asByteArray().then(Mono.just(status / 100 == 2 ? "" : String.valueOf(status)));
+    }
+
+    private HttpClient authorized(String token) {
+        return client.headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token));
+    }
+
+    /**
+     * @return a page number with a geometric distribution, half the readers stop at the first page, half the others at the second one.
+     */
+    private static int page() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int page = 0;
+        while (page < 9 && random.nextBoolean()) {
+            page++;
+        }
+        return page;
+    }
+
+    private String newPost() {
+        long number = createdPosts.incrementAndGet();
+        Map<String, Object> post = Map.of(
+            "title",
+            "Load test post " + number,
+            "content",
+            "The content of the load test post " + number + ". " + "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20),
+            "date",
+            Instant.now().toString()
+        );
+        try {
+            return objectMapper.writeValueAsString(post);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void reportIntervals(Report report) {
+        statistics.forEach((scenario, routeStatistics) -> {
+            Histogram interval = routeStatistics.interval();
+            if (interval.getTotalCount() > 0) {
+                report.interval(scenario, interval);
+            }
+        });
+    }
+
+    /**
+     * The latencies, in microseconds, and the errors of the measured requests of a scenario.
+     */
+    public static class RouteStatistics {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY, 3);
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_LATENCY, 3);
+        private final Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+        private final LongAdder arrivals = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private Histogram intervalHistogram;
+
+        void record(long latencyNanos, String error) {
+            recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_LATENCY));
+            if (!error.isEmpty()) {
+                errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+            }
+        }
+
+        /**
+         * @return the latencies recorded since the previous interval, also added to {@link #getHistogram()}.
+         */
+        synchronized Histogram interval() {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            histogram.add(intervalHistogram);
+            return intervalHistogram;
+        }
+
+        /**
+         * @return the latencies of all the intervals.
+         */
+        public synchronized Histogram getHistogram() {
+            return histogram.copy();
+        }
+
+        /**
+         * @return the number of errors by HTTP status or exception.
+         */
+        public Map<String, Long> getErrors() {
+            Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((error, count) -> counts.put(error, count.sum()));
+            return counts;
+        }
+
+        public long getErrorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        /**
+         * @return the number of requests which arrived during the measurement, sent or dropped.
+         */
+        public long getArrivals() {
+            return arrivals.sum();
+        }
+
+        public long getDropped() {
+            return dropped.sum();
+        }
+    }
+
+    /**
+     * The ids of the posts which can be read.
+     */
+    private static class PostIds {
+
+        private long[] ids = new long[1024];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized long pick() {
+            return size == 0 ? 1 : ids[ThreadLocalRandom.current().nextInt(size)];
+        }
+    }
+}
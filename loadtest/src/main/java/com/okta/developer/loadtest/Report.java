@@ -0,0 +1,138 @@
+package com.okta.developer.loadtest;
+
+import com.okta.developer.loadtest.OpenModelDriver.RouteStatistics;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * The latency report of each route, in the report directory:
+ * <ul>
+ *   <li>{@code <scenario>.hlog}, the histogram of every second, to plot the latencies over time, e.g. with HistogramLogAnalyzer;</li>
+ *   <li>{@code <scenario>.hgrm}, the percentile distribution of the whole measurement, in milliseconds, to plot with
+ *   the HdrHistogram plotter;</li>
+ *   <li>{@code summary.txt}, the count, errors and percentiles of every route, also printed to the standard output.</li>
+ * </ul>
+ * The histograms are recorded in microseconds.
+ */
+public class Report implements AutoCloseable {
+
+    private static final double MICROSECONDS_PER_MILLISECOND = 1000.0;
+
+    private final Path directory;
+    private final long startTime = System.currentTimeMillis();
+    private final Map<Scenario, HistogramLogWriter> writers = new EnumMap<>(Scenario.class);
+
+    public Report(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Logs the histogram of an interval of a scenario.
+     *
+     * @param scenario the scenario.
+     * @param interval the histogram of the interval, with its start and end timestamps.
+     */
+    public synchronized void interval(Scenario scenario, Histogram interval) {
+        HistogramLogWriter writer = writers.computeIfAbsent(scenario, this::createWriter);
+        writer.outputIntervalHistogram(
+            (interval.getStartTimeStamp() - startTime) / 1000.0,
+            (interval.getEndTimeStamp() - startTime) / 1000.0,
+            interval,
+            MICROSECONDS_PER_MILLISECOND
+        );
+    }
+
+    private HistogramLogWriter createWriter(Scenario scenario) {
+        try {
+            HistogramLogWriter writer = new HistogramLogWriter(directory.resolve(scenario.getName() + ".hlog").toFile());
+            writer.outputComment("[" + scenario.getRoute() + ", latencies in microseconds, max in milliseconds]");
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startTime);
+            writer.setBaseTime(startTime);
+            writer.outputLegend();
+            return writer;
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the percentile distribution of every route and the summary, and prints the summary.
+     *
+     * @param statistics the statistics of each scenario.
+     * @param duration the duration of the measurement.
+     */
+    public synchronized void write(Map<Scenario, RouteStatistics> statistics, Duration duration) throws IOException {
+        String summary = summary(statistics, duration);
+        for (Map.Entry<Scenario, RouteStatistics> entry : statistics.entrySet()) {
+            if (entry.getValue().getArrivals() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().getName() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                entry.getValue().getHistogram().outputPercentileDistribution(out, 5, MICROSECONDS_PER_MILLISECOND);
+            }
+        }
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        System.out.print(summary);
+    }
+
+    static String summary(Map<Scenario, RouteStatistics> statistics, Duration duration) {
+        StringBuilder summary = new StringBuilder();
+        String format = "%-36s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n";
+        summary.append(String.format("Latencies in milliseconds, from the intended start of the requests, over %s%n", duration));
+        summary.append(String.format(format, "route", "count", "errors", "dropped", "rate/s", "p50", "p90", "p99", "p99.9", "max"));
+        double seconds = duration.toMillis() / 1000.0;
+        statistics.forEach((scenario, routeStatistics) -> {
+            if (routeStatistics.getArrivals() == 0) {
+                return;
+            }
+            Histogram histogram = routeStatistics.getHistogram();
+            summary.append(
+                String.format(
+                    format,
+                    scenario.getRoute(),
+                    histogram.getTotalCount(),
+                    routeStatistics.getErrorCount(),
+                    routeStatistics.getDropped(),
+                    String.format("%.1f", histogram.getTotalCount() / seconds),
+                    milliseconds(histogram.getValueAtPercentile(50)),
+                    milliseconds(histogram.getValueAtPercentile(90)),
+                    milliseconds(histogram.getValueAtPercentile(99)),
+                    milliseconds(histogram.getValueAtPercentile(99.9)),
+                    milliseconds(histogram.getMaxValue())
+                )
+            );
+        });
+        statistics.forEach((scenario, routeStatistics) ->
+            routeStatistics
+                .getErrors()
+                .forEach((error, count) -> summary.append(String.format("%s: %d x %s%n", scenario.getRoute(), count, error)))
+        );
+        return summary.toString();
+    }
+
+    private static String milliseconds(long microseconds) {
+        return String.format("%.2f", microseconds / MICROSECONDS_PER_MILLISECOND);
+    }
+
+    @Override
+    public synchronized void close() {
+        writers.values().forEach(writer -> writer.close());
+    }
+}
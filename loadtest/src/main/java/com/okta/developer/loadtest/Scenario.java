@@ -0,0 +1,37 @@
+package com.okta.developer.loadtest;
+
+/**
+ * The scenarios of the load test, each one a route of the gateway, with its own rate and latency report.
+ */
+public enum Scenario {
+    /** Reads a page of the posts, the first pages most often. */
+    BROWSE_POSTS("browse-posts", "GET /services/blog/api/posts"),
+
+    /** Reads a post picked among the existing posts and the posts created by the load test. */
+    READ_POST("read-post", "GET /services/blog/api/posts/{id}"),
+
+    /** Creates a post. */
+    CREATE_POST("create-post", "POST /services/blog/api/posts"),
+
+    /** Reads the account of the user, which the gateway synchronizes with its database. */
+    ACCOUNT("account", "GET /api/account");
+
+    private final String name;
+    private final String route;
+
+    Scenario(String name, String route) {
+        this.name = name;
+        this.route = route;
+    }
+
+    /**
+     * @return the name of the scenario in the properties and in the names of the report files.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+}
@@ -0,0 +1,122 @@
+package com.okta.developer.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Test class for the {@link OidcStub}, with the decoder and the validators of the gateway and the blog.
+ */
+class OidcStubTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private OidcStub oidc;
+
+    @BeforeEach
+    void setUp() {
+        oidc = OidcStub.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        oidc.close();
+    }
+
+    private NimbusJwtDecoder decoder() {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(oidc.getJwkSetUri()).build();
+        decoder.setJwtValidator(
+            new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(oidc.getIssuer()),
+                // the same check as the AudienceValidator
+                new JwtClaimValidator<List<String>>(JwtClaimNames.AUD, audience -> audience.contains("account"))
+            )
+        );
+        return decoder;
+    }
+
+    private JsonNode get(String uri, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    @Test
+    void shouldServeDiscoveryDocumentOfIssuer() throws Exception {
+        JsonNode configuration = get(oidc.getIssuer() + "/.well-known/openid-configuration", null);
+
+        assertThat(configuration.get("issuer").asText()).isEqualTo(oidc.getIssuer());
+        assertThat(configuration.get("jwks_uri").asText()).isEqualTo(oidc.getJwkSetUri());
+        assertThat(configuration.get("userinfo_endpoint").asText()).startsWith(oidc.getIssuer());
+        assertThat(configuration.get("id_token_signing_alg_values_supported").get(0).asText()).isEqualTo("RS256");
+    }
+
+    @Test
+    void shouldMintTokenAcceptedByResourceServers() {
+        String token = oidc.mint("loadtest1", List.of("ROLE_USER"), Duration.ofMinutes(5));
+
+        Jwt jwt = decoder().decode(token);
+
+        assertThat(jwt.getIssuer().toString()).isEqualTo(oidc.getIssuer());
+        assertThat(jwt.getAudience()).containsExactlyElementsOf(OidcStub.AUDIENCE);
+        assertThat(jwt.getClaimAsString("preferred_username")).isEqualTo("loadtest1");
+        assertThat(jwt.hasClaim("given_name")).isTrue();
+        assertThat(jwt.hasClaim("family_name")).isTrue();
+        assertThat(jwt.getClaimAsStringList("groups")).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = oidc.mint("loadtest1", List.of("ROLE_USER"), Duration.ofMinutes(-5));
+
+        assertThatThrownBy(() -> decoder().decode(token)).isInstanceOf(BadJwtException.class);
+    }
+
+    @Test
+    void shouldServeUserInfoOfToken() throws Exception {
+        String token = oidc.mint("loadtest2", List.of("ROLE_USER", "ROLE_ADMIN"), Duration.ofMinutes(5));
+
+        JsonNode userInfo = get(oidc.getIssuer() + "/protocol/openid-connect/userinfo", token);
+
+        assertThat(userInfo.get("preferred_username").asText()).isEqualTo("loadtest2");
+        assertThat(userInfo.get("sub").asText()).isEqualTo(decoder().decode(token).getSubject());
+        assertThat(userInfo.get("groups")).hasSize(2);
+    }
+
+    @Test
+    void shouldIssueTokenOfPasswordGrant() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(oidc.getIssuer() + "/protocol/openid-connect/token"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=loadtest3&password=any"))
+            .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        String token = objectMapper.readTree(response.body()).get("access_token").asText();
+        assertThat(decoder().decode(token).getClaimAsString("preferred_username")).isEqualTo("loadtest3");
+    }
+}
@@ -0,0 +1,156 @@
+package com.okta.developer.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.loadtest.OpenModelDriver.Arrivals;
+import com.okta.developer.loadtest.OpenModelDriver.RouteStatistics;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Test class for the {@link OpenModelDriver}, against a local server with the routes of the gateway.
+ */
+class OpenModelDriverTest {
+
+    private final AtomicLong nextId = new AtomicLong(100);
+    private final Set<String> readIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> authorizations = ConcurrentHashMap.newKeySet();
+
+    private DisposableServer server;
+
+    @TempDir
+    Path reportDir;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+            .host("localhost")
+            .port(0)
+            .route(routes ->
+                routes
+                    .get("/services/blog/api/posts", (request, response) -> {
+                        authorizations.add(request.requestHeaders().get(HttpHeaderNames.AUTHORIZATION));
+                        return response.sendString(Mono.just("[{\"id\":1},{\"id\":2}]"));
+                    })
+                    .get("/services/blog/api/posts/{id}", (request, response) -> {
+                        readIds.add(request.param("id"));
+                        return response.sendString(Mono.just("{}"));
+                    })
+                    .post("/services/blog/api/posts", (request, response) -> {
+                        boolean csrf = request.requestHeaders().get("X-XSRF-TOKEN") != null;
+                        return request
+                            .receive()
+                            .then(
+                                csrf
+                                    ? Mono.from(
+                                        response
+                                            .status(HttpResponseStatus.CREATED)
+                                            .header(HttpHeaderNames.LOCATION, "/api/posts/" + nextId.incrementAndGet())
+                                            .sendString(Mono.just("{}"))
+                                    )
+                                    : Mono.from(response.status(HttpResponseStatus.FORBIDDEN).send())
+                            );
+                    })
+                    .get("/api/account", (request, response) -> response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send())
+            )
+            .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    private OpenModelDriver driver(Map<Scenario, Double> rates, int maxInFlight) {
+        return new OpenModelDriver("http://localhost:" + server.port(), List.of("token1", "token2"), rates, Arrivals.CONSTANT, maxInFlight);
+    }
+
+    @Test
+    void shouldSendRequestsAtRateOfEachScenario() throws Exception {
+        OpenModelDriver driver = driver(
+            Map.of(Scenario.BROWSE_POSTS, 100.0, Scenario.READ_POST, 200.0, Scenario.CREATE_POST, 50.0, Scenario.ACCOUNT, 0.0),
+            1000
+        );
+        assertThat(driver.seed()).isEqualTo(2);
+
+        Map<Scenario, RouteStatistics> statistics;
+        try (Report report = new Report(reportDir)) {
+            statistics = driver.run(Duration.ofMillis(200), Duration.ofSeconds(1), report);
+            report.write(statistics, Duration.ofSeconds(1));
+        }
+
+        assertThat(statistics.get(Scenario.BROWSE_POSTS).getArrivals()).isBetween(95L, 105L);
+        assertThat(statistics.get(Scenario.READ_POST).getArrivals()).isBetween(195L, 205L);
+        assertThat(statistics.get(Scenario.CREATE_POST).getArrivals()).isBetween(45L, 55L);
+        assertThat(statistics.get(Scenario.ACCOUNT).getArrivals()).isZero();
+        statistics
+            .values()
+            .forEach(routeStatistics -> {
+                assertThat(routeStatistics.getHistogram().getTotalCount()).isEqualTo(routeStatistics.getArrivals());
+                assertThat(routeStatistics.getErrors()).isEmpty();
+            });
+        assertThat(authorizations).containsExactlyInAnyOrder("Bearer token1", "Bearer token2");
+        // the created posts are read too
+        assertThat(readIds).contains("1", "2").anyMatch(id -> Long.parseLong(id) > 100);
+
+        assertThat(reportDir.resolve("browse-posts.hlog")).isNotEmptyFile();
+        assertThat(reportDir.resolve("read-post.hgrm")).isNotEmptyFile();
+        assertThat(reportDir.resolve("account.hgrm")).doesNotExist();
+        assertThat(Files.readString(reportDir.resolve("summary.txt"))).contains("GET /services/blog/api/posts/{id}");
+    }
+
+    @Test
+    void shouldCountErrorsByStatus() throws Exception {
+        OpenModelDriver driver = driver(Map.of(Scenario.ACCOUNT, 100.0), 100);
+
+        Map<Scenario, RouteStatistics> statistics;
+        try (Report report = new Report(reportDir)) {
+            statistics = driver.run(Duration.ZERO, Duration.ofMillis(500), report);
+        }
+
+        RouteStatistics account = statistics.get(Scenario.ACCOUNT);
+        assertThat(account.getErrors()).containsOnlyKeys("503");
+        assertThat(account.getErrorCount()).isEqualTo(account.getHistogram().getTotalCount()).isPositive();
+    }
+
+    @Test
+    void shouldDropArrivalsBeyondMaxInFlight() throws Exception {
+        server.disposeNow();
+        // a server which never responds
+        server = HttpServer.create().host("localhost").port(0).handle((request, response) -> Mono.never()).bindNow();
+        OpenModelDriver driver = driver(Map.of(Scenario.ACCOUNT, 100.0), 5);
+
+        try (Report report = new Report(reportDir)) {
+            Thread run = new Thread(() -> {
+                try {
+                    driver.run(Duration.ZERO, Duration.ofMillis(500), report);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            run.setDaemon(true);
+            run.start();
+            run.join(2000);
+        }
+
+        // the 5 requests in flight never complete
+        RouteStatistics account = driver.getStatistics().get(Scenario.ACCOUNT);
+        assertThat(account.getArrivals()).isBetween(45L, 55L);
+        assertThat(account.getDropped()).isEqualTo(account.getArrivals() - 5);
+    }
+}